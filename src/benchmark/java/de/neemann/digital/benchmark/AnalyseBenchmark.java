@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.benchmark;
+
+import de.neemann.digital.analyse.ModelAnalyser;
+import de.neemann.digital.analyse.TruthTable;
+import de.neemann.digital.core.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of a truth table from a model.
+ * The analyser modifies the model, so a new model is created before every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class AnalyseBenchmark {
+
+    @Param({"src/main/dig/combinatorial/Comp7485.dig", "src/main/dig/combinatorial/FullAdderRC.dig"})
+    private String circuit;
+
+    private BenchmarkCircuit bc;
+    private Model model;
+
+    /**
+     * Loads the circuit
+     *
+     * @throws Exception Exception
+     */
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        bc = new BenchmarkCircuit(circuit);
+    }
+
+    /**
+     * Creates a fresh model
+     *
+     * @throws Exception Exception
+     */
+    @Setup(Level.Invocation)
+    public void createModel() throws Exception {
+        model = bc.createModel();
+    }
+
+    /**
+     * @return the truth table
+     * @throws Exception Exception
+     */
+    @Benchmark
+    public TruthTable analyse() throws Exception {
+        return new ModelAnalyser(model).analyse();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.benchmark;
+
+import de.neemann.digital.core.Model;
+import de.neemann.digital.core.NodeException;
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.draw.elements.PinException;
+import de.neemann.digital.draw.library.ElementLibrary;
+import de.neemann.digital.draw.library.ElementNotFoundException;
+import de.neemann.digital.draw.model.ModelCreator;
+import de.neemann.digital.draw.shapes.ShapeFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A circuit loaded from the example files, together with its library.
+ * The files are resolved relative to the system property <code>benchmark.root</code>,
+ * which is set to the project folder by the benchmark profile.
+ */
+final class BenchmarkCircuit {
+    private final File file;
+    private final ElementLibrary library;
+    private final ShapeFactory shapeFactory;
+    private final Circuit circuit;
+
+    /**
+     * Loads the given circuit
+     *
+     * @param name the name of the file relative to the project folder
+     * @throws IOException IOException
+     */
+    BenchmarkCircuit(String name) throws IOException {
+        file = getFile(name);
+        library = new ElementLibrary();
+        library.setRootFilePath(file.getParentFile());
+        shapeFactory = new ShapeFactory(library);
+        circuit = Circuit.loadCircuit(file, shapeFactory);
+    }
+
+    /**
+     * Returns the file with the given name
+     *
+     * @param name the name relative to the project folder
+     * @return the file
+     */
+    static File getFile(String name) {
+        return new File(System.getProperty("benchmark.root", "."), name);
+    }
+
+    /**
+     * @return a new model of the circuit
+     * @throws PinException             PinException
+     * @throws NodeException            NodeException
+     * @throws ElementNotFoundException ElementNotFoundException
+     */
+    Model createModel() throws PinException, NodeException, ElementNotFoundException {
+        return new ModelCreator(circuit, library).createModel(false);
+    }
+
+    /**
+     * @return the circuit file
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the library
+     */
+    ElementLibrary getLibrary() {
+        return library;
+    }
+
+    /**
+     * @return the shape factory
+     */
+    ShapeFactory getShapeFactory() {
+        return shapeFactory;
+    }
+
+    /**
+     * @return the circuit
+     */
+    Circuit getCircuit() {
+        return circuit;
+    }
+}
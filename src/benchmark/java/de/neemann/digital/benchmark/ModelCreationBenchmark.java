@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.benchmark;
+
+import de.neemann.digital.core.Model;
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.draw.model.NetList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a circuit and the creation of the net list and the model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class ModelCreationBenchmark {
+
+    @Param({"src/main/dig/processor/Processor.dig", "src/main/dig/combinatorial/DaddaMultiplier.dig"})
+    private String circuit;
+
+    private BenchmarkCircuit bc;
+
+    /**
+     * Loads the circuit
+     *
+     * @throws Exception Exception
+     */
+    @Setup
+    public void setup() throws Exception {
+        bc = new BenchmarkCircuit(circuit);
+    }
+
+    /**
+     * @return the loaded circuit
+     * @throws Exception Exception
+     */
+    @Benchmark
+    public Circuit loadCircuit() throws Exception {
+        return Circuit.loadCircuit(bc.getFile(), bc.getShapeFactory());
+    }
+
+    /**
+     * @return the net list of the top level circuit
+     * @throws Exception Exception
+     */
+    @Benchmark
+    public NetList createNetList() throws Exception {
+        return new NetList(bc.getCircuit());
+    }
+
+    /**
+     * @return the model including all nested circuits
+     * @throws Exception Exception
+     */
+    @Benchmark
+    public Model createModel() throws Exception {
+        return bc.createModel();
+    }
+}
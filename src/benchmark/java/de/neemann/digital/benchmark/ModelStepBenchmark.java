@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.benchmark;
+
+import de.neemann.digital.core.Model;
+import de.neemann.digital.core.ObservableValue;
+import de.neemann.digital.core.wiring.Clock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time needed to simulate a half clock cycle with the different engines of the {@link Model}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class ModelStepBenchmark {
+
+    @Param({"src/main/dig/processor/Processor.dig", "src/main/dig/processor/ProcessorHDL.dig"})
+    private String circuit;
+
+    @Param({"unitDelay", "parallel"})
+    private String engine;
+
+    private Model model;
+    private ObservableValue clock;
+
+    /**
+     * Creates and initializes the model
+     *
+     * @throws Exception Exception
+     */
+    @Setup
+    public void setup() throws Exception {
+        model = new BenchmarkCircuit(circuit).createModel();
+        if (engine.equals("parallel"))
+            model.setParallelThreshold(64);
+        ArrayList<Clock> clocks = model.getClocks();
+        if (clocks.isEmpty())
+            throw new IllegalStateException("no clock found in " + circuit);
+        clock = clocks.get(0).getClockOutput();
+        model.init(true);
+    }
+
+    /**
+     * Closes the model
+     */
+    @TearDown
+    public void tearDown() {
+        model.close();
+    }
+
+    /**
+     * Toggles the clock and calculates the new state of the model
+     *
+     * @return the model to avoid dead code elimination
+     */
+    @Benchmark
+    public Model step() {
+        clock.setBool(!clock.getBool());
+        model.doStep();
+        return model;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.benchmark;
+
+import de.neemann.digital.analyse.expression.Expression;
+import de.neemann.digital.analyse.expression.Variable;
+import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.QuineMcCluskey;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the minimization of random boolean functions.
+ * The tables are created with a fixed seed, so all runs minimize the same functions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class QuineMcCluskeyBenchmark {
+
+    @Param({"6", "8", "10"})
+    private int vars;
+
+    private ArrayList<Variable> variables;
+    private BoolTableByteArray table;
+
+    /**
+     * Creates the table to minimize
+     */
+    @Setup
+    public void setup() {
+        variables = Variable.vars(vars);
+        Random r = new Random(vars);
+        table = new BoolTableByteArray(1 << vars);
+        for (int i = 0; i < table.size(); i++) {
+            int v = r.nextInt(8);
+            if (v < 3)
+                table.set(i, 1);
+            else if (v == 3)
+                table.set(i, 2);
+        }
+    }
+
+    /**
+     * @return the minimized expression
+     * @throws Exception Exception
+     */
+    @Benchmark
+    public Expression simplify() throws Exception {
+        return new QuineMcCluskey(variables)
+                .fillTableWith(table)
+                .simplify()
+                .getExpression();
+    }
+}
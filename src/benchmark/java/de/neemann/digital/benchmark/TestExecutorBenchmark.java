@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.benchmark;
+
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.testing.TestExecutor;
+import de.neemann.digital.testing.TestResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the execution of the test cases embedded in a circuit.
+ * This includes the creation of the model, as it is done by the test runners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class TestExecutorBenchmark {
+
+    @Param({"src/main/dig/combinatorial/DaddaMultiplier.dig", "src/main/dig/processor/ProcessorTest.dig"})
+    private String circuit;
+
+    private BenchmarkCircuit bc;
+    private List<Circuit.TestCase> testCases;
+
+    /**
+     * Loads the circuit
+     *
+     * @throws Exception Exception
+     */
+    @Setup
+    public void setup() throws Exception {
+        bc = new BenchmarkCircuit(circuit);
+        testCases = bc.getCircuit().getTestCases();
+        if (testCases.isEmpty())
+            throw new IllegalStateException("no test cases found in " + circuit);
+    }
+
+    /**
+     * @return the number of passed test cases
+     * @throws Exception Exception
+     */
+    @Benchmark
+    public int execute() throws Exception {
+        int passed = 0;
+        for (Circuit.TestCase tc : testCases) {
+            TestResult tr = new TestExecutor(tc, bc.getCircuit(), bc.getLibrary()).execute();
+            if (tr.allPassed())
+                passed++;
+        }
+        return passed;
+    }
+}
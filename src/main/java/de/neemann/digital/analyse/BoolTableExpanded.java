@@ -7,7 +7,7 @@ package de.neemann.digital.analyse;
 
 import de.neemann.digital.analyse.expression.Variable;
 import de.neemann.digital.analyse.quinemc.BoolTable;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import de.neemann.digital.analyse.quinemc.ThreeStateValue;
 import de.neemann.digital.core.Bits;
 import de.neemann.digital.core.Signal;
@@ -18,7 +18,7 @@ import java.util.ArrayList;
  * Creates a bool table which represents an expression which does not depend on all variables.
  */
 public class BoolTableExpanded implements BoolTable {
-    private final BoolTableByteArray e;
+    private final BoolTableBitSet e;
     private final ArrayList<Variable> vars;
     private final int[] bitsToRemove;
     private final int bitRemoveCount;
@@ -31,8 +31,8 @@ public class BoolTableExpanded implements BoolTable {
      * @param inputs         the variables the expression relay depends on
      * @param originalInputs all variables
      */
-    public BoolTableExpanded(BoolTableByteArray e, ArrayList<Signal> inputs, ArrayList<Signal> originalInputs) {
-        this.e = e;
+    public BoolTableExpanded(BoolTable e, ArrayList<Signal> inputs, ArrayList<Signal> originalInputs) {
+        this.e = e instanceof BoolTableBitSet ? (BoolTableBitSet) e : new BoolTableBitSet(e);
         bitRemoveCount = originalInputs.size() - inputs.size();
         bitsToRemove = new int[bitRemoveCount];
         size = 1 << originalInputs.size();
@@ -68,7 +68,7 @@ public class BoolTableExpanded implements BoolTable {
     /**
      * @return the bool table
      */
-    public BoolTableByteArray getBoolTable() {
+    public BoolTableBitSet getBoolTable() {
         return e;
     }
 
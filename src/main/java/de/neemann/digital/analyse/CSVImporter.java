@@ -6,7 +6,7 @@
 package de.neemann.digital.analyse;
 
 import de.neemann.digital.analyse.expression.Variable;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import de.neemann.digital.lang.Lang;
 
 import java.io.*;
@@ -84,7 +84,7 @@ public final class CSVImporter {
                 if (tt == null)
                     vars.add(new Variable(h));
                 else
-                    tt.addResult(h, new BoolTableByteArray(1 << vars.size()));
+                    tt.addResult(h, new BoolTableBitSet(1 << vars.size()));
 
             }
         }
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.analyse;
+
+import de.neemann.digital.analyse.expression.Constant;
+import de.neemann.digital.analyse.expression.Expression;
+import de.neemann.digital.analyse.expression.ExpressionException;
+import de.neemann.digital.analyse.expression.Variable;
+import de.neemann.digital.analyse.expression.format.FormatterException;
+import de.neemann.digital.analyse.quinemc.BoolTable;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
+import de.neemann.digital.analyse.quinemc.ThreeStateValue;
+import de.neemann.digital.gui.components.table.ExpressionListener;
+import de.neemann.digital.lang.Lang;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static de.neemann.digital.analyse.expression.Not.not;
+import static de.neemann.digital.analyse.expression.Operation.and;
+import static de.neemann.digital.analyse.expression.Operation.or;
+
+/**
+ * A heuristic two level minimizer in the style of espresso.
+ * In contrast to the {@link MinimizerQuineMcCluskey} not all primes are created.
+ * Instead a cover is improved by the three steps expand, irredundant and reduce, until
+ * the cover has not become cheaper for some iterations.
+ * The result is a cover made of primes without redundant terms, but it is not guaranteed to be minimal.
+ * <p>
+ * A cube is stored in two bit fields, one containing the variables which are part of the cube,
+ * and one containing their values. The bits of the cubes are the bits of the row index, so
+ * the first variable is the most significant bit.
+ */
+public class MinimizerEspresso implements MinimizerInterface {
+    // the same limit as used by the model analyser, the row counters need 4 bytes per row
+    private static final int MAX_VARIABLES = 24;
+    private static final int MAX_ITERATIONS = 20;
+    private static final int MAX_ITERATIONS_WITHOUT_IMPROVEMENT = 3;
+
+    @Override
+    public void minimize(List<Variable> vars, BoolTable boolTable, String resultName, ExpressionListener listener) throws ExpressionException, FormatterException {
+        listener.resultFound(resultName, minimize(vars, boolTable));
+    }
+
+    /**
+     * Minimizes the given table
+     *
+     * @param vars      the variables used
+     * @param boolTable the bool table
+     * @return the minimized expression
+     * @throws ExpressionException ExpressionException
+     */
+    public static Expression minimize(List<Variable> vars, BoolTable boolTable) throws ExpressionException {
+        if (vars.size() > MAX_VARIABLES)
+            throw new ExpressionException(Lang.get("err_toManyVars"));
+        int n = 1 << vars.size();
+        if (n != boolTable.size())
+            throw new ExpressionException(Lang.get("err_exact_N0_valuesNecessaryNot_N1", n, boolTable.size()));
+
+        Cover cover = new Cover(vars.size(), boolTable);
+        cover.minimize();
+        return cover.createExpression(vars);
+    }
+
+    private static final class Cube {
+        private long mask;
+        private long value;
+
+        private Cube(long mask, long value) {
+            this.mask = mask;
+            this.value = value;
+        }
+
+        private int literals() {
+            return Long.bitCount(mask);
+        }
+    }
+
+    private static final class Cover {
+        private final int vars;
+        private final long full;
+        private final long[] on;
+        private final long[] allowed;
+        private final int[] count;
+        private ArrayList<Cube> cubes;
+
+        private Cover(int vars, BoolTable table) {
+            this.vars = vars;
+            full = (1L << vars) - 1;
+            int rows = 1 << vars;
+            int words = (rows + 63) >>> 6;
+            on = new long[words];
+            allowed = new long[words];
+            if (table instanceof BoolTableBitSet) {
+                BoolTableBitSet bs = (BoolTableBitSet) table;
+                for (int w = 0; w < words; w++) {
+                    on[w] = bs.getOnes(w);
+                    allowed[w] = bs.getOnes(w) | bs.getDontCares(w);
+                }
+            } else {
+                for (int i = 0; i < rows; i++) {
+                    ThreeStateValue v = table.get(i);
+                    if (v != ThreeStateValue.zero) {
+                        allowed[i >>> 6] |= 1L << i;
+                        if (v == ThreeStateValue.one)
+                            on[i >>> 6] |= 1L << i;
+                    }
+                }
+            }
+            count = new int[rows];
+            cubes = new ArrayList<>();
+        }
+
+        private static boolean isSet(long[] bits, long i) {
+            return (bits[(int) (i >>> 6)] & (1L << i)) != 0;
+        }
+
+        /*
+         * Returns true if the given cube does not contain a row which is zero.
+         */
+        private boolean isAllowed(long mask, long value) {
+            final long free = ~mask & full;
+            long s = 0;
+            do {
+                if (!isSet(allowed, value | s))
+                    return false;
+                s = (s - free) & free;
+            } while (s != 0);
+            return true;
+        }
+
+        /*
+         * Adds the given delta to the counters of all ones covered by the cube.
+         */
+        private void addCount(Cube c, int delta) {
+            final long free = ~c.mask & full;
+            long s = 0;
+            do {
+                final long m = c.value | s;
+                if (isSet(on, m))
+                    count[(int) m] += delta;
+                s = (s - free) & free;
+            } while (s != 0);
+        }
+
+        /*
+         * Removes as many literals from the cube as possible.
+         * The variables are visited starting at the given variable.
+         */
+        private void expand(Cube c, int start) {
+            for (int i = 0; i < vars; i++) {
+                final long bit = 1L << ((start + i) % vars);
+                if ((c.mask & bit) != 0 && isAllowed(c.mask, c.value ^ bit)) {
+                    c.mask &= ~bit;
+                    c.value &= ~bit;
+                }
+            }
+        }
+
+        private void minimize() {
+            // create an initial cover of primes
+            for (int w = 0; w < on.length; w++) {
+                long bits = on[w];
+                while (bits != 0) {
+                    final long lowest = bits & -bits;
+                    final int m = (w << 6) + Long.numberOfTrailingZeros(lowest);
+                    bits ^= lowest;
+                    if (count[m] == 0) {
+                        Cube c = new Cube(full, m);
+                        expand(c, 0);
+                        addCount(c, 1);
+                        cubes.add(c);
+                    }
+                }
+            }
+            irredundant();
+
+            int bestCubes = cubes.size();
+            int bestLiterals = literals(cubes);
+            ArrayList<Cube> best = copy(cubes);
+            int withoutImprovement = 0;
+            for (int iteration = 1; iteration < MAX_ITERATIONS && withoutImprovement < MAX_ITERATIONS_WITHOUT_IMPROVEMENT; iteration++) {
+                reduce();
+                for (Cube c : cubes) {
+                    addCount(c, -1);
+                    expand(c, iteration);
+                    addCount(c, 1);
+                }
+                irredundant();
+
+                final int literals = literals(cubes);
+                if (cubes.size() < bestCubes || (cubes.size() == bestCubes && literals < bestLiterals)) {
+                    bestCubes = cubes.size();
+                    bestLiterals = literals;
+                    best = copy(cubes);
+                    withoutImprovement = 0;
+                } else
+                    withoutImprovement++;
+            }
+            cubes = best;
+        }
+
+        /*
+         * Removes the cubes which only cover ones which are also covered by other cubes.
+         * The small cubes are removed first.
+         */
+        private void irredundant() {
+            cubes.sort(Comparator.comparingInt(Cube::literals).reversed());
+            ArrayList<Cube> result = new ArrayList<>(cubes.size());
+            for (Cube c : cubes) {
+                if (isRedundant(c))
+                    addCount(c, -1);
+                else
+                    result.add(c);
+            }
+            result.sort(Comparator.comparingInt(Cube::literals));
+            cubes = result;
+        }
+
+        private boolean isRedundant(Cube c) {
+            final long free = ~c.mask & full;
+            long s = 0;
+            do {
+                final long m = c.value | s;
+                if (isSet(on, m) && count[(int) m] < 2)
+                    return false;
+                s = (s - free) & free;
+            } while (s != 0);
+            return true;
+        }
+
+        /*
+         * Replaces every cube by the smallest cube which contains all the ones only
+         * covered by this cube. The large cubes are reduced first.
+         */
+        private void reduce() {
+            ArrayList<Cube> result = new ArrayList<>(cubes.size());
+            for (Cube c : cubes) {
+                long andAll = full;
+                long orAll = 0;
+                boolean found = false;
+                final long free = ~c.mask & full;
+                long s = 0;
+                do {
+                    final long m = c.value | s;
+                    if (isSet(on, m) && count[(int) m] == 1) {
+                        andAll &= m;
+                        orAll |= m;
+                        found = true;
+                    }
+                    s = (s - free) & free;
+                } while (s != 0);
+
+                addCount(c, -1);
+                if (found) {
+                    c.mask = ~(andAll ^ orAll) & full;
+                    c.value = andAll & c.mask;
+                    addCount(c, 1);
+                    result.add(c);
+                }
+            }
+            cubes = result;
+        }
+
+        private static int literals(List<Cube> cubes) {
+            int l = 0;
+            for (Cube c : cubes)
+                l += c.literals();
+            return l;
+        }
+
+        private static ArrayList<Cube> copy(List<Cube> cubes) {
+            ArrayList<Cube> copy = new ArrayList<>(cubes.size());
+            for (Cube c : cubes)
+                copy.add(new Cube(c.mask, c.value));
+            return copy;
+        }
+
+        private Expression createExpression(List<Variable> variables) {
+            if (cubes.isEmpty())
+                return Constant.ZERO;
+
+            // sort the cubes to create a stable result
+            cubes.sort(Comparator.comparingLong((Cube c) -> c.value).thenComparingLong(c -> c.mask));
+            ArrayList<Expression> terms = new ArrayList<>(cubes.size());
+            for (Cube c : cubes) {
+                if (c.mask == 0)
+                    return Constant.ONE;
+                ArrayList<Expression> literals = new ArrayList<>();
+                for (int i = 0; i < vars; i++) {
+                    final long bit = 1L << (vars - 1 - i);
+                    if ((c.mask & bit) != 0) {
+                        if ((c.value & bit) != 0)
+                            literals.add(variables.get(i));
+                        else
+                            literals.add(not(variables.get(i)));
+                    }
+                }
+                terms.add(and(literals));
+            }
+            return or(terms);
+        }
+    }
+}
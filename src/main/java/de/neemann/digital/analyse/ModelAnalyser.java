@@ -6,8 +6,9 @@
 package de.neemann.digital.analyse;
 
 import de.neemann.digital.analyse.expression.BitSetter;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import de.neemann.digital.core.*;
+import de.neemann.digital.core.basic.BitSlicedEvaluator;
 import de.neemann.digital.core.flipflops.FlipflopD;
 import de.neemann.digital.core.switching.NFET;
 import de.neemann.digital.core.switching.Relay;
@@ -15,13 +16,21 @@ import de.neemann.digital.core.switching.RelayDT;
 import de.neemann.digital.core.wiring.Clock;
 import de.neemann.digital.core.wiring.Splitter;
 import de.neemann.digital.draw.elements.PinException;
+import de.neemann.digital.draw.library.ElementNotFoundException;
 import de.neemann.digital.gui.Main;
 import de.neemann.digital.lang.Lang;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Analyses a given model.
@@ -30,11 +39,15 @@ import java.util.List;
 public class ModelAnalyser {
     private static final Logger LOGGER = LoggerFactory.getLogger(ModelAnalyser.class);
     private static final int MAX_INPUTS_ALLOWED = 24;
+    private static final int MIN_STEPS_FOR_PARALLEL = 1 << 10;
 
     private final Model model;
     private final ArrayList<Signal> inputs;
     private final ArrayList<Signal> outputs;
     private ModelAnalyserInfo modelAnalyzerInfo;
+    private ModelFactory modelFactory;
+    private int threads = 1;
+    private boolean rowsIndependent;
 
     /**
      * Creates a new instance
@@ -93,6 +106,25 @@ public class ModelAnalyser {
             throw new AnalyseException(Lang.get("err_analyseNoOutputs"));
     }
 
+    /**
+     * Allows the analyser to fill the truth table concurrently.
+     * The given factory is used to create independent copies of the model, one for each thread.
+     * The copies are created sequentially by the calling thread.
+     * Each copy fills a disjoint range of rows, or, if the outputs are analysed one by one,
+     * different outputs.
+     * This is only done if the model can not be analysed bit sliced and if the rows can be
+     * calculated independently of each other, which requires the model to be free of cycles.
+     *
+     * @param modelFactory creates a new copy of the model
+     * @param threads      the number of threads to use
+     * @return this for chained calls
+     */
+    public ModelAnalyser setParallel(ModelFactory modelFactory, int threads) {
+        this.modelFactory = modelFactory;
+        this.threads = threads;
+        return this;
+    }
+
     /**
      * Adds the "+1" to the variables name
      *
@@ -345,7 +377,8 @@ public class ModelAnalyser {
         for (Signal s : inputs)
             tt.addVariable(s.getName());
 
-        if (!Main.isExperimentalMode() && !modelContainsSwitches())
+        rowsIndependent = !Main.isExperimentalMode() && !modelContainsSwitches();
+        if (rowsIndependent)
             CycleDetector.checkForCycles(inputs);
 
         DependencyAnalyser da = new DependencyAnalyser(this);
@@ -380,7 +413,51 @@ public class ModelAnalyser {
         if (inputs.size() > MAX_INPUTS_ALLOWED)
             throw new AnalyseException(Lang.get("err_toManyInputs_max_N0_is_N1", MAX_INPUTS_ALLOWED, inputs.size()));
 
+        int rows = 1 << inputs.size();
+        ArrayList<BoolTableBitSet> data = new ArrayList<>();
+        for (Signal s : outputs) {
+            BoolTableBitSet e = new BoolTableBitSet(rows);
+            data.add(e);
+            tt.addResult(s.getName(), e);
+        }
+
+        model.init();
+        BitSlicedEvaluator bse = createBitSlicedEvaluator(inputs, outputs);
+        if (bse != null) {
+            fillBitSliced(bse, rows, data);
+            return;
+        }
+
+        ArrayList<ModelAnalyser> copies = createCopies(rows);
+        if (copies.isEmpty())
+            fillRows(0, rows, data);
+        else {
+            ArrayList<Callable<Void>> tasks = new ArrayList<>();
+            final int n = copies.size() + 1;
+            // the chunks are aligned to the words of the tables, so no word is written by two threads
+            final int chunk = ((rows + n - 1) / n + 63) & ~63;
+            tasks.add(() -> {
+                fillRows(0, Math.min(rows, chunk), data);
+                return null;
+            });
+            for (int i = 1; i < n; i++) {
+                final ModelAnalyser ma = copies.get(i - 1);
+                final int from = Math.min(rows, i * chunk);
+                final int to = Math.min(rows, from + chunk);
+                tasks.add(() -> {
+                    ma.model.init();
+                    ma.fillRows(from, to, data);
+                    return null;
+                });
+            }
+            runParallel(tasks, copies);
+        }
+    }
 
+    /*
+     * Fills the given rows. Different threads can fill disjoint ranges of rows.
+     */
+    private void fillRows(int from, int to, List<BoolTableBitSet> data) throws NodeException {
         BitSetter bitsetter = new BitSetter(inputs.size()) {
             @Override
             public void setBit(int row, int bit, boolean value) {
@@ -388,16 +465,7 @@ public class ModelAnalyser {
             }
         };
 
-        int rows = 1 << inputs.size();
-        ArrayList<BoolTableByteArray> data = new ArrayList<>();
-        for (Signal s : outputs) {
-            BoolTableByteArray e = new BoolTableByteArray(rows);
-            data.add(e);
-            tt.addResult(s.getName(), e);
-        }
-
-        model.init();
-        for (int row = 0; row < rows; row++) {
+        for (int row = from; row < to; row++) {
             bitsetter.fill(row);
             model.doStep();
             for (int i = 0; i < outputs.size(); i++) {
@@ -407,15 +475,68 @@ public class ModelAnalyser {
     }
 
     private void dependantFiller(TruthTable tt, DependencyAnalyser da) throws NodeException, AnalyseException {
-        model.init();
+        ArrayList<ArrayList<Signal>> insList = new ArrayList<>();
+        long steps = 0;
         for (Signal out : outputs) {
-
             ArrayList<Signal> ins = reorder(da.getInputs(out), inputs);
             if (ins.size() > MAX_INPUTS_ALLOWED)
                 throw new AnalyseException(Lang.get("err_toManyInputs_max_N0_is_N1", MAX_INPUTS_ALLOWED, ins.size()));
+            insList.add(ins);
+            steps += 1 << ins.size();
+        }
+
+        model.init();
+        BoolTableBitSet[] results = new BoolTableBitSet[outputs.size()];
+        ArrayList<ModelAnalyser> copies = outputs.size() > 1 ? createCopies(steps) : new ArrayList<>();
+        if (copies.isEmpty()) {
+            for (int i = 0; i < outputs.size(); i++)
+                results[i] = fillOutput(i, insList.get(i));
+        } else {
+            // the outputs are distributed dynamically, because their effort differs widely
+            AtomicInteger next = new AtomicInteger();
+            ArrayList<Callable<Void>> tasks = new ArrayList<>();
+            tasks.add(() -> {
+                fillOutputs(next, insList, results);
+                return null;
+            });
+            for (ModelAnalyser ma : copies)
+                tasks.add(() -> {
+                    ma.model.init();
+                    ma.fillOutputs(next, insList, results);
+                    return null;
+                });
+            runParallel(tasks, copies);
+        }
 
-            int rows = 1 << ins.size();
-            BoolTableByteArray e = new BoolTableByteArray(rows);
+        for (int i = 0; i < outputs.size(); i++)
+            tt.addResult(outputs.get(i).getName(), new BoolTableExpanded(results[i], insList.get(i), inputs));
+    }
+
+    private void fillOutputs(AtomicInteger next, ArrayList<ArrayList<Signal>> insList, BoolTableBitSet[] results) throws NodeException {
+        int i = next.getAndIncrement();
+        while (i < results.length) {
+            results[i] = fillOutput(i, insList.get(i));
+            i = next.getAndIncrement();
+        }
+    }
+
+    /*
+     * Creates the table of a single output.
+     * The given inputs are the inputs of the original analyser, so the signals
+     * of this analyser are looked up by their index.
+     */
+    private BoolTableBitSet fillOutput(int outIndex, ArrayList<Signal> originalIns) throws NodeException {
+        Signal out = outputs.get(outIndex);
+        ArrayList<Signal> ins = new ArrayList<>(originalIns.size());
+        for (Signal s : originalIns)
+            ins.add(inputs.get(indexOf(s)));
+
+        int rows = 1 << ins.size();
+        BoolTableBitSet e = new BoolTableBitSet(rows);
+        BitSlicedEvaluator bse = createBitSlicedEvaluator(ins, Collections.singletonList(out));
+        if (bse != null)
+            fillBitSliced(bse, rows, Collections.singletonList(e));
+        else {
             BitSetter bitsetter = new BitSetter(ins.size()) {
                 @Override
                 public void setBit(int row, int bit, boolean value) {
@@ -428,8 +549,110 @@ public class ModelAnalyser {
                 model.doStep();
                 e.set(row, out.getValue().getBool());
             }
+        }
+        return e;
+    }
+
+    private int indexOf(Signal s) {
+        for (int i = 0; i < inputs.size(); i++)
+            if (inputs.get(i).getName().equals(s.getName()))
+                return i;
+        throw new IllegalArgumentException(s.getName());
+    }
+
+    /*
+     * Creates the copies of the model needed to fill the table concurrently.
+     * Returns an empty list if the table is to be filled by this analyser only.
+     */
+    private ArrayList<ModelAnalyser> createCopies(long steps) throws AnalyseException {
+        ArrayList<ModelAnalyser> copies = new ArrayList<>();
+        if (modelFactory == null || threads < 2 || !rowsIndependent || steps < MIN_STEPS_FOR_PARALLEL)
+            return copies;
+
+        try {
+            for (int i = 1; i < threads; i++) {
+                ModelAnalyser ma = new ModelAnalyser(modelFactory.createModel());
+                copies.add(ma);
+                if (!ma.hasSameSignals(this)) {
+                    LOGGER.warn("model copy differs from the original, analyse sequentially");
+                    closeAll(copies);
+                    copies.clear();
+                    break;
+                }
+            }
+        } catch (PinException | NodeException | ElementNotFoundException e) {
+            closeAll(copies);
+            throw new AnalyseException(e);
+        }
+        LOGGER.debug("analyse with " + (copies.size() + 1) + " threads");
+        return copies;
+    }
+
+    private boolean hasSameSignals(ModelAnalyser other) {
+        return sameNames(inputs, other.inputs) && sameNames(outputs, other.outputs);
+    }
+
+    private static boolean sameNames(List<Signal> a, List<Signal> b) {
+        if (a.size() != b.size())
+            return false;
+        for (int i = 0; i < a.size(); i++)
+            if (!a.get(i).getName().equals(b.get(i).getName()))
+                return false;
+        return true;
+    }
+
+    private static void closeAll(List<ModelAnalyser> copies) {
+        for (ModelAnalyser ma : copies)
+            ma.model.close();
+    }
 
-            tt.addResult(out.getName(), new BoolTableExpanded(e, ins, inputs));
+    private static void runParallel(List<Callable<Void>> tasks, List<ModelAnalyser> copies) throws NodeException, AnalyseException {
+        ExecutorService ex = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> f : ex.invokeAll(tasks))
+                f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalyseException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NodeException)
+                throw (NodeException) cause;
+            if (cause instanceof AnalyseException)
+                throw (AnalyseException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new AnalyseException(e);
+        } finally {
+            ex.shutdown();
+            closeAll(copies);
+        }
+    }
+
+    /*
+     * Returns an evaluator which calculates 64 rows at once, or null if the
+     * model contains anything other than one bit basic gates.
+     */
+    private BitSlicedEvaluator createBitSlicedEvaluator(List<Signal> ins, List<Signal> outs) {
+        BitSlicedEvaluator bse = BitSlicedEvaluator.create(model, getValues(ins), getValues(outs));
+        if (bse != null)
+            LOGGER.debug("bit sliced analysis of " + bse.getGateCount() + " gates");
+        return bse;
+    }
+
+    private static ArrayList<ObservableValue> getValues(List<Signal> signals) {
+        ArrayList<ObservableValue> values = new ArrayList<>(signals.size());
+        for (Signal s : signals)
+            values.add(s.getValue());
+        return values;
+    }
+
+    private static void fillBitSliced(BitSlicedEvaluator bse, int rows, List<BoolTableBitSet> data) {
+        long[] out = new long[data.size()];
+        for (int row = 0; row < rows; row += BitSlicedEvaluator.SLICE) {
+            bse.evaluateRows(row, out);
+            for (int i = 0; i < out.length; i++)
+                data.get(i).setWord(row >>> 6, out[i]);
         }
     }
 
@@ -437,6 +660,19 @@ public class ModelAnalyser {
         return modelAnalyzerInfo;
     }
 
+    /**
+     * Creates the copies of a model
+     */
+    public interface ModelFactory {
+        /**
+         * @return a new model
+         * @throws PinException             PinException
+         * @throws NodeException            NodeException
+         * @throws ElementNotFoundException ElementNotFoundException
+         */
+        Model createModel() throws PinException, NodeException, ElementNotFoundException;
+    }
+
     private ArrayList<Signal> reorder(ArrayList<Signal> ins, ArrayList<Signal> originalOrder) {
         ArrayList<Signal> newList = new ArrayList<>();
         for (Signal i : originalOrder)
@@ -13,6 +13,7 @@ import de.neemann.digital.analyse.expression.Context;
 import de.neemann.digital.analyse.expression.ExpressionException;
 import de.neemann.digital.analyse.expression.Variable;
 import de.neemann.digital.analyse.quinemc.BoolTable;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
 import de.neemann.digital.undo.Copyable;
 
@@ -69,7 +70,9 @@ public class TruthTable implements Copyable<TruthTable> {
         xStream.alias("variable", Variable.class);
         xStream.aliasAttribute(Variable.class, "identifier", "name");
         xStream.alias("result", Result.class);
+        // both tables are written as "BoolTable", the bit set is used if a table is read
         xStream.alias("BoolTable", BoolTableByteArray.class);
+        xStream.alias("BoolTable", BoolTableBitSet.class);
         xStream.alias("BoolTableEx", BoolTableExpanded.class);
         xStream.registerConverter(new TruthTableConverter());
         return xStream;
@@ -110,7 +113,7 @@ public class TruthTable implements Copyable<TruthTable> {
     public TruthTable(ArrayList<Variable> newVars, TruthTable oldTable) {
         this(newVars);
         for (int i = 0; i < oldTable.getResultCount(); i++) {
-            addResult(oldTable.results.get(i).getName(), new BoolTableByteArray(getRows()));
+            addResult(oldTable.results.get(i).getName(), new BoolTableBitSet(getRows()));
         }
     }
 
@@ -121,7 +124,7 @@ public class TruthTable implements Copyable<TruthTable> {
         results = new ArrayList<>();
         for (int i = 0; i < truthTable.getResultCount(); i++) {
             Result result = truthTable.results.get(i);
-            addResult(result.getName(), new BoolTableByteArray(result.values));
+            addResult(result.getName(), new BoolTableBitSet(result.values));
         }
         this.modelAnalyzerInfo = truthTable.modelAnalyzerInfo;
     }
@@ -181,7 +184,7 @@ public class TruthTable implements Copyable<TruthTable> {
      * @return this for call chaining
      */
     public TruthTable addResult(String name) {
-        results.add(new Result(name, new BoolTableByteArray(getRows())));
+        results.add(new Result(name, new BoolTableBitSet(getRows())));
         return this;
     }
 
@@ -224,7 +227,7 @@ public class TruthTable implements Copyable<TruthTable> {
     public TruthTable addVariable(Variable var) {
         variables.add(var);
         for (Result r : results)
-            r.setValues(BoolTableByteArray.createDoubledValues(r.getValues()));
+            r.setValues(BoolTableBitSet.createDoubledValues(r.getValues()));
 
         bitSetter = null;
         return this;
@@ -319,7 +322,7 @@ public class TruthTable implements Copyable<TruthTable> {
             return false;
         else {
             BoolTable v = results.get(columnIndex - variables.size()).getValues();
-            return v instanceof BoolTableByteArray;
+            return v instanceof BoolTableBitSet || v instanceof BoolTableByteArray;
         }
     }
 
@@ -332,9 +335,7 @@ public class TruthTable implements Copyable<TruthTable> {
      */
     public void setValue(int rowIndex, int columnIndex, int aValue) {
         if (columnIndex >= variables.size()) {
-            BoolTable v = results.get(columnIndex - variables.size()).getValues();
-            if (v instanceof BoolTableByteArray)
-                ((BoolTableByteArray) v).set(rowIndex, aValue);
+            setTableValue(results.get(columnIndex - variables.size()).getValues(), rowIndex, aValue);
         }
     }
 
@@ -380,9 +381,14 @@ public class TruthTable implements Copyable<TruthTable> {
      * @throws ExpressionException ExpressionException
      */
     public void setByContext(int result, Context context, int value) throws ExpressionException {
-        BoolTable v = results.get(result).getValues();
-        if (v instanceof BoolTableByteArray)
-            ((BoolTableByteArray) v).set(getIndexByContext(context), value);
+        setTableValue(results.get(result).getValues(), getIndexByContext(context), value);
+    }
+
+    private static void setTableValue(BoolTable v, int row, int value) {
+        if (v instanceof BoolTableBitSet)
+            ((BoolTableBitSet) v).set(row, value);
+        else if (v instanceof BoolTableByteArray)
+            ((BoolTableByteArray) v).set(row, value);
     }
 
     private int getIndexByContext(Context context) throws ExpressionException {
@@ -455,7 +461,9 @@ public class TruthTable implements Copyable<TruthTable> {
     public TruthTable modifyValues(BoolTableByteArray.TableModifier m) {
         for (Result r : results) {
             BoolTable bt = r.getValues();
-            if (bt instanceof BoolTableByteArray)
+            if (bt instanceof BoolTableBitSet)
+                ((BoolTableBitSet) bt).modify(m);
+            else if (bt instanceof BoolTableByteArray)
                 ((BoolTableByteArray) bt).modify(m);
         }
         return this;
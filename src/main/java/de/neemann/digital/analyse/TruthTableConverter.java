@@ -10,6 +10,7 @@ import com.thoughtworks.xstream.converters.MarshallingContext;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
 
 /**
@@ -20,13 +21,12 @@ public class TruthTableConverter implements Converter {
 
     @Override
     public boolean canConvert(Class aClass) {
-        return aClass.equals(BoolTableByteArray.class);
+        return aClass.equals(BoolTableBitSet.class) || aClass.equals(BoolTableByteArray.class);
     }
 
     @Override
     public void marshal(Object o, HierarchicalStreamWriter writer, MarshallingContext marshallingContext) {
-        BoolTableByteArray bt = (BoolTableByteArray) o;
-        writer.setValue(bt.toString());
+        writer.setValue(o.toString());
     }
 
     @Override
@@ -36,10 +36,10 @@ public class TruthTableConverter implements Converter {
             reader.moveDown();
             Object o = unmarshallingContext.convertAnother(new byte[]{}, byte[].class);
             reader.moveUp();
-            return new BoolTableByteArray((byte[]) o);
+            return new BoolTableBitSet(new BoolTableByteArray((byte[]) o));
         } else {
             String values = reader.getValue();
-            return new BoolTableByteArray(values);
+            return new BoolTableBitSet(values);
         }
     }
 
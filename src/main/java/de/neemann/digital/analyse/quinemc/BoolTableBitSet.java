@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.analyse.quinemc;
+
+import java.util.Arrays;
+
+/**
+ * A bool table which stores the values in two bit planes.
+ * The first plane contains the ones, the second plane the don't cares.
+ * A row which is neither set in the first nor in the second plane is zero.
+ * Compared to the {@link BoolTableByteArray} only a quarter of the memory is needed,
+ * and 64 rows can be accessed at once.
+ */
+public class BoolTableBitSet implements BoolTable {
+    private final int size;
+    private final long[] ones;
+    private final long[] dontCare;
+
+    /**
+     * Creates a new instance
+     *
+     * @param rows the number of rows
+     */
+    public BoolTableBitSet(int rows) {
+        size = rows;
+        ones = new long[(rows + 63) >>> 6];
+        dontCare = new long[ones.length];
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param values the values to initialize the table
+     */
+    public BoolTableBitSet(BoolTable values) {
+        this(values.size());
+        if (values instanceof BoolTableBitSet) {
+            BoolTableBitSet bs = (BoolTableBitSet) values;
+            System.arraycopy(bs.ones, 0, ones, 0, ones.length);
+            System.arraycopy(bs.dontCare, 0, dontCare, 0, dontCare.length);
+        } else
+            for (int i = 0; i < size; i++)
+                set(i, values.get(i).asInt());
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param values the values, '0', '1' or anything else for don't care
+     */
+    public BoolTableBitSet(String values) {
+        this(values.length());
+        for (int i = 0; i < size; i++) {
+            switch (values.charAt(i)) {
+                case '0':
+                    break;
+                case '1':
+                    set(i, 1);
+                    break;
+                default:
+                    set(i, 2);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ThreeStateValue get(int i) {
+        final long m = 1L << i;
+        final int w = i >>> 6;
+        if ((ones[w] & m) != 0)
+            return ThreeStateValue.one;
+        if ((dontCare[w] & m) != 0)
+            return ThreeStateValue.dontCare;
+        return ThreeStateValue.zero;
+    }
+
+    /**
+     * Sets a table value
+     *
+     * @param row  the row
+     * @param bool the value
+     */
+    public void set(int row, boolean bool) {
+        set(row, bool ? 1 : 0);
+    }
+
+    /**
+     * Sets a table value
+     *
+     * @param row   the row
+     * @param value the value, 0, 1 or 2 for don't care
+     */
+    public void set(int row, int value) {
+        final long m = 1L << row;
+        final int w = row >>> 6;
+        switch (value) {
+            case 0:
+                ones[w] &= ~m;
+                dontCare[w] &= ~m;
+                break;
+            case 1:
+                ones[w] |= m;
+                dontCare[w] &= ~m;
+                break;
+            default:
+                ones[w] &= ~m;
+                dontCare[w] |= m;
+        }
+    }
+
+    /**
+     * @return the number of words in each bit plane
+     */
+    public int getWordCount() {
+        return ones.length;
+    }
+
+    /**
+     * Returns 64 rows of the ones plane.
+     * Bit j of the returned word represents the row <code>word*64+j</code>.
+     *
+     * @param word the index of the word
+     * @return the ones
+     */
+    public long getOnes(int word) {
+        return ones[word];
+    }
+
+    /**
+     * Returns 64 rows of the don't care plane.
+     * Bit j of the returned word represents the row <code>word*64+j</code>.
+     *
+     * @param word the index of the word
+     * @return the don't cares
+     */
+    public long getDontCares(int word) {
+        return dontCare[word];
+    }
+
+    /**
+     * Sets 64 rows to zero or one.
+     * Bit j of the given value is stored in the row <code>word*64+j</code>.
+     * Bits outside the table are ignored.
+     *
+     * @param word   the index of the word
+     * @param values the values of the rows
+     */
+    public void setWord(int word, long values) {
+        ones[word] = values & validBits(word);
+        dontCare[word] = 0;
+    }
+
+    private long validBits(int word) {
+        int valid = size - (word << 6);
+        if (valid >= 64)
+            return -1;
+        return (1L << valid) - 1;
+    }
+
+    /**
+     * Creates a table where all values added twice
+     *
+     * @param values the original values
+     * @return the new values
+     */
+    public static BoolTableBitSet createDoubledValues(BoolTable values) {
+        BoolTableBitSet t = new BoolTableBitSet(values.size() * 2);
+        for (int i = 0; i < values.size(); i++) {
+            int v = values.get(i).asInt();
+            t.set(i * 2, v);
+            t.set(i * 2 + 1, v);
+        }
+        return t;
+    }
+
+    /**
+     * Modifies all the table elements using the given modifier.
+     *
+     * @param m the modifier
+     */
+    public void modify(BoolTableByteArray.TableModifier m) {
+        for (int i = 0; i < size; i++)
+            set(i, m.modify((byte) get(i).asInt()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BoolTableBitSet that = (BoolTableBitSet) o;
+        return size == that.size
+                && Arrays.equals(ones, that.ones)
+                && Arrays.equals(dontCare, that.dontCare);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * size + Arrays.hashCode(ones)) + Arrays.hashCode(dontCare);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            switch (get(i)) {
+                case zero:
+                    sb.append('0');
+                    break;
+                case one:
+                    sb.append('1');
+                    break;
+                default:
+                    sb.append('X');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -70,6 +70,8 @@ public class QuineMcCluskey {
         int n = 1 << variables.size();
         if (n != values.size())
             throw new ExpressionException(Lang.get("err_exact_N0_valuesNecessaryNot_N1", n, values.size()));
+        if (values instanceof BoolTableBitSet)
+            return fillTableWith((BoolTableBitSet) values);
         for (int i = 0; i < n; i++) {
             ThreeStateValue value = values.get(i);
             if (!value.equals(ThreeStateValue.zero)) {
@@ -80,6 +82,23 @@ public class QuineMcCluskey {
     }
 
 
+    /*
+     * Only the rows which are not zero are visited, which are found
+     * word by word in the bit planes.
+     */
+    private QuineMcCluskey fillTableWith(BoolTableBitSet values) {
+        for (int w = 0; w < values.getWordCount(); w++) {
+            final long dc = values.getDontCares(w);
+            long set = values.getOnes(w) | dc;
+            while (set != 0) {
+                final long lowest = set & -set;
+                add((w << 6) + Long.numberOfTrailingZeros(lowest), (dc & lowest) != 0);
+                set ^= lowest;
+            }
+        }
+        return this;
+    }
+
     private void add(int i, boolean dontCare) {
         rows.add(new TableRow(variables.size(), i, rows.size() + 1, dontCare));
     }
@@ -134,35 +153,50 @@ public class QuineMcCluskey {
 
 
     /**
-     * a single simplification iteration
+     * a single simplification iteration.
+     * Two rows can only be merged if they have the same optimized flags and their states
+     * differ in a single bit. So the partners of a row are looked up by their state
+     * in the list of rows with the same flags, instead of comparing all pairs of rows.
      */
     public void simplifyStep() {
         TableRows newRows = new TableRows();
 
+        int[] partners = new int[variables.size()];
         for (TableRows.InnerList list : rows.listIterable())
-            for (int i = 0; i < list.size() - 1; i++)
-                for (int j = i + 1; j < list.size(); j++) {
-                    TableRow r1 = list.get(i);
-                    TableRow r2 = list.get(j);
+            for (int i = 0; i < list.size() - 1; i++) {
+                TableRow r1 = list.get(i);
+
+                int count = 0;
+                long free = ~r1.getOptimizedFlags() & ((1L << r1.size()) - 1);
+                while (free != 0) {
+                    final long bit = free & -free;
+                    free ^= bit;
+                    int j = list.indexOf(r1.getState() ^ bit);
+                    if (j > i)
+                        partners[count++] = j;
+                }
+                // keeps the order of the new rows independent of the bit order
+                Arrays.sort(partners, 0, count);
+
+                for (int p = 0; p < count; p++) {
+                    TableRow r2 = list.get(partners[p]);
 
                     int index = r1.checkCompatible(r2);
-                    if (index >= 0) {
-                        // can optimize;
-                        TableRow newRow = new TableRow(r1);
-                        newRow.setToOptimized(index);
-
-                        if (!newRows.contains(newRow)) {
-                            newRow.addSource(r1.getSource());
-                            newRow.addSource(r2.getSource());
-                            newRows.add(newRow);
-                        }
-                        r1.setUsed();
-                        r2.setUsed();
+                    TableRow newRow = new TableRow(r1);
+                    newRow.setToOptimized(index);
+
+                    if (!newRows.contains(newRow)) {
+                        newRow.addSource(r1.getSource());
+                        newRow.addSource(r2.getSource());
+                        newRows.add(newRow);
                     }
+                    r1.setUsed();
+                    r2.setUsed();
                 }
+            }
 
         for (TableRow row : rows)
-            if (!row.isUsed() && row.getSource().size() > 0)
+            if (!row.isUsed() && !row.getSource().isEmpty())
                 primes.add(row);
 
         rows = newRows;
@@ -257,9 +291,9 @@ public class QuineMcCluskey {
      */
     public void simplifyPrimes(PrimeSelector primeSelector) {
 
-        TreeSet<Integer> columns = new TreeSet<>();
+        BitSet columns = new BitSet();
         for (TableRow r : primes)
-            columns.addAll(r.getSource());
+            columns.or(r.getSource());
 
         LOGGER.debug("initial primes " + primes.size());
 
@@ -269,18 +303,28 @@ public class QuineMcCluskey {
             HashSet<TableRow> rowsToDelete = new HashSet<>();
             for (TableRow r1 : primes)
                 for (TableRow r2 : primes) {
-                    if ((r1 != r2) && !rowsToDelete.contains(r1) && r1.getSource().containsAll(r2.getSource()))
+                    if ((r1 != r2) && !rowsToDelete.contains(r1) && containsAll(r1.getSource(), r2.getSource()))
                         rowsToDelete.add(r2);
                 }
 
             primes.removeAll(rowsToDelete);
 
             // find the cols to delete
-            HashSet<Integer> colsToDelete = new HashSet<>();
-            for (int c1 : columns) {
-                for (int c2 : columns) {
-                    if ((c1 != c2) && !colsToDelete.contains(c1) && smaller(c1, c2, primes))
-                        colsToDelete.add(c2);
+            // a column c2 can be deleted if every prime which contains c1 also contains c2
+            BitSet[] primesOfColumn = new BitSet[columns.length()];
+            for (int c = columns.nextSetBit(0); c >= 0; c = columns.nextSetBit(c + 1))
+                primesOfColumn[c] = new BitSet(primes.size());
+            for (int p = 0; p < primes.size(); p++) {
+                BitSet s = primes.get(p).getSource();
+                for (int c = s.nextSetBit(0); c >= 0; c = s.nextSetBit(c + 1))
+                    primesOfColumn[c].set(p);
+            }
+
+            BitSet colsToDelete = new BitSet();
+            for (int c1 = columns.nextSetBit(0); c1 >= 0; c1 = columns.nextSetBit(c1 + 1)) {
+                for (int c2 = columns.nextSetBit(0); c2 >= 0; c2 = columns.nextSetBit(c2 + 1)) {
+                    if ((c1 != c2) && !colsToDelete.get(c1) && containsAll(primesOfColumn[c2], primesOfColumn[c1]))
+                        colsToDelete.set(c2);
                 }
             }
 
@@ -288,9 +332,9 @@ public class QuineMcCluskey {
                 break;
 
             for (TableRow p : primes)
-                p.getSource().removeAll(colsToDelete);
+                p.getSource().andNot(colsToDelete);
 
-            columns.removeAll(colsToDelete);
+            columns.andNot(colsToDelete);
         }
 
         LOGGER.debug("residual primes " + primes.size());
@@ -305,12 +349,12 @@ public class QuineMcCluskey {
         }
     }
 
-    private boolean smaller(int c1, int c2, ArrayList<TableRow> primes) {
-        for (TableRow r : primes) {
-            Collection<Integer> s = r.getSource();
-            if (s.contains(c1) && !s.contains(c2))
-                return false;
-        }
-        return true;
+    /*
+     * Returns true if all bits set in b are also set in a.
+     */
+    private static boolean containsAll(BitSet a, BitSet b) {
+        BitSet rest = (BitSet) b.clone();
+        rest.andNot(a);
+        return rest.isEmpty();
     }
 }
@@ -11,9 +11,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.TreeSet;
 
 /**
  * Not as efficient as {@link QuineMcCluskey} but it shows all possible solutions.
@@ -46,17 +46,17 @@ public class QuineMcCluskeyExam extends QuineMcCluskey {
         ArrayList<TableRow> primesAvail = new ArrayList<>(primes);
         primes.clear();
 
-        TreeSet<Integer> termIndices = new TreeSet<>();
+        BitSet termIndices = new BitSet();
         for (TableRow r : primesAvail)
-            termIndices.addAll(r.getSource());
+            termIndices.or(r.getSource());
 
         // Nach primtermen suchen, welche einen index exclusiv enthalten
         // Diese müssen in jedem Falle enthalten sein!
-        for (int pr : termIndices) {
+        for (int pr = termIndices.nextSetBit(0); pr >= 0; pr = termIndices.nextSetBit(pr + 1)) {
 
             TableRow foundPrime = null;
             for (TableRow tr : primesAvail) {
-                if (tr.getSource().contains(pr)) {
+                if (tr.getSource().get(pr)) {
                     if (foundPrime == null) {
                         foundPrime = tr;
                     } else {
@@ -75,7 +75,7 @@ public class QuineMcCluskeyExam extends QuineMcCluskey {
 
         // Die, Indices die wir schon haben können raus;
         for (TableRow pr : primes) {
-            termIndices.removeAll(pr.getSource());
+            termIndices.andNot(pr.getSource());
         }
 
         LOGGER.debug("residual primes " + primesAvail.size());
@@ -86,14 +86,7 @@ public class QuineMcCluskeyExam extends QuineMcCluskey {
             Iterator<TableRow> it = primesAvail.iterator();
             while (it.hasNext()) {
                 TableRow tr = it.next();
-                boolean needed = false;
-                for (int i : tr.getSource()) {
-                    if (termIndices.contains(i)) {
-                        needed = true;
-                        break;
-                    }
-                }
-                if (!needed) {
+                if (!tr.getSource().intersects(termIndices)) {
                     it.remove();
                 }
             }
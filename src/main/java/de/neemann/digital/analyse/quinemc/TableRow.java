@@ -10,20 +10,21 @@ import de.neemann.digital.analyse.expression.Constant;
 import de.neemann.digital.analyse.expression.Expression;
 import de.neemann.digital.analyse.expression.Variable;
 
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.List;
-import java.util.TreeSet;
 
 import static de.neemann.digital.analyse.expression.Not.not;
 import static de.neemann.digital.analyse.expression.Operation.and;
 
 /**
- * Represents a row in a QMC table
+ * Represents a row in a QMC table.
+ * The row is stored in two bit masks: The optimized flags contain the variables which are
+ * eliminated in this row, and the state contains the values of the remaining variables.
+ * The indices of the source rows are stored in a {@link BitSet}.
  */
 public final class TableRow implements Comparable<TableRow> {
 
-    private final TreeSet<Integer> source;
+    private final BitSet source;
     private boolean used = false;
     private long optimizedFlags;
     private long state;
@@ -47,7 +48,7 @@ public final class TableRow implements Comparable<TableRow> {
      */
     public TableRow(int cols) {
         this.cols = cols;
-        source = new TreeSet<>();
+        source = new BitSet();
     }
 
     /**
@@ -61,7 +62,7 @@ public final class TableRow implements Comparable<TableRow> {
     public TableRow(int cols, int bitValue, int index, boolean dontCare) {
         this(cols, bitValue);
         if (!dontCare)
-            source.add(index);
+            source.set(index);
     }
 
     /**
@@ -97,6 +98,15 @@ public final class TableRow implements Comparable<TableRow> {
         return optimizedFlags;
     }
 
+    /**
+     * Returns the values of the variables which are not optimized.
+     *
+     * @return the state
+     */
+    public long getState() {
+        return state;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -111,7 +121,7 @@ public final class TableRow implements Comparable<TableRow> {
                 sb.append('0');
         }
 
-        for (Integer i : source)
+        for (int i = source.nextSetBit(0); i >= 0; i = source.nextSetBit(i + 1))
             sb.append(",").append(i);
         return sb.toString();
     }
@@ -166,7 +176,7 @@ public final class TableRow implements Comparable<TableRow> {
     /**
      * @return the source line numbers
      */
-    public Collection<Integer> getSource() {
+    public BitSet getSource() {
         return source;
     }
 
@@ -175,8 +185,8 @@ public final class TableRow implements Comparable<TableRow> {
      *
      * @param s the sources to add
      */
-    public void addSource(Collection<Integer> s) {
-        source.addAll(s);
+    public void addSource(BitSet s) {
+        source.or(s);
     }
 
     /**
@@ -185,8 +195,9 @@ public final class TableRow implements Comparable<TableRow> {
      * @param s the sources to add
      * @return this for chained calls
      */
-    public TableRow addSource(Integer... s) {
-        addSource(Arrays.asList(s));
+    public TableRow addSource(int... s) {
+        for (int i : s)
+            source.set(i);
         return this;
     }
 
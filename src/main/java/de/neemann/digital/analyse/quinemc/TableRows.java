@@ -6,6 +6,7 @@
 package de.neemann.digital.analyse.quinemc;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeMap;
@@ -153,15 +154,17 @@ public final class TableRows implements Iterable<TableRow> {
     }
 
     /**
-     * A list of rows with the same optimized mask
+     * A list of rows with the same optimized mask.
+     * Since all rows have the same mask, a row is identified by its state.
+     * The rows are hashed by their state, so searching for a row is fast.
      */
     public static final class InnerList implements Iterable<TableRow> {
-        private ArrayList<TableRow> innerList;
-//        private HashSet<TableRow> innerSet;
+        private final ArrayList<TableRow> innerList;
+        private final HashMap<Long, Integer> indexOfState;
 
         private InnerList() {
             innerList = new ArrayList<>();
-//            innerSet=new HashSet<>();
+            indexOfState = new HashMap<>();
         }
 
         /**
@@ -169,8 +172,20 @@ public final class TableRows implements Iterable<TableRow> {
          * @return true if this list contains the given row
          */
         public boolean contains(TableRow r) {
-            return innerList.contains(r);
-//            return innerSet.contains(r);
+            return indexOfState.containsKey(r.getState());
+        }
+
+        /**
+         * Returns the index of the row with the given state
+         *
+         * @param state the state
+         * @return the index of the row or -1 if there is no such row
+         */
+        public int indexOf(long state) {
+            Integer i = indexOfState.get(state);
+            if (i == null)
+                return -1;
+            return i;
         }
 
         /**
@@ -189,8 +204,8 @@ public final class TableRows implements Iterable<TableRow> {
          * @param tableRow the row to add
          */
         public void add(TableRow tableRow) {
+            indexOfState.putIfAbsent(tableRow.getState(), innerList.size());
             innerList.add(tableRow);
-//            innerSet.add(tableRow);
         }
 
         /**
@@ -9,14 +9,14 @@ package de.neemann.digital.analyse.quinemc.primeselector;
 import de.neemann.digital.analyse.quinemc.TableRow;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.TreeSet;
 
 /**
  */
 public class BruteForce implements PrimeSelector {
     @Override
-    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, TreeSet<Integer> termIndices) {
+    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, BitSet termIndices) {
         if (primesAvail.size() > 31)
             throw new RuntimeException("to many primes");
 
@@ -27,13 +27,12 @@ public class BruteForce implements PrimeSelector {
         }
         Collections.sort(list, (i1, i2) -> Integer.bitCount(i1) - Integer.bitCount(i2));
 
-        ArrayList<Integer> l = new ArrayList<>();
         for (int mask : list) {
-            l.addAll(termIndices);
+            BitSet l = (BitSet) termIndices.clone();
             int m = mask;
             for (TableRow aPrimesAvail : primesAvail) {
                 if ((m & 1) > 0) {
-                    l.removeAll(aPrimesAvail.getSource());
+                    l.andNot(aPrimesAvail.getSource());
                 }
                 m >>= 1;
             }
@@ -46,8 +45,6 @@ public class BruteForce implements PrimeSelector {
                     m >>= 1;
                 }
                 return;
-            } else {
-                l.clear();
             }
         }
         throw new RuntimeException("BruteForce Error!");
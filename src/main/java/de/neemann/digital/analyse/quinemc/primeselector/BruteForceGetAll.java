@@ -9,8 +9,8 @@ package de.neemann.digital.analyse.quinemc.primeselector;
 import de.neemann.digital.analyse.quinemc.TableRow;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.TreeSet;
 
 /**
  */
@@ -19,7 +19,7 @@ public class BruteForceGetAll implements PrimeSelector {
     private ArrayList<ArrayList<TableRow>> foundSolutions;
 
     @Override
-    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, TreeSet<Integer> termIndices) {
+    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, BitSet termIndices) {
         if (primesAvail.size() > 31)
             throw new RuntimeException("to many primes");
 
@@ -34,18 +34,18 @@ public class BruteForceGetAll implements PrimeSelector {
 
         foundSolutions = new ArrayList<>();
 
-        ArrayList<Integer> indicesOpen = new ArrayList<>();
+        BitSet indicesOpen = new BitSet();
         for (int mask : list) {
 
             if (primesUsed != 0 && Integer.bitCount(mask) > primesUsed)
                 break;
 
             indicesOpen.clear();
-            indicesOpen.addAll(termIndices);
+            indicesOpen.or(termIndices);
             int m = mask;
             for (TableRow aPrimesAvail : primesAvail) {
                 if ((m & 1) > 0) {
-                    indicesOpen.removeAll(aPrimesAvail.getSource());
+                    indicesOpen.andNot(aPrimesAvail.getSource());
                 }
                 m >>= 1;
             }
@@ -9,23 +9,21 @@ package de.neemann.digital.analyse.quinemc.primeselector;
 import de.neemann.digital.analyse.quinemc.TableRow;
 
 import java.util.ArrayList;
-import java.util.TreeSet;
+import java.util.BitSet;
 
 /**
  * Tries at first the primes containing the most indices
  */
 public class LargestFirst implements PrimeSelector {
     @Override
-    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, TreeSet<Integer> termIndices) {
+    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, BitSet termIndices) {
         while (!termIndices.isEmpty()) {
             TableRow bestRow = null;
             int maxCount = 0;
             for (TableRow tr : primesAvail) {
-                int count = 0;
-                for (int i : tr.getSource()) {
-                    if (termIndices.contains(i))
-                        count++;
-                }
+                BitSet s = (BitSet) tr.getSource().clone();
+                s.and(termIndices);
+                int count = s.cardinality();
                 if (count > maxCount) {
                     maxCount = count;
                     bestRow = tr;
@@ -33,7 +31,7 @@ public class LargestFirst implements PrimeSelector {
             }
             primes.add(bestRow);
             primesAvail.remove(bestRow);
-            termIndices.removeAll(bestRow.getSource());
+            termIndices.andNot(bestRow.getSource());
         }
     }
 }
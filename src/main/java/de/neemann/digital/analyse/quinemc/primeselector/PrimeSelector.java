@@ -9,7 +9,7 @@ package de.neemann.digital.analyse.quinemc.primeselector;
 import de.neemann.digital.analyse.quinemc.TableRow;
 
 import java.util.ArrayList;
-import java.util.TreeSet;
+import java.util.BitSet;
 
 /**
  * Represents an algorithm which chooses the final primes
@@ -21,9 +21,9 @@ public interface PrimeSelector {
      *
      * @param primes      the list to add the primes to
      * @param primesAvail the available primes
-     * @param termIndices the indices
+     * @param termIndices the indices of the terms which need to be covered
      */
-    void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, TreeSet<Integer> termIndices);
+    void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, BitSet termIndices);
 
     /**
      * @return all possible solutions
@@ -8,7 +8,7 @@ package de.neemann.digital.analyse.quinemc.primeselector;
 import de.neemann.digital.analyse.quinemc.TableRow;
 
 import java.util.ArrayList;
-import java.util.TreeSet;
+import java.util.BitSet;
 
 /**
  */
@@ -17,7 +17,7 @@ public class PrimeSelectorDefault implements PrimeSelector {
     private PrimeSelector ps;
 
     @Override
-    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, TreeSet<Integer> termIndices) {
+    public void select(ArrayList<TableRow> primes, ArrayList<TableRow> primesAvail, BitSet termIndices) {
         int count = primesAvail.size();
         if (count <= 22) {
             ps = new BruteForceGetAll();
@@ -68,6 +68,7 @@ public final class CircuitLoader {
         library.setRootFilePath(file.getAbsoluteFile().getParentFile());
         shapeFactory = new ShapeFactory(library, ieeeShapes);
         circuit = Circuit.loadCircuit(file, shapeFactory);
+        library.preload(circuit);
     }
 
     /**
@@ -17,18 +17,24 @@ import de.neemann.digital.testing.TestResult;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Tester used from the command line
  */
 public class CommandLineTester {
-
     private final CircuitLoader circuitLoader;
     private List<Circuit.TestCase> testCases;
     private int testsPassed;
     private boolean allowMissingInputs;
     private boolean verbose;
+    private int threads = 1;
+    private int maxFailedRows = -1;
 
     /**
      * Creates a new instance.
@@ -54,7 +60,9 @@ public class CommandLineTester {
     }
 
     /**
-     * Executes test test
+     * Executes test test.
+     * If more than one thread is used, the test cases are executed concurrently, but
+     * the results are printed in the order of the test cases.
      *
      * @param out Stream to output messages
      * @return the number of failed test cases
@@ -69,45 +77,83 @@ public class CommandLineTester {
             out.println("no test cases given");
             errorCount++;
         } else {
-            for (Circuit.TestCase t : testCases) {
-                String label = t.getLabel();
-                if (label.isEmpty())
-                    label = "unnamed";
-
+            if (threads > 1 && testCases.size() > 1) {
+                ExecutorService executor = Executors.newWorkStealingPool(threads);
                 try {
-                    ErrorDetector errorDetector = new ErrorDetector();
-                    TestResult tr = new TestExecutor(t, circuitLoader.getCircuit(), circuitLoader.getLibrary())
-                            .setAllowMissingInputs(allowMissingInputs)
-                            .addObserver(errorDetector)
-                            .execute();
-
-                    if (tr.allPassed()) {
-                        out.println(label + ": passed");
-                        testsPassed++;
-                    } else {
-                        String message = label + ": failed";
-                        if (tr.isErrorOccurred())
-                            message += " due to an error";
-                        else
-                            message += " (" + tr.failedPercent() + "%)";
-                        out.println(message);
-
-                        if (verbose)
-                            out.println(tr.getValueTable());
-
-                        errorCount++;
+                    ArrayList<Future<TestCaseResult>> results = new ArrayList<>();
+                    for (Circuit.TestCase t : testCases)
+                        results.add(executor.submit(() -> execute(t)));
+                    for (Future<TestCaseResult> f : results) {
+                        try {
+                            errorCount += f.get().printTo(out);
+                        } catch (ExecutionException e) {
+                            out.println(e.getCause().getMessage());
+                            errorCount++;
+                        }
                     }
-                    errorDetector.check();
-
-                } catch (Exception e) {
-                    out.println(label + ": " + e.getMessage());
+                } catch (InterruptedException e) {
+                    out.println(e.getMessage());
                     errorCount++;
+                } finally {
+                    executor.shutdown();
                 }
+            } else {
+                for (Circuit.TestCase t : testCases)
+                    errorCount += execute(t).printTo(out);
             }
         }
         return errorCount;
     }
 
+    private TestCaseResult execute(Circuit.TestCase t) {
+        String label = t.getLabel();
+        if (label.isEmpty())
+            label = "unnamed";
+
+        TestCaseResult result = new TestCaseResult();
+        try {
+            ErrorDetector errorDetector = new ErrorDetector();
+            TestExecutor te;
+            // the library loads the nested circuits lazily, so the models are created one after the other
+            synchronized (circuitLoader.getLibrary()) {
+                te = new TestExecutor(t, circuitLoader.getCircuit(), circuitLoader.getLibrary());
+            }
+            te.setAllowMissingInputs(allowMissingInputs)
+                    .addObserver(errorDetector);
+            TestResult tr;
+            if (maxFailedRows < 0)
+                tr = te.execute();
+            else
+                tr = te.executeStreaming(maxFailedRows);
+
+            if (tr.allPassed()) {
+                result.println(label + ": passed");
+                result.passed = true;
+            } else {
+                String message = label + ": failed";
+                if (tr.isErrorOccurred())
+                    message += " due to an error";
+                else
+                    message += " (" + tr.failedPercent() + "%)";
+                result.println(message);
+
+                if (verbose) {
+                    result.println(tr.getValueTable().toString());
+                    if (tr.toManyResults())
+                        result.println(label + ": rows omitted");
+                }
+
+                result.errors++;
+            }
+            errorDetector.check();
+
+        } catch (Exception e) {
+            result.println(label + ": " + e.getMessage());
+            result.errors++;
+        }
+        return result;
+    }
+
     /**
      * @return the number of passed tests
      */
@@ -120,6 +166,31 @@ public class CommandLineTester {
         return this;
     }
 
+    /**
+     * Sets the number of threads used to execute the test cases
+     *
+     * @param threads the number of threads
+     * @return this for chained calls
+     */
+    public CommandLineTester setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Sets the number of failed rows kept in the value table which is shown in verbose mode.
+     * Only the failed rows and the rows right before them are kept, so the memory used
+     * does not depend on the number of test rows.
+     * By default the complete table is kept.
+     *
+     * @param maxFailedRows the number of failed rows, -1 if the complete table is to be kept
+     * @return this for chained calls
+     */
+    public CommandLineTester setMaxFailedRows(int maxFailedRows) {
+        this.maxFailedRows = maxFailedRows;
+        return this;
+    }
+
     /**
      * Sets verbose mode
      *
@@ -139,6 +210,8 @@ public class CommandLineTester {
         private final Argument<String> tests;
         private final Argument<Boolean> allowMissingInputs;
         private final Argument<Boolean> verbose;
+        private final Argument<Integer> threads;
+        private final Argument<Integer> maxFailedRows;
         private int testsPassed;
 
         /**
@@ -150,13 +223,19 @@ public class CommandLineTester {
             tests = addArgument(new Argument<>("tests", "", true));
             allowMissingInputs = addArgument(new Argument<>("allowMissingInputs", false, true));
             verbose = addArgument(new Argument<>("verbose", false, true));
+            threads = addArgument(new Argument<>("threads", 1, true));
+            maxFailedRows = addArgument(new Argument<>("maxFailedRows", -1, true));
         }
 
         @Override
         protected void execute() throws CLIException {
+            if (maxFailedRows.get() < -1)
+                throw new CLIException(Lang.get("cli_invalidMaxFailedRows_N", maxFailedRows.get()), 107);
             try {
                 CommandLineTester clt = new CommandLineTester(new File(circ.get()))
                         .setVerbose(verbose.get())
+                        .setThreads(threads.get())
+                        .setMaxFailedRows(maxFailedRows.get())
                         .setAllowMissingInputs(allowMissingInputs.get());
                 if (tests.isSet())
                     clt.useTestCasesFrom(new File(tests.get()));
@@ -176,4 +255,21 @@ public class CommandLineTester {
             return testsPassed;
         }
     }
+
+    private final class TestCaseResult {
+        private final StringBuilder output = new StringBuilder();
+        private boolean passed;
+        private int errors;
+
+        private void println(String line) {
+            output.append(line).append(System.lineSeparator());
+        }
+
+        private int printTo(PrintStream out) {
+            out.print(output);
+            if (passed)
+                testsPassed++;
+            return errors;
+        }
+    }
 }
@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The Model contains all the nodes of the model.
@@ -80,6 +81,13 @@ public class Model implements Iterable<Node>, SyncAccess {
     private AsyncSeq asyncInfos;
     private boolean asyncMode = false;
     private boolean allowGlobalValues = false;
+    private boolean eventDriven = false;
+    private TimingWheel<Node> timingWheel;
+    private ArrayList<Node> delayedWrites;
+    private long time;
+    private int parallelThreshold = 0;
+    private ForkJoinPool parallelPool;
+    private ParallelEvaluator parallelEvaluator;
     private File rootPath;
 
     private final ArrayList<ModelStateObserver> observers;
@@ -126,6 +134,76 @@ public class Model implements Iterable<Node>, SyncAccess {
         return this;
     }
 
+    /**
+     * Enables the event driven mode.
+     * In this mode every node has a {@link Node#getPropagationDelay() propagation delay}.
+     * The inputs of a node are read one time unit after they have changed, and the outputs
+     * are written after the delay of the node has elapsed. The pending writes are kept in a
+     * timing wheel, and a micro step jumps directly to the next point in time at which
+     * something happens. So the idle time of a {@link de.neemann.digital.core.wiring.Delay}
+     * does not cost any micro steps. Since all other nodes have a delay of one, they behave
+     * exactly as in the unit delay model.
+     * Must be called before the model is initialized.
+     *
+     * @param eventDriven true if the model is to be event driven
+     * @return this for chained calls
+     */
+    public Model setEventDriven(boolean eventDriven) {
+        if (state != State.BUILDING)
+            throw new RuntimeException(Lang.get("err_isAlreadyInitialized"));
+        this.eventDriven = eventDriven;
+        return this;
+    }
+
+    /**
+     * @return true if the model is event driven
+     */
+    public boolean isEventDriven() {
+        return eventDriven;
+    }
+
+    /**
+     * Returns the simulation time in units of gate delays.
+     * The time is only tracked if the model is event driven.
+     *
+     * @return the simulation time
+     */
+    public long getSimulationTime() {
+        return time;
+    }
+
+    /**
+     * Enables the parallel evaluation of micro steps.
+     * If the number of nodes to update in a micro step reaches the given threshold,
+     * the inputs of all {@link Node#isParallelizable() parallelizable} nodes are read
+     * concurrently on a {@link ForkJoinPool}. The outputs are written sequentially.
+     * The result is the same as in the sequential evaluation.
+     * Steps with noise are always evaluated sequentially.
+     * Must be called before the model is initialized.
+     *
+     * @param parallelThreshold the minimal number of nodes to evaluate in parallel, zero disables the parallel evaluation
+     * @return this for chained calls
+     */
+    public Model setParallelThreshold(int parallelThreshold) {
+        return setParallelThreshold(parallelThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Enables the parallel evaluation of micro steps using the given pool.
+     *
+     * @param parallelThreshold the minimal number of nodes to evaluate in parallel, zero disables the parallel evaluation
+     * @param pool              the pool to use
+     * @return this for chained calls
+     * @see #setParallelThreshold(int)
+     */
+    public Model setParallelThreshold(int parallelThreshold, ForkJoinPool pool) {
+        if (state != State.BUILDING)
+            throw new RuntimeException(Lang.get("err_isAlreadyInitialized"));
+        this.parallelThreshold = parallelThreshold;
+        this.parallelPool = pool;
+        return this;
+    }
+
     /**
      * Sets the window position manager.
      * Allows the model to place new and close old gui windows.
@@ -200,6 +278,14 @@ public class Model implements Iterable<Node>, SyncAccess {
     public void init(boolean noise) {
         nodesToUpdateNext.addAll(nodes);
         state = State.INITIALIZING;
+        for (int i = 0; i < nodes.size(); i++)
+            nodes.get(i).setIndex(i);
+        if (eventDriven) {
+            timingWheel = new TimingWheel<>();
+            delayedWrites = new ArrayList<>();
+        }
+        if (parallelThreshold > 0)
+            parallelEvaluator = new ParallelEvaluator(nodes, parallelThreshold, parallelPool);
         doStep(noise);
         // state is CLOSED if an error during the first doStep has occurred!
         if (state != State.CLOSED) {
@@ -339,30 +425,83 @@ public class Model implements Iterable<Node>, SyncAccess {
         nodesToUpdateNext.clear();
 
         try {
-            if (noise) {
+            if (timingWheel != null)
+                doEventStep(noise);
+            else if (noise) {
                 Collections.shuffle(nodesToUpdateAct);
                 for (Node n : nodesToUpdateAct) {
                     n.readInputs();
                     n.writeOutputs();
                 }
-            } else {
-                for (Node n : nodesToUpdateAct) {
-                    n.readInputs();
-                }
-                for (Node n : nodesToUpdateAct) {
-                    n.writeOutputs();
-                }
-            }
+            } else
+                evaluate(nodesToUpdateAct);
             if (observersMicroStep != null)
                 fireEvent(ModelEvent.MICROSTEP);
 
-            if (nodesToUpdateNext.isEmpty())
+            if (!needsUpdate())
                 fireEvent(ModelEvent.STEP);
         } catch (Exception e) {
             errorOccurred(e);
         }
     }
 
+    /*
+     * Calculates the next point in time at which something happens.
+     * If no node needs to read its inputs, the time jumps to the next pending write.
+     * At first the nodes read their inputs, then the pending writes are done and
+     * after that the nodes with a delay of one write their outputs.
+     * With noise the nodes are read and written one after the other in random order.
+     */
+    private void doEventStep(boolean noise) throws NodeException {
+        if (nodesToUpdateAct.isEmpty() && !timingWheel.isEmpty())
+            time = timingWheel.nextTime();
+        else
+            time++;
+
+        if (noise) {
+            Collections.shuffle(nodesToUpdateAct);
+            writeDelayed();
+            for (Node n : nodesToUpdateAct) {
+                n.readInputs();
+                writeOrSchedule(n);
+            }
+        } else {
+            for (Node n : nodesToUpdateAct)
+                n.readInputs();
+            writeDelayed();
+            for (Node n : nodesToUpdateAct)
+                writeOrSchedule(n);
+        }
+    }
+
+    private void writeDelayed() throws NodeException {
+        if (!timingWheel.isEmpty() && timingWheel.nextTime() == time) {
+            delayedWrites.clear();
+            timingWheel.poll(time, delayedWrites);
+            for (Node n : delayedWrites)
+                n.writeOutputs();
+        }
+    }
+
+    private void writeOrSchedule(Node n) throws NodeException {
+        final int delay = n.getPropagationDelay();
+        if (delay > 1)
+            timingWheel.schedule(time + delay - 1, n);
+        else
+            n.writeOutputs();
+    }
+
+    private void evaluate(ArrayList<Node> nodeList) throws NodeException {
+        if (parallelEvaluator == null || !parallelEvaluator.evaluate(nodeList)) {
+            for (Node n : nodeList) {
+                n.readInputs();
+            }
+            for (Node n : nodeList) {
+                n.writeOutputs();
+            }
+        }
+    }
+
     /**
      * Runs the model until a positive edge at a break element is detected.
      *
@@ -507,7 +646,7 @@ public class Model implements Iterable<Node>, SyncAccess {
      * @return true if model has more nodes to update
      */
     public boolean needsUpdate() {
-        return !nodesToUpdateNext.isEmpty();
+        return !nodesToUpdateNext.isEmpty() || (timingWheel != null && !timingWheel.isEmpty());
     }
 
     /**
@@ -517,6 +656,60 @@ public class Model implements Iterable<Node>, SyncAccess {
         return nodesToUpdateNext;
     }
 
+    /**
+     * Creates a snapshot of the state of this model.
+     * The snapshot contains the values of all signals, the states of all nodes and the
+     * nodes waiting for an update. It can be restored by {@link #restore(ModelSnapshot)},
+     * so a model needs to be created and stabilized only once and can be reused afterwards.
+     * The memories are copied only if they are modified after the snapshot was taken.
+     *
+     * @return the snapshot
+     * @throws NodeException if the model contains a node which does not support snapshots
+     */
+    public synchronized ModelSnapshot snapshot() throws NodeException {
+        if (state != State.RUNNING)
+            throw new RuntimeException("model is not running");
+
+        ArrayList<ObservableValue> values = new ArrayList<>();
+        for (Signal s : signals)
+            values.add(s.getValue());
+        for (Clock c : clocks)
+            values.add(c.getClockOutput());
+        for (Reset r : resets)
+            values.addAll(r.getOutputs());
+        return new ModelSnapshot(this, nodes, values, nodesToUpdateNext, time, timingWheel);
+    }
+
+    /**
+     * Restores a snapshot created by {@link #snapshot()}.
+     * The observers of the values are not notified. A {@link ModelEvent#STEP} event is fired
+     * if no further update is necessary.
+     *
+     * @param snapshot the snapshot to restore
+     */
+    public synchronized void restore(ModelSnapshot snapshot) {
+        if (snapshot.getModel() != this)
+            throw new RuntimeException("snapshot belongs to a different model");
+        if (state != State.RUNNING)
+            throw new RuntimeException("model is not running");
+
+        snapshot.restore(nodes);
+
+        // the nodes which have been added to the update list are not added again
+        version++;
+        nodesToUpdateNext.clear();
+        for (Node n : snapshot.getNodesToUpdate()) {
+            nodesToUpdateNext.add(n);
+            n.setVersion(version);
+        }
+        time = snapshot.getTime();
+        if (timingWheel != null)
+            timingWheel = snapshot.getTimingWheel();
+
+        if (!needsUpdate())
+            fireEvent(ModelEvent.STEP);
+    }
+
     /**
      * Adds an observer to this model.
      * The events this observer needs to be called are needed to be given.
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core;
+
+import de.neemann.digital.draw.elements.PinException;
+import de.neemann.digital.lang.Lang;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A snapshot of the state of a running model.
+ * Contains the values of all signals, the states of all nodes and the nodes which are
+ * waiting for an update. The snapshot is created by {@link Model#snapshot()} and is
+ * restored by {@link Model#restore(ModelSnapshot)}. A snapshot can be restored as often as
+ * needed, so a model can be initialized once and then be reused.
+ */
+public final class ModelSnapshot {
+    private final Model model;
+    private final ObservableValue[] values;
+    private final long[] value;
+    private final long[] highZ;
+    private final Object[] states;
+    private final Node[] nodesToUpdate;
+    private final long time;
+    private final TimingWheel<Node> timingWheel;
+
+    /**
+     * Creates a new snapshot
+     *
+     * @param model         the model
+     * @param nodes         the nodes of the model
+     * @param inputs        the values which are not written by a node, like the signals
+     * @param nodesToUpdate the nodes waiting for an update
+     * @param time          the simulation time
+     * @param timingWheel   the pending delayed writes, maybe null
+     * @throws NodeException if a node does not support snapshots
+     */
+    ModelSnapshot(Model model, List<Node> nodes, Collection<ObservableValue> inputs, Collection<Node> nodesToUpdate, long time, TimingWheel<Node> timingWheel) throws NodeException {
+        this.model = model;
+        this.nodesToUpdate = nodesToUpdate.toArray(new Node[0]);
+        this.time = time;
+        if (timingWheel == null)
+            this.timingWheel = null;
+        else
+            this.timingWheel = new TimingWheel<>(timingWheel);
+
+        states = new Object[nodes.size()];
+        for (int i = 0; i < states.length; i++) {
+            Node n = nodes.get(i);
+            states[i] = n.saveState();
+            if (states[i] == null && n.hasState())
+                throw new NodeException(Lang.get("err_snapshotNotSupported"), n, -1, null);
+        }
+
+        HashSet<ObservableValue> set = new HashSet<>();
+        ArrayList<ObservableValue> list = new ArrayList<>();
+        for (Node n : nodes)
+            addOutputs(n, set, list);
+        for (ObservableValue v : inputs)
+            add(v, set, list);
+
+        values = list.toArray(new ObservableValue[0]);
+        value = new long[values.length];
+        highZ = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            value[i] = values[i].getValueHighZIsZero();
+            highZ[i] = values[i].getHighZ();
+        }
+    }
+
+    private static void addOutputs(NodeInterface node, HashSet<ObservableValue> set, ArrayList<ObservableValue> list) {
+        ObservableValues outputs;
+        try {
+            outputs = node.getOutputs();
+        } catch (PinException e) {
+            return;
+        }
+        if (outputs != null)
+            for (ObservableValue v : outputs)
+                add(v, set, list);
+    }
+
+    private static void add(ObservableValue v, HashSet<ObservableValue> set, ArrayList<ObservableValue> list) {
+        if (v == null || v.isConstant() || !set.add(v))
+            return;
+
+        list.add(v);
+
+        for (Observer o : v.getObservers())
+            if (!(o instanceof Node) && o instanceof NodeInterface)
+                // the outputs of nodes without delay, like the splitter outputs or the nets
+                addOutputs((NodeInterface) o, set, list);
+    }
+
+    /**
+     * Restores the states of the nodes and the values.
+     * The observers of the values are not notified.
+     *
+     * @param nodes the nodes of the model
+     */
+    void restore(List<Node> nodes) {
+        for (int i = 0; i < states.length; i++)
+            if (states[i] != null)
+                nodes.get(i).restoreState(states[i]);
+
+        for (int i = 0; i < values.length; i++)
+            values[i].restore(value[i], highZ[i]);
+    }
+
+    /**
+     * @return the model this snapshot belongs to
+     */
+    Model getModel() {
+        return model;
+    }
+
+    /**
+     * @return the nodes waiting for an update
+     */
+    Node[] getNodesToUpdate() {
+        return nodesToUpdate;
+    }
+
+    /**
+     * @return the simulation time
+     */
+    long getTime() {
+        return time;
+    }
+
+    /**
+     * @return a copy of the pending delayed writes, null if the model is not event driven
+     */
+    TimingWheel<Node> getTimingWheel() {
+        if (timingWheel == null)
+            return null;
+        return new TimingWheel<>(timingWheel);
+    }
+
+    /**
+     * @return the number of values stored in this snapshot
+     */
+    public int getValueCount() {
+        return values.length;
+    }
+}
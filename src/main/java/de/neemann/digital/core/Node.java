@@ -24,6 +24,8 @@ public abstract class Node implements NodeInterface {
     private final boolean hasState;
     private Model model;
     private int version;
+    // index of this node in the models node list, used by the parallel evaluator
+    private int index = -1;
     // used to store the origin of this node
     // only used to create better error messages
     private File origin;
@@ -90,6 +92,56 @@ public abstract class Node implements NodeInterface {
         model.add(this);
     }
 
+    /**
+     * Returns true if this node can be evaluated concurrently with other nodes.
+     * This requires that {@link #readInputs()} only reads the inputs and stores the
+     * result in the node.
+     * This implementation returns false.
+     *
+     * @return true if the node can be evaluated in parallel
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
+    /**
+     * Returns the propagation delay of this node in units of gate delays.
+     * Only used if the model is {@link Model#setEventDriven(boolean) event driven}.
+     * The inputs are always read one time unit after they have changed. If the delay is
+     * larger than one, the outputs are written delay-1 time units after the inputs were read.
+     * Since the inputs can be read again in the meantime, such a node has to buffer the values
+     * read and has to write them in the same order.
+     * This implementation returns one.
+     *
+     * @return the propagation delay
+     */
+    public int getPropagationDelay() {
+        return 1;
+    }
+
+    /**
+     * Returns the internal state of this node which is needed to continue the simulation.
+     * Used by {@link Model#snapshot()}. The state must not be modified by the node afterwards.
+     * Nodes which have a state have to override this method and {@link #restoreState(Object)}.
+     * Values which are only stored between {@link #readInputs()} and {@link #writeOutputs()} are
+     * not part of the state. This implementation returns null.
+     *
+     * @return the state or null if this node has no state
+     */
+    public Object saveState() {
+        return null;
+    }
+
+    /**
+     * Restores a state returned by {@link #saveState()}.
+     * The outputs must not be modified, they are restored by the model.
+     * This implementation does nothing.
+     *
+     * @param state the state
+     */
+    public void restoreState(Object state) {
+    }
+
     /**
      * @return true if the element has a state and is not only combinatorial
      */
@@ -123,4 +175,17 @@ public abstract class Node implements NodeInterface {
     public Model getModel() {
         return model;
     }
+
+    int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    // marks this node as already added to the update list of the given micro step
+    void setVersion(int version) {
+        this.version = version;
+    }
 }
@@ -273,6 +273,18 @@ public class ObservableValue extends Observable implements PinDescription {
         return highZ != 0;
     }
 
+    /**
+     * Sets the value without notifying the observers.
+     * Used to restore a {@link ModelSnapshot}.
+     *
+     * @param value the value
+     * @param highZ the high z bits
+     */
+    void restore(long value, long highZ) {
+        this.highZ = highZ;
+        this.value = value & ~highZ;
+    }
+
     @Override
     public String toString() {
         return name + "{"
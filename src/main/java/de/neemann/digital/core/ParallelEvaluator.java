@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a list of nodes on a {@link ForkJoinPool}.
+ * The two phases of a micro step are used as barriers: At first all inputs are read in parallel,
+ * after that all outputs are written in the order of the given list.
+ * Only nodes which are {@link Node#isParallelizable() parallelizable} read their inputs concurrently.
+ * Writing the outputs notifies the observers, so the write phase is always sequential.
+ * This way the nodes are scheduled in the same order as in the sequential evaluation,
+ * and the result is the same.
+ */
+final class ParallelEvaluator {
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final boolean[] parallel;
+
+    /**
+     * Creates a new instance
+     *
+     * @param nodes     the nodes of the model, the node indices need to be set
+     * @param threshold the minimal number of nodes to evaluate in parallel
+     * @param pool      the pool to use
+     */
+    ParallelEvaluator(List<Node> nodes, int threshold, ForkJoinPool pool) {
+        this.threshold = threshold;
+        this.pool = pool;
+        parallel = new boolean[nodes.size()];
+        for (Node n : nodes)
+            if (n.isParallelizable())
+                parallel[n.getIndex()] = true;
+    }
+
+    private boolean isParallel(Node n) {
+        int i = n.getIndex();
+        return i >= 0 && i < parallel.length && parallel[i];
+    }
+
+    /**
+     * Evaluates the given nodes.
+     * If the number of nodes is below the threshold, nothing is done.
+     *
+     * @param nodes the nodes to evaluate
+     * @return true if the nodes are evaluated, false if the sequential evaluation is to be used
+     * @throws NodeException NodeException
+     */
+    boolean evaluate(List<Node> nodes) throws NodeException {
+        if (nodes.size() < threshold)
+            return false;
+
+        for (Node n : nodes)
+            if (!isParallel(n))
+                n.readInputs();
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, nodes.size() / (pool.getParallelism() * 4));
+        try {
+            pool.invoke(new Chunk(nodes, 0, nodes.size(), chunkSize));
+        } catch (WrappedException e) {
+            throw e.cause;
+        }
+
+        for (Node n : nodes)
+            n.writeOutputs();
+        return true;
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private final List<Node> nodes;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private Chunk(List<Node> nodes, int from, int to, int chunkSize) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Chunk(nodes, from, mid, chunkSize),
+                        new Chunk(nodes, mid, to, chunkSize));
+            } else {
+                try {
+                    for (int i = from; i < to; i++) {
+                        Node n = nodes.get(i);
+                        if (isParallel(n))
+                            n.readInputs();
+                    }
+                } catch (NodeException e) {
+                    throw new WrappedException(e);
+                }
+            }
+        }
+    }
+
+    private static final class WrappedException extends RuntimeException {
+        private final NodeException cause;
+
+        private WrappedException(NodeException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+}
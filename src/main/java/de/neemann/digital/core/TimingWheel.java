@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A hierarchical timing wheel used to schedule events at integer points in time.
+ * Every level has 64 slots, and a slot of a level covers all slots of the level below.
+ * An event is stored in the lowest level in which it falls into the same block as the current
+ * time, so scheduling is done in constant time. If the wheel is advanced into the block of
+ * a higher level slot, the events of this slot are moved to the lower levels.
+ * The occupied slots of a level are stored in a single long, so empty time spans are skipped
+ * by a bit scan instead of visiting every slot.
+ * Events which are too far in the future are kept in an overflow queue.
+ * The base of the wheel is only advanced if items are removed, so items can always be scheduled
+ * at every time after the last removed items.
+ * Events scheduled at the same time are returned in the order they were scheduled.
+ *
+ * @param <T> the type of the scheduled items
+ */
+final class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final long MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final ArrayList<ArrayList<Entry<T>>> slots;
+    private final long[] occupied;
+    private final PriorityQueue<Entry<T>> overflow;
+    // all pending events have a time which is greater or equal to this time
+    private long base;
+    private long sequence;
+    private int size;
+    // the cached time of the next items, only valid if nextTimeValid is set
+    private long nextTime;
+    private boolean nextTimeValid;
+
+    /**
+     * Creates a new empty wheel
+     */
+    TimingWheel() {
+        slots = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++)
+            slots.add(new ArrayList<>());
+        occupied = new long[LEVELS];
+        overflow = new PriorityQueue<>(Comparator.<Entry<T>>comparingLong(e -> e.time).thenComparingLong(e -> e.sequence));
+    }
+
+    /**
+     * Creates a copy of the given wheel
+     *
+     * @param other the wheel to copy
+     */
+    TimingWheel(TimingWheel<T> other) {
+        slots = new ArrayList<>(LEVELS * SLOTS);
+        for (ArrayList<Entry<T>> list : other.slots)
+            slots.add(new ArrayList<>(list));
+        occupied = other.occupied.clone();
+        overflow = new PriorityQueue<>(other.overflow);
+        base = other.base;
+        sequence = other.sequence;
+        size = other.size;
+        nextTime = other.nextTime;
+        nextTimeValid = other.nextTimeValid;
+    }
+
+    /**
+     * Schedules an item
+     *
+     * @param time the time at which the item is due
+     * @param item the item
+     */
+    void schedule(long time, T item) {
+        if (time < base)
+            throw new IllegalArgumentException("time " + time + " is in the past");
+        place(new Entry<>(time, sequence++, item));
+        size++;
+        if (nextTimeValid && time < nextTime)
+            nextTime = time;
+    }
+
+    private void place(Entry<T> e) {
+        for (int level = 0; level < LEVELS; level++) {
+            final int shift = BITS * (level + 1);
+            if ((e.time >>> shift) == (base >>> shift)) {
+                final int slot = (int) ((e.time >>> (BITS * level)) & MASK);
+                slots.get(level * SLOTS + slot).add(e);
+                occupied[level] |= 1L << slot;
+                return;
+            }
+        }
+        overflow.add(e);
+    }
+
+    /**
+     * @return true if there are no pending items
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of pending items
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the time of the next pending items.
+     * Must not be called if the wheel is empty.
+     * The wheel is not modified by this call.
+     *
+     * @return the time of the next items
+     */
+    long nextTime() {
+        if (size == 0)
+            throw new IllegalStateException("timing wheel is empty");
+
+        if (!nextTimeValid) {
+            nextTime = findNextTime();
+            nextTimeValid = true;
+        }
+        return nextTime;
+    }
+
+    /*
+     * The events of a higher level are later than all events of the lower levels,
+     * and the slot containing the base is empty in all higher levels.
+     */
+    private long findNextTime() {
+        final long m0 = occupied[0] & (-1L << (int) (base & MASK));
+        if (m0 != 0)
+            return (base & ~MASK) | Long.numberOfTrailingZeros(m0);
+
+        for (int level = 1; level < LEVELS; level++) {
+            final int index = (int) ((base >>> (BITS * level)) & MASK);
+            final long ml = occupied[level] & (-1L << index);
+            if (ml != 0) {
+                long min = Long.MAX_VALUE;
+                for (Entry<T> e : slots.get(level * SLOTS + Long.numberOfTrailingZeros(ml)))
+                    min = Math.min(min, e.time);
+                return min;
+            }
+        }
+        return overflow.peek().time;
+    }
+
+    /*
+     * Advances the base to the start of the next occupied slot of the higher levels
+     * or to the first event of the overflow queue.
+     * Only called by poll, so the base never passes the time of the removed items.
+     */
+    private void advanceToNextSlot() {
+        for (int level = 1; level < LEVELS; level++) {
+            final int shift = BITS * level;
+            final int index = (int) ((base >>> shift) & MASK);
+            final long ml = occupied[level] & (-1L << index);
+            if (ml != 0) {
+                final int slot = Long.numberOfTrailingZeros(ml);
+                setBase(((base >>> (shift + BITS)) << (shift + BITS)) | ((long) slot << shift));
+                return;
+            }
+        }
+        setBase(overflow.peek().time);
+    }
+
+    /*
+     * Sets the new base. If the base enters the block of a higher level slot, the
+     * events of this slot are moved to the lower levels.
+     */
+    private void setBase(long newBase) {
+        base = newBase;
+        final int shift = BITS * LEVELS;
+        while (!overflow.isEmpty() && (overflow.peek().time >>> shift) == (base >>> shift))
+            place(overflow.poll());
+
+        for (int level = LEVELS - 1; level > 0; level--) {
+            final int slot = (int) ((base >>> (BITS * level)) & MASK);
+            final long bit = 1L << slot;
+            if ((occupied[level] & bit) != 0) {
+                ArrayList<Entry<T>> list = slots.get(level * SLOTS + slot);
+                ArrayList<Entry<T>> entries = new ArrayList<>(list);
+                list.clear();
+                occupied[level] &= ~bit;
+                for (Entry<T> e : entries)
+                    place(e);
+            }
+        }
+    }
+
+    /**
+     * Removes all items which are due at the given time and adds them to the given list.
+     * The time needs to be the time returned by {@link #nextTime()}.
+     * After this call no items can be scheduled before the given time plus one.
+     *
+     * @param time the time
+     * @param list the list to add the items to
+     */
+    void poll(long time, List<T> list) {
+        if (time != nextTime())
+            throw new IllegalArgumentException("there are no items due at " + time);
+
+        while ((occupied[0] & (-1L << (int) (base & MASK))) == 0)
+            advanceToNextSlot();
+
+        final int slot = (int) (time & MASK);
+        ArrayList<Entry<T>> entries = slots.get(slot);
+        for (Entry<T> e : entries)
+            list.add(e.item);
+        size -= entries.size();
+        entries.clear();
+        occupied[0] &= ~(1L << slot);
+        setBase(time + 1);
+        nextTimeValid = false;
+    }
+
+    private static final class Entry<T> {
+        private final long time;
+        private final long sequence;
+        private final T item;
+
+        private Entry(long time, long sequence, T item) {
+            this.time = time;
+            this.sequence = sequence;
+            this.item = item;
+        }
+    }
+}
@@ -101,6 +101,11 @@ public class Add extends Node implements Element, Countable {
         cIn = inputs.get(2).addObserverToValue(this).checkBits(1, this, 2);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public ObservableValues getOutputs() {
         return ovs(sum, cOut);
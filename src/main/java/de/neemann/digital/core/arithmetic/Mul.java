@@ -77,6 +77,11 @@ public class Mul extends Node implements Element, Countable {
         b = inputs.get(1).addObserverToValue(this).checkBits(bits, this, 1);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public ObservableValues getOutputs() {
         return mul.asList();
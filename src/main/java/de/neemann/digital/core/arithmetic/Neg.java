@@ -60,6 +60,11 @@ public class Neg extends Node implements Element, Countable {
         input = inputs.get(0).addObserverToValue(this).checkBits(bits, this, 0);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public ObservableValues getOutputs() {
         return output.asList();
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core.basic;
+
+import de.neemann.digital.core.Node;
+import de.neemann.digital.core.ObservableValue;
+import de.neemann.digital.draw.elements.PinException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Evaluates a combinational circuit made of one bit basic gates bit sliced.
+ * Every bit of a long represents a different assignment of the inputs, so
+ * 64 assignments are evaluated in a single pass through the gates.
+ * <p>
+ * Only the gates needed to calculate the given outputs are taken into account.
+ * If one of these outputs depends on something other than the given inputs, constants or
+ * the one bit gates {@link And}, {@link NAnd}, {@link Or}, {@link NOr}, {@link XOr}, {@link XNOr}
+ * and {@link Not}, or if the gates contain a cycle, no evaluator can be created.
+ */
+public final class BitSlicedEvaluator {
+    /**
+     * The number of assignments evaluated in one pass
+     */
+    public static final int SLICE = 64;
+
+    private static final long[] PATTERN = {
+            0xAAAAAAAAAAAAAAAAL,
+            0xCCCCCCCCCCCCCCCCL,
+            0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L,
+            0xFFFF0000FFFF0000L,
+            0xFFFFFFFF00000000L};
+
+    private static final int AND = 0;
+    private static final int OR = 1;
+    private static final int XOR = 2;
+
+    private final int inputCount;
+    private final long[] slots;
+    private final int[] opcode;
+    private final boolean[] invert;
+    private final int[][] opInputs;
+    private final int[] opOutput;
+    private final int[] outputSlots;
+    private final long[] rowInputs;
+
+    private BitSlicedEvaluator(Builder b, int[] outputSlots) {
+        inputCount = b.inputCount;
+        slots = new long[b.slotCount];
+        for (int i = 0; i < b.constantSlots.size(); i++)
+            slots[b.constantSlots.get(i)] = b.constantValues.get(i) ? -1 : 0;
+        final int ops = b.opcode.size();
+        opcode = new int[ops];
+        invert = new boolean[ops];
+        opInputs = new int[ops][];
+        opOutput = new int[ops];
+        for (int i = 0; i < ops; i++) {
+            opcode[i] = b.opcode.get(i);
+            invert[i] = b.invert.get(i);
+            opInputs[i] = b.opInputs.get(i);
+            opOutput[i] = b.opOutput.get(i);
+        }
+        this.outputSlots = outputSlots;
+        rowInputs = new long[inputCount];
+    }
+
+    /**
+     * Creates a new evaluator
+     *
+     * @param nodes   the nodes of the model
+     * @param inputs  the one bit inputs
+     * @param outputs the one bit outputs
+     * @return the evaluator or null if the outputs can not be evaluated bit sliced
+     */
+    public static BitSlicedEvaluator create(Iterable<Node> nodes, List<ObservableValue> inputs, List<ObservableValue> outputs) {
+        HashMap<ObservableValue, Node> producer = new HashMap<>();
+        for (Node n : nodes) {
+            if (isSupported(n))
+                try {
+                    for (ObservableValue v : n.getOutputs())
+                        producer.put(v, n);
+                } catch (PinException e) {
+                    return null;
+                }
+        }
+
+        Builder b = new Builder(inputs);
+        int[] outputSlots = new int[outputs.size()];
+        for (int i = 0; i < outputs.size(); i++) {
+            outputSlots[i] = b.resolve(outputs.get(i), producer);
+            if (outputSlots[i] < 0)
+                return null;
+        }
+        return new BitSlicedEvaluator(b, outputSlots);
+    }
+
+    private static boolean isSupported(Node n) {
+        Class<?> c = n.getClass();
+        if (c == Not.class)
+            return ((Not) n).getDataBits() == 1;
+        if (c == And.class || c == NAnd.class || c == Or.class || c == NOr.class || c == XOr.class || c == XNOr.class)
+            return ((FanIn) n).getDataBits() == 1;
+        return false;
+    }
+
+    /**
+     * @return the number of gates which are evaluated
+     */
+    public int getGateCount() {
+        return opcode.length;
+    }
+
+    /**
+     * Evaluates 64 assignments of the inputs.
+     * Bit j of <code>in[i]</code> is the value of input i in assignment j,
+     * bit j of <code>out[i]</code> is set to the value of output i in assignment j.
+     *
+     * @param in  the input values
+     * @param out the output values
+     */
+    public void evaluate(long[] in, long[] out) {
+        System.arraycopy(in, 0, slots, 0, inputCount);
+        for (int o = 0; o < opcode.length; o++) {
+            final int[] ins = opInputs[o];
+            long v = slots[ins[0]];
+            switch (opcode[o]) {
+                case AND:
+                    for (int i = 1; i < ins.length; i++)
+                        v &= slots[ins[i]];
+                    break;
+                case OR:
+                    for (int i = 1; i < ins.length; i++)
+                        v |= slots[ins[i]];
+                    break;
+                default:
+                    for (int i = 1; i < ins.length; i++)
+                        v ^= slots[ins[i]];
+                    break;
+            }
+            slots[opOutput[o]] = invert[o] ? ~v : v;
+        }
+        for (int i = 0; i < outputSlots.length; i++)
+            out[i] = slots[outputSlots[i]];
+    }
+
+    /**
+     * Evaluates the 64 rows of a truth table starting at the given row.
+     * As usual the first input is the most significant bit of the row number.
+     *
+     * @param firstRow the first row, a multiple of 64
+     * @param out      the output values, bit j of <code>out[i]</code> is set to output i in row firstRow+j
+     */
+    public void evaluateRows(long firstRow, long[] out) {
+        for (int i = 0; i < inputCount; i++)
+            rowInputs[i] = rowPattern(firstRow, inputCount - 1 - i);
+        evaluate(rowInputs, out);
+    }
+
+    /**
+     * Returns the values of the bit with the given weight in the row numbers firstRow..firstRow+63
+     *
+     * @param firstRow the first row, a multiple of 64
+     * @param bit      the bit of the row number
+     * @return the bit of all 64 rows
+     */
+    public static long rowPattern(long firstRow, int bit) {
+        if (bit < PATTERN.length)
+            return PATTERN[bit];
+        return ((firstRow >>> bit) & 1) != 0 ? -1 : 0;
+    }
+
+    private static final class Builder {
+        private final int inputCount;
+        private final HashMap<ObservableValue, Integer> slotOf = new HashMap<>();
+        private final ArrayList<Integer> constantSlots = new ArrayList<>();
+        private final ArrayList<Boolean> constantValues = new ArrayList<>();
+        private final ArrayList<Integer> opcode = new ArrayList<>();
+        private final ArrayList<Boolean> invert = new ArrayList<>();
+        private final ArrayList<int[]> opInputs = new ArrayList<>();
+        private final ArrayList<Integer> opOutput = new ArrayList<>();
+        private int slotCount;
+
+        private Builder(List<ObservableValue> inputs) {
+            inputCount = inputs.size();
+            for (ObservableValue in : inputs)
+                slotOf.put(in, slotCount++);
+        }
+
+        /*
+         * Resolves the given value and adds all gates needed to calculate it in topological order.
+         * A depth first search with an explicit stack is used to allow long chains of gates.
+         * Returns -1 if the value can not be calculated.
+         */
+        private int resolve(ObservableValue value, HashMap<ObservableValue, Node> producer) {
+            HashMap<Node, Boolean> visiting = new HashMap<>();
+            ArrayList<ObservableValue> stack = new ArrayList<>();
+            stack.add(value);
+            while (!stack.isEmpty()) {
+                ObservableValue v = stack.get(stack.size() - 1);
+                if (slotOf.containsKey(v)) {
+                    stack.remove(stack.size() - 1);
+                    continue;
+                }
+
+                if (v.isConstant()) {
+                    if (v.getBits() != 1 || v.isHighZ())
+                        return -1;
+                    constantSlots.add(slotCount);
+                    constantValues.add(v.getBool());
+                    slotOf.put(v, slotCount++);
+                    stack.remove(stack.size() - 1);
+                    continue;
+                }
+
+                Node n = producer.get(v);
+                if (n == null)
+                    return -1;
+
+                List<ObservableValue> ins = getInputs(n);
+                boolean ready = true;
+                for (ObservableValue in : ins)
+                    if (!slotOf.containsKey(in)) {
+                        ready = false;
+                        stack.add(in);
+                    }
+
+                if (ready) {
+                    stack.remove(stack.size() - 1);
+                    visiting.remove(n);
+                    addGate(n, v, ins);
+                } else if (visiting.put(n, Boolean.TRUE) != null)
+                    return -1; // cycle
+            }
+            return slotOf.get(value);
+        }
+
+        private void addGate(Node n, ObservableValue out, List<ObservableValue> ins) {
+            int[] inSlots = new int[ins.size()];
+            for (int i = 0; i < inSlots.length; i++)
+                inSlots[i] = slotOf.get(ins.get(i));
+
+            Class<?> c = n.getClass();
+            if (c == And.class || c == NAnd.class)
+                opcode.add(AND);
+            else if (c == Or.class || c == NOr.class)
+                opcode.add(OR);
+            else
+                opcode.add(XOR);
+            invert.add(c == NAnd.class || c == NOr.class || c == XNOr.class || c == Not.class);
+            opInputs.add(inSlots);
+            int slot = slotCount++;
+            opOutput.add(slot);
+            slotOf.put(out, slot);
+        }
+
+        private static List<ObservableValue> getInputs(Node n) {
+            if (n instanceof Not)
+                return ((Not) n).getInput().asList();
+            return ((FanIn) n).getInputs();
+        }
+    }
+}
@@ -30,6 +30,11 @@ abstract class Function extends FanIn {
         getOutput().setValue(value);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     protected abstract long calculate(ArrayList<ObservableValue> inputs) throws NodeException;
 
 }
@@ -61,6 +61,11 @@ public class Not extends Node implements Element, Countable {
         input = inputs.get(0).addObserverToValue(this).checkBits(bits, this);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public ObservableValues getOutputs() {
         return output.asList();
@@ -73,6 +78,13 @@ public class Not extends Node implements Element, Countable {
         return output;
     }
 
+    /**
+     * @return the input
+     */
+    ObservableValue getInput() {
+        return input;
+    }
+
     @Override
     public int getDataBits() {
         return bits;
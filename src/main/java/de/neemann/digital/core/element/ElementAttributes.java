@@ -11,8 +11,10 @@ import de.neemann.digital.hdl.hgs.HGSMap;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Describes one concrete Part.
@@ -214,6 +216,30 @@ public class ElementAttributes implements HGSMap {
         return attributes.isEmpty();
     }
 
+    /**
+     * Returns the stored entries in the order they are stored to a file.
+     *
+     * @return the entries
+     */
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (attributes == null)
+            return Collections.emptySet();
+        return Collections.unmodifiableMap(attributes).entrySet();
+    }
+
+    /**
+     * Puts a value to the map as it is read from a file.
+     * In contrast to {@link #set(Key, Object)} the value is always stored and no listener is notified.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(String key, Object value) {
+        if (attributes == null)
+            attributes = new HashMap<>();
+        attributes.put(key, value);
+    }
+
     /**
      * Gets a file stored in the map
      *
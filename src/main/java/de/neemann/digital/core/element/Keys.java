@@ -938,6 +938,15 @@ public final class Keys {
     public static final Key<Boolean> SETTINGS_WIRETOOLTIP =
             new Key<>("wireToolTips", false);
 
+    /**
+     * The minimal number of nodes in a micro step to evaluate them in parallel
+     */
+    public static final Key<Integer> SETTINGS_PARALLEL_THRESHOLD =
+            new Key.KeyInteger("parallelThreshold", 0)
+                    .setComboBoxValues(0, 256, 1024, 4096)
+                    .setMin(0)
+                    .setSecondary();
+
 
     /**
      * The switch acts as input
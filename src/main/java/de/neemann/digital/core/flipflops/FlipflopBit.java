@@ -66,6 +66,16 @@ abstract class FlipflopBit extends Node implements Element {
         qn.setBool(!out);
     }
 
+    @Override
+    public Object saveState() {
+        return out;
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        out = (Boolean) state;
+    }
+
     @Override
     public ObservableValues getOutputs() {
         return ovs(q, qn);
@@ -101,6 +101,18 @@ public class FlipflopD extends Node implements Element, Countable {
         qn.setValue(~value);
     }
 
+    @Override
+    public Object saveState() {
+        return new long[]{value, lastClock ? 1 : 0};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        long[] s = (long[]) state;
+        value = s[0];
+        lastClock = s[1] != 0;
+    }
+
     @Override
     public void setInputs(ObservableValues inputs) throws BitsException {
         dVal = inputs.get(0).checkBits(bits, this, 0);
@@ -72,6 +72,18 @@ public class FlipflopJK extends FlipflopBit {
         lastClock = clock;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{super.saveState(), lastClock};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        super.restoreState(s[0]);
+        lastClock = (Boolean) s[1];
+    }
+
     @Override
     public void setInputs(ObservableValues inputs) throws BitsException {
         jVal = inputs.get(0).checkBits(1, this, 0);
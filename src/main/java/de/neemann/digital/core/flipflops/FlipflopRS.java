@@ -69,6 +69,18 @@ public class FlipflopRS extends FlipflopBit {
         lastClock = clock;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{super.saveState(), lastClock};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        super.restoreState(s[0]);
+        lastClock = (Boolean) s[1];
+    }
+
     @Override
     public void setInputs(ObservableValues inputs) throws BitsException {
         sVal = inputs.get(0).checkBits(1, this, 0);
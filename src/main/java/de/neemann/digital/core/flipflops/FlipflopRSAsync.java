@@ -89,6 +89,18 @@ public class FlipflopRSAsync extends FlipflopBit {
         qnVal.setBool(qn);
     }
 
+    @Override
+    public Object saveState() {
+        return new boolean[]{q, qn};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        boolean[] s = (boolean[]) state;
+        q = s[0];
+        qn = s[1];
+    }
+
     @Override
     public void setInputs(ObservableValues inputs) throws BitsException {
         sVal = inputs.get(0).addObserverToValue(this).checkBits(1, this, 0);
@@ -72,6 +72,18 @@ public class FlipflopT extends FlipflopBit {
         lastClock = clock;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{super.saveState(), lastClock};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        super.restoreState(s[0]);
+        lastClock = (Boolean) s[1];
+    }
+
     @Override
     public void setInputs(ObservableValues inputs) throws BitsException {
         if (isEnable) {
@@ -70,6 +70,19 @@ public class Monoflop extends FlipflopBit {
         lastClock = clockVal;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{super.saveState(), lastClock, counter};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        super.restoreState(s[0]);
+        lastClock = (Boolean) s[1];
+        counter = (Integer) s[2];
+    }
+
     @Override
     public void setInputs(ObservableValues inputs) throws NodeException {
         clock = inputs.get(0).checkBits(1, this).addObserverToValue(this);
@@ -27,6 +27,17 @@ public class InValue {
         this.highZ = false;
     }
 
+    /**
+     * Creates a new value
+     *
+     * @param value the value
+     * @param highZ the high z state
+     */
+    public InValue(long value, boolean highZ) {
+        this.value = value;
+        this.highZ = highZ;
+    }
+
     /**
      * Creates a new value
      *
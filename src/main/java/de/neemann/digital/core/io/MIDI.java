@@ -105,6 +105,16 @@ public class MIDI extends Node implements Element {
         lastCl = cl;
     }
 
+    @Override
+    public Object saveState() {
+        return lastCl;
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        lastCl = (Boolean) state;
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
     }
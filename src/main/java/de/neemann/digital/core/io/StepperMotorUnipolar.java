@@ -148,6 +148,20 @@ public class StepperMotorUnipolar extends Node implements Element {
         s1.setBool(invertOut ^ (pos > STEPS / 2 - SWITCH_SIZE && pos < STEPS / 2 + SWITCH_SIZE));
     }
 
+    @Override
+    public Object saveState() {
+        return new int[]{lastState, pos, sequenceError, stateError ? 1 : 0};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        int[] s = (int[]) state;
+        lastState = s[0];
+        pos = s[1];
+        sequenceError = s[2];
+        stateError = s[3] != 0;
+    }
+
     /**
      * Returns the motor position
      *
@@ -74,6 +74,30 @@ public class ByteBuffer {
         return inBuffer > 0;
     }
 
+    /**
+     * @return a copy of the buffered bytes, the oldest byte first
+     */
+    synchronized public byte[] getContent() {
+        byte[] content = new byte[inBuffer];
+        int n = oldest;
+        for (int i = 0; i < inBuffer; i++) {
+            content[i] = data[n];
+            n = inc(n);
+        }
+        return content;
+    }
+
+    /**
+     * Replaces the buffered bytes
+     *
+     * @param content the bytes to store, the oldest byte first
+     */
+    synchronized public void setContent(byte[] content) {
+        deleteAll();
+        for (byte b : content)
+            put(b);
+    }
+
     private int inc(int n) {
         n++;
         if (n >= size)
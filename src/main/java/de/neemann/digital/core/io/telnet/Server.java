@@ -49,6 +49,14 @@ public class Server {
         buffer.deleteAll();
     }
 
+    byte[] getBufferContent() {
+        return buffer.getContent();
+    }
+
+    void setBufferContent(byte[] content) {
+        buffer.setContent(content);
+    }
+
     /**
      * Connects the server with the telnet node
      *
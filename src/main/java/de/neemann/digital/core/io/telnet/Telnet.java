@@ -80,6 +80,18 @@ public class Telnet extends Node implements Element {
         lastClock = clock;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{lastClock, server.getBufferContent()};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        lastClock = (Boolean) s[0];
+        server.setBufferContent((byte[]) s[1]);
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         if (readEnable)
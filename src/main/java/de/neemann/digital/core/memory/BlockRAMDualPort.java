@@ -87,6 +87,19 @@ public class BlockRAMDualPort extends Node implements Element, RAMInterface {
         lastClk = clk;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{memory.createSnapshot(), lastClk, outputVal};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        memory.restoreSnapshot((DataField) s[0]);
+        lastClk = (Boolean) s[1];
+        outputVal = (Long) s[2];
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         output.setValue(outputVal);
@@ -78,6 +78,18 @@ public class Counter extends Node implements Element, ProgramCounter {
         ovfOut = (counter == maxValue) && enable;
     }
 
+    @Override
+    public Object saveState() {
+        return new long[]{counter, lastClock ? 1 : 0};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        long[] s = (long[]) state;
+        counter = s[0];
+        lastClock = s[1] != 0;
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         ovf.setBool(ovfOut);
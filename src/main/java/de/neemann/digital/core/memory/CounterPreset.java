@@ -108,6 +108,18 @@ public class CounterPreset extends Node implements Element, ProgramCounter {
         lastClock = clock;
     }
 
+    @Override
+    public Object saveState() {
+        return new long[]{counter, lastClock ? 1 : 0};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        long[] s = (long[]) state;
+        counter = s[0];
+        lastClock = s[1] != 0;
+    }
+
     private boolean getOvfValue(long counter, boolean dir, boolean enable) {
         if (dir)
             return (counter == 0) && enable;
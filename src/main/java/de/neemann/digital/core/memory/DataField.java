@@ -19,6 +19,8 @@ import java.util.Arrays;
 public class DataField implements HGSArray {
 
     private long[] data;
+    // true if the data array is shared with a snapshot and needs to be copied before it is modified
+    private transient boolean shared;
 
     private final transient ArrayList<DataListener> listeners = new ArrayList<>();
 
@@ -121,8 +123,13 @@ public class DataField implements HGSArray {
      * Is not called during simulation! Is only called during editing.
      */
     public void clearAll() {
-        if (data != null)
-            Arrays.fill(data, 0);
+        if (data != null) {
+            if (shared)
+                data = new long[data.length];
+            else
+                Arrays.fill(data, 0);
+            shared = false;
+        }
 
         // all the data have changed!
         fireChanged(-1);
@@ -141,9 +148,14 @@ public class DataField implements HGSArray {
             int newLen = addr * 2;
             if (newLen < 32) newLen = 32;
             data = Arrays.copyOf(data, newLen);
+            shared = false;
         }
 
         if (data[addr] != value) {
+            if (shared) {
+                data = Arrays.copyOf(data, data.length);
+                shared = false;
+            }
             data[addr] = value;
             fireChanged(addr);
             return true;
@@ -186,8 +198,10 @@ public class DataField implements HGSArray {
         if (size > data.length)
             size = data.length;
         while (size > 0 && data[size - 1] == 0) size--;
-        if (size < data.length)
+        if (size < data.length) {
             data = Arrays.copyOf(data, size);
+            shared = false;
+        }
         return data.length;
     }
 
@@ -201,6 +215,10 @@ public class DataField implements HGSArray {
     public DataField trimValues(int addrBits, int dataBits) {
         trim(1 << addrBits);
         long mask = Bits.mask(dataBits);
+        if (shared) {
+            data = Arrays.copyOf(data, data.length);
+            shared = false;
+        }
         for (int i = 0; i < data.length; i++)
             data[i] = data[i] & mask;
 
@@ -256,9 +274,38 @@ public class DataField implements HGSArray {
      */
     public void setDataFrom(DataField dataField) {
         data = Arrays.copyOf(dataField.data, dataField.data.length);
+        shared = false;
         fireChanged(-1);
     }
 
+    /**
+     * Creates a snapshot of this data field.
+     * The snapshot shares the data array with this data field. The array is copied if this
+     * data field is modified, so creating a snapshot is cheap also for large memories.
+     * The snapshot itself must not be modified.
+     *
+     * @return the snapshot
+     */
+    public DataField createSnapshot() {
+        shared = true;
+        DataField snapshot = new DataField(data);
+        snapshot.shared = true;
+        return snapshot;
+    }
+
+    /**
+     * Restores the data from a snapshot created by {@link #createSnapshot()}.
+     *
+     * @param snapshot the snapshot
+     */
+    public void restoreSnapshot(DataField snapshot) {
+        if (data != snapshot.data) {
+            data = snapshot.data;
+            shared = true;
+            fireChanged(-1);
+        }
+    }
+
     @Override
     public int hgsArraySize() {
         return data.length;
@@ -25,7 +25,17 @@ public class DataFieldConverter implements Converter {
 
     @Override
     public void marshal(Object o, HierarchicalStreamWriter writer, MarshallingContext marshallingContext) {
-        DataField df = (DataField) o;
+        writer.setValue(createDataString((DataField) o));
+    }
+
+    /**
+     * Creates the string representation of a data field as it is stored in a file.
+     * The data field is trimmed.
+     *
+     * @param df the data field
+     * @return the string representation
+     */
+    public static String createDataString(DataField df) {
         df.trim();
         StringBuilder dataStr = new StringBuilder();
         long[] data = df.getData();
@@ -50,10 +60,10 @@ public class DataFieldConverter implements Converter {
             }
             writeChunk(dataStr, akt, count);
         }
-        writer.setValue(dataStr.toString());
+        return dataStr.toString();
     }
 
-    private void writeChunk(StringBuilder w, long data, int count) {
+    private static void writeChunk(StringBuilder w, long data, int count) {
         if (count < 4) {
             for (int j = 0; j < count; j++) {
                 if (w.length() > 0)
@@ -86,31 +96,41 @@ public class DataFieldConverter implements Converter {
             return df;
         } else {
             try {
-                // new type
-                DataField df = new DataField(1024);
-                StringTokenizer st = new StringTokenizer(reader.getValue(), ",");
-                int i = 0;
-                while (st.hasMoreTokens()) {
-                    String val = st.nextToken().trim();
-                    int p = val.indexOf("*");
-                    if (p < 0) {
-                        df.setData(i, Bits.decode(val, 0, 16));
-                        i++;
-                    } else {
-                        int count = Integer.parseInt(val.substring(0, p));
-                        long v = Bits.decode(val.substring(p + 1), 0, 16);
-                        for (int j = 0; j < count; j++) {
-                            df.setData(i, v);
-                            i++;
-                        }
-                    }
-                }
-                df.trim();
-                return df;
+                return parseDataString(reader.getValue());
             } catch (Bits.NumberFormatException e) {
                 throw new RuntimeException(e);
             }
         }
     }
 
+    /**
+     * Creates a data field from its string representation
+     *
+     * @param data the string representation
+     * @return the data field
+     * @throws Bits.NumberFormatException Bits.NumberFormatException
+     */
+    public static DataField parseDataString(String data) throws Bits.NumberFormatException {
+        DataField df = new DataField(1024);
+        StringTokenizer st = new StringTokenizer(data, ",");
+        int i = 0;
+        while (st.hasMoreTokens()) {
+            String val = st.nextToken().trim();
+            int p = val.indexOf("*");
+            if (p < 0) {
+                df.setData(i, Bits.decode(val, 0, 16));
+                i++;
+            } else {
+                int count = Integer.parseInt(val.substring(0, p));
+                long v = Bits.decode(val.substring(p + 1), 0, 16);
+                for (int j = 0; j < count; j++) {
+                    df.setData(i, v);
+                    i++;
+                }
+            }
+        }
+        df.trim();
+        return df;
+    }
+
 }
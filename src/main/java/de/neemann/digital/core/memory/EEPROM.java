@@ -124,6 +124,20 @@ public class EEPROM extends Node implements Element, RAMInterface, ROMInterface
         lastWrite = write;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{memory.createSnapshot(), readAddr, writeAddr, lastWrite};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        memory.restoreSnapshot((DataField) s[0]);
+        readAddr = (Integer) s[1];
+        writeAddr = (Integer) s[2];
+        lastWrite = (Boolean) s[3];
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         if (cs && oe && !we) {
@@ -80,6 +80,16 @@ public class RAMAsync extends Node implements Element, RAMInterface {
         outputVal = memory.getDataWord(addr);
     }
 
+    @Override
+    public Object saveState() {
+        return memory.createSnapshot();
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        memory.restoreSnapshot((DataField) state);
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         output.setValue(outputVal);
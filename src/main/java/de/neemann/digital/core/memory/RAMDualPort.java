@@ -177,6 +177,18 @@ public class RAMDualPort extends Node implements Element, RAMInterface {
         lastClk = clk;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{memory.createSnapshot(), lastClk};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        memory.restoreSnapshot((DataField) s[0]);
+        lastClk = (Boolean) s[1];
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         if (ld) {
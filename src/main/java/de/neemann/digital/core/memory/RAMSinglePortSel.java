@@ -97,6 +97,16 @@ public class RAMSinglePortSel extends Node implements Element, RAMInterface {
         }
     }
 
+    @Override
+    public Object saveState() {
+        return memory.createSnapshot();
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        memory.restoreSnapshot((DataField) state);
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         if (cs && oe && !we) {
@@ -67,6 +67,18 @@ public class Register extends Node implements Element, Countable, ProgramCounter
         lastClock = clock;
     }
 
+    @Override
+    public Object saveState() {
+        return new long[]{value, lastClock ? 1 : 0};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        long[] s = (long[]) state;
+        value = s[0];
+        lastClock = s[1] != 0;
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         q.setValue(value);
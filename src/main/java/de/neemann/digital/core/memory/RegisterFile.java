@@ -101,6 +101,18 @@ public class RegisterFile extends Node implements Element, RAMInterface {
         lastClk = clk;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{memory.createSnapshot(), lastClk};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        memory.restoreSnapshot((DataField) s[0]);
+        lastClk = (Boolean) s[1];
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         out1.setValue(memory.getDataWord(reg1));
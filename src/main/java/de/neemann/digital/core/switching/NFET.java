@@ -90,6 +90,17 @@ public class NFET extends Node implements Element, Countable {
         s.setClosed(closed);
     }
 
+    @Override
+    public Object saveState() {
+        return closed;
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        closed = (Boolean) state;
+        s.setClosed(closed);
+    }
+
     /**
      * @return true if fet is closed
      */
@@ -65,6 +65,16 @@ public class Relay extends Node implements Element, Countable {
     public void writeOutputs() throws NodeException {
     }
 
+    @Override
+    public Object saveState() {
+        return s.isClosed();
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        s.setClosed((Boolean) state);
+    }
+
     @Override
     public ObservableValues getOutputs() {
         return s.getOutputs();
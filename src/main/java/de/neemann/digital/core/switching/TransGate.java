@@ -68,6 +68,17 @@ public class TransGate extends Node implements Element {
         aSwitch.setClosed(closed);
     }
 
+    @Override
+    public Object saveState() {
+        return closed;
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        closed = (Boolean) state;
+        aSwitch.setClosed(closed);
+    }
+
     @Override
     public void init(Model model) throws NodeException {
         aSwitch.init(model);
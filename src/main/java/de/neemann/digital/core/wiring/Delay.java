@@ -20,6 +20,9 @@ import static de.neemann.digital.core.element.PinInfo.input;
  * The Delay.
  * Allows to delay a signal propagation by a certain amount of time.
  * This time is given in units of gate delays.
+ * In the unit delay model the delay is a shift register which is clocked by every micro step.
+ * If the model is event driven, the delay is used as the propagation delay of the node and the
+ * values read are buffered in a queue until they are written.
  */
 public class Delay extends Node implements Element {
 
@@ -37,6 +40,7 @@ public class Delay extends Node implements Element {
     private ObservableValue input;
     private long[] value;
     private int pos;
+    private int queued;
 
     /**
      * Creates a new instance
@@ -57,6 +61,12 @@ public class Delay extends Node implements Element {
 
     @Override
     public void readInputs() throws NodeException {
+        if (isEventDriven()) {
+            value[(pos + queued) % delayTime] = input.getValue();
+            queued++;
+            return;
+        }
+
         value[pos] = input.getValue();
         pos++;
         if (pos >= delayTime)
@@ -65,6 +75,13 @@ public class Delay extends Node implements Element {
 
     @Override
     public void writeOutputs() throws NodeException {
+        if (isEventDriven()) {
+            output.setValue(value[pos]);
+            pos = (pos + 1) % delayTime;
+            queued--;
+            return;
+        }
+
         output.setValue(value[pos]);
 
         if (delayTime > 1) {
@@ -79,6 +96,28 @@ public class Delay extends Node implements Element {
         }
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{value.clone(), pos, queued};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        System.arraycopy((long[]) s[0], 0, value, 0, delayTime);
+        pos = (Integer) s[1];
+        queued = (Integer) s[2];
+    }
+
+    private boolean isEventDriven() {
+        return getModel() != null && getModel().isEventDriven();
+    }
+
+    @Override
+    public int getPropagationDelay() {
+        return delayTime;
+    }
+
     @Override
     public void setInputs(ObservableValues inputs) throws NodeException {
         input = inputs.get(0).addObserverToValue(this).checkBits(bits, this);
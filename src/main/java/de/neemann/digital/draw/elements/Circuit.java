@@ -58,6 +58,7 @@ public class Circuit implements Copyable<Circuit> {
     private List<String> measurementOrdering;
     private transient boolean dotsPresent = false;
     private transient File origin;
+    private transient GridIndex index;
 
     /**
      * Creates a proper configured XStream instance
@@ -131,16 +132,20 @@ public class Circuit implements Copyable<Circuit> {
      */
     public static Circuit loadCircuit(InputStream in, ShapeFactory shapeFactory) throws IOException {
         try {
-            XStream xStream = getxStream();
-            Circuit circuit = (Circuit) xStream.fromXML(in);
+            byte[] data = readAll(in);
+            Circuit circuit = CircuitReader.read(data);
+            if (circuit == null) {
+                XStream xStream = getxStream();
+                circuit = (Circuit) xStream.fromXML(new ByteArrayInputStream(data));
+            }
             for (VisualElement ve : circuit.getElements())
                 ve.setShapeFactory(shapeFactory);
 
             if (circuit.version == 0) {
                 // convert to version 1
                 for (Wire w : circuit.getWires()) {
-                    w.p1 = w.p1.mul(2);
-                    w.p2 = w.p2.mul(2);
+                    w.setP1(w.p1.mul(2));
+                    w.setP2(w.p2.mul(2));
                 }
                 for (VisualElement e : circuit.getElements())
                     e.setPos(e.getPos().mul(2));
@@ -154,6 +159,15 @@ public class Circuit implements Copyable<Circuit> {
         }
     }
 
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int len;
+        while ((len = in.read(buffer)) > 0)
+            baos.write(buffer, 0, len);
+        return baos.toByteArray();
+    }
+
     /**
      * Stores the circuit in the given file
      *
@@ -172,9 +186,13 @@ public class Circuit implements Copyable<Circuit> {
      */
     public void save(OutputStream out) throws IOException {
         try (Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
-            XStream xStream = Circuit.getxStream();
             w.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
-            xStream.marshal(this, new PrettyPrintWriter(w));
+            if (CircuitWriter.isSupported(attributes, visualElements, wires, measurementOrdering))
+                new CircuitWriter(w).write(version, attributes, visualElements, wires, measurementOrdering);
+            else {
+                XStream xStream = Circuit.getxStream();
+                xStream.marshal(this, new PrettyPrintWriter(w));
+            }
         }
     }
 
@@ -186,6 +204,23 @@ public class Circuit implements Copyable<Circuit> {
         wires = new ArrayList<>();
     }
 
+    /**
+     * Creates a circuit read from a file
+     *
+     * @param version             the file version
+     * @param attributes          the attributes, maybe null
+     * @param visualElements      the visual elements
+     * @param wires               the wires, maybe null
+     * @param measurementOrdering the measurement ordering, maybe null
+     */
+    Circuit(int version, ElementAttributes attributes, ArrayList<VisualElement> visualElements, ArrayList<Wire> wires, List<String> measurementOrdering) {
+        this.version = version;
+        this.attributes = attributes;
+        this.visualElements = visualElements;
+        this.wires = wires;
+        this.measurementOrdering = measurementOrdering;
+    }
+
     /**
      * Creates a copy of the given circuit
      *
@@ -291,6 +326,7 @@ public class Circuit implements Copyable<Circuit> {
      */
     public Circuit add(VisualElement visualElement) {
         visualElements.add(visualElement);
+        index = null;
         return this;
     }
 
@@ -337,6 +373,13 @@ public class Circuit implements Copyable<Circuit> {
         dotsPresent = false;
     }
 
+    /**
+     * Called if the order of the visual elements has changed
+     */
+    void elementsReordered() {
+        index = null;
+    }
+
     /**
      * Returns a list of all visual elements
      *
@@ -449,11 +492,11 @@ public class Circuit implements Copyable<Circuit> {
      */
     public ArrayList<Movable> getElementsToMove(Vector min, Vector max) {
         ArrayList<Movable> m = new ArrayList<>();
-        for (VisualElement vp : visualElements)
+        for (VisualElement vp : getElementsInRect(min, max))
             if (vp.matches(min, max))
                 m.add(vp);
 
-        for (Wire w : wires) {
+        for (Wire w : getWiresInRect(min, max)) {
             if (w.p1.inside(min, max))
                 m.add(w.getMovableP1());
             if (w.p2.inside(min, max))
@@ -474,11 +517,11 @@ public class Circuit implements Copyable<Circuit> {
      */
     public ArrayList<Drawable> getElementsToHighlight(Vector min, Vector max) {
         ArrayList<Drawable> m = new ArrayList<>();
-        for (VisualElement vp : visualElements)
+        for (VisualElement vp : getElementsInRect(min, max))
             if (vp.matches(min, max))
                 m.add(vp);
 
-        for (Wire w : wires) {
+        for (Wire w : getWiresInRect(min, max)) {
             if (w.p1.inside(min, max) || w.p2.inside(min, max))
                 m.add(w);
         }
@@ -500,11 +543,11 @@ public class Circuit implements Copyable<Circuit> {
      */
     public ArrayList<Movable> copyElementsToMove(Vector min, Vector max, ShapeFactory shapeFactory) {
         ArrayList<Movable> m = new ArrayList<>();
-        for (VisualElement vp : visualElements)
+        for (VisualElement vp : getElementsInRect(min, max))
             if (vp.matches(min, max))
                 m.add(new VisualElement(vp).setShapeFactory(shapeFactory));
 
-        for (Wire w : wires)
+        for (Wire w : getWiresInRect(min, max))
             if (w.p1.inside(min, max) && w.p2.inside(min, max))
                 m.add(new Wire(w));
 
@@ -526,14 +569,14 @@ public class Circuit implements Copyable<Circuit> {
     public RectContainer copyElementsInRect(Vector min, Vector max, ShapeFactory shapeFactory) {
         ArrayList<Drawable> d = new ArrayList<>();
         ArrayList<Movable> m = new ArrayList<>();
-        for (VisualElement vp : visualElements)
+        for (VisualElement vp : getElementsInRect(min, max))
             if (vp.matches(min, max)) {
                 final VisualElement ve = new VisualElement(vp).setShapeFactory(shapeFactory);
                 m.add(ve);
                 d.add(ve);
             }
 
-        for (Wire w : wires) {
+        for (Wire w : getWiresInRect(min, max)) {
             final boolean p1Inside = w.p1.inside(min, max);
             final boolean p2Inside = w.p2.inside(min, max);
             if (p1Inside || p2Inside) {
@@ -560,22 +603,23 @@ public class Circuit implements Copyable<Circuit> {
      * @param max lower right corner of the rectangle
      */
     public void delete(Vector min, Vector max) {
-        Iterator<VisualElement> veIt = visualElements.iterator();
-        while (veIt.hasNext())
-            if (veIt.next().matches(min, max))
-                veIt.remove();
-
-        boolean wireDeleted = false;
-        Iterator<Wire> wIt = wires.iterator();
-        while (wIt.hasNext()) {
-            Wire w = wIt.next();
-            if (w.p1.inside(min, max) || w.p2.inside(min, max)) {
-                wIt.remove();
-                wireDeleted = true;
-            }
+        HashSet<VisualElement> elementsToDelete = new HashSet<>();
+        for (VisualElement ve : getElementsInRect(min, max))
+            if (ve.matches(min, max))
+                elementsToDelete.add(ve);
+
+        HashSet<Wire> wiresToDelete = new HashSet<>();
+        for (Wire w : getWiresInRect(min, max))
+            if (w.p1.inside(min, max) || w.p2.inside(min, max))
+                wiresToDelete.add(w);
+
+        if (!elementsToDelete.isEmpty()) {
+            visualElements.removeAll(elementsToDelete);
+            index = null;
         }
 
-        if (wireDeleted) {
+        if (!wiresToDelete.isEmpty()) {
+            wires.removeAll(wiresToDelete);
             WireConsistencyChecker checker = new WireConsistencyChecker(wires);
             wires = checker.check();
         }
@@ -589,7 +633,8 @@ public class Circuit implements Copyable<Circuit> {
      * @param partToDelete the element to delete
      */
     public void delete(VisualElement partToDelete) {
-        visualElements.remove(partToDelete);
+        if (visualElements.remove(partToDelete))
+            index = null;
     }
 
     /**
@@ -624,7 +669,7 @@ public class Circuit implements Copyable<Circuit> {
      * @return the first element or null if there is no element at the given position
      */
     public VisualElement getElementAt(Vector pos, boolean includeText) {
-        for (VisualElement element : visualElements)
+        for (VisualElement element : getElementsInRect(pos, pos))
             if (element.matches(pos, includeText))
                 return element;
         return null;
@@ -639,7 +684,7 @@ public class Circuit implements Copyable<Circuit> {
      */
     public List<VisualElement> getElementListAt(Vector pos, boolean includeText) {
         ArrayList<VisualElement> list = new ArrayList<>();
-        for (VisualElement element : visualElements)
+        for (VisualElement element : getElementsInRect(pos, pos))
             if (element.matches(pos, includeText))
                 list.add(element);
         return list;
@@ -673,7 +718,7 @@ public class Circuit implements Copyable<Circuit> {
      * @return true if there is a wire at the given position
      */
     public boolean isWireAt(Vector pos) {
-        for (Wire w : wires)
+        for (Wire w : getWiresInRect(pos, pos))
             if (w.isPosOnWire(pos))
                 return true;
         return false;
@@ -689,7 +734,7 @@ public class Circuit implements Copyable<Circuit> {
     public Wire getWireAt(Vector pos, int radius) {
         float minDist = 0;
         Wire best = null;
-        for (Wire w : wires)
+        for (Wire w : getWiresInRect(pos.add(-radius, -radius), pos.add(radius, radius)))
             if (w.contains(pos, radius)) {
                 float d = w.distance(pos);
                 if (best == null || d < minDist) {
@@ -700,6 +745,34 @@ public class Circuit implements Copyable<Circuit> {
         return best;
     }
 
+    private GridIndex getIndex() {
+        if (index == null || !index.isValid(visualElements, wires))
+            index = new GridIndex(visualElements, wires);
+        return index;
+    }
+
+    /*
+     * Returns the elements which possibly overlap the given rectangle in the order of the element list.
+     */
+    private ArrayList<VisualElement> getElementsInRect(Vector min, Vector max) {
+        BitSet found = getIndex().getElements(min, max);
+        ArrayList<VisualElement> list = new ArrayList<>(found.cardinality());
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1))
+            list.add(visualElements.get(i));
+        return list;
+    }
+
+    /*
+     * Returns the wires which possibly overlap the given rectangle in the order of the wire list.
+     */
+    private ArrayList<Wire> getWiresInRect(Vector min, Vector max) {
+        BitSet found = getIndex().getWires(min, max);
+        ArrayList<Wire> list = new ArrayList<>(found.cardinality());
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1))
+            list.add(wires.get(i));
+        return list;
+    }
+
     /**
      * Deletes the references to the ObservableValues representing the elements or wire state.
      * So this circuit is detached from a generated model.
@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.elements;
+
+import de.neemann.digital.core.Bits;
+import de.neemann.digital.core.element.ElementAttributes;
+import de.neemann.digital.core.element.Rotation;
+import de.neemann.digital.core.io.InValue;
+import de.neemann.digital.core.memory.DataFieldConverter;
+import de.neemann.digital.draw.graphics.Vector;
+import de.neemann.digital.draw.model.InverterConfig;
+import de.neemann.digital.testing.TestCaseDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a circuit from a file without using reflection.
+ * Reads the files written by the XStream instance returned by {@link Circuit#getxStream()}
+ * and by the {@link CircuitWriter}.
+ * If the file contains content which is not supported, null is returned and
+ * the file has to be read by XStream.
+ */
+final class CircuitReader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitReader.class);
+    private static final XMLInputFactory FACTORY = createFactory();
+    private static final HashMap<String, Class<?>> ENUM_TYPES = new HashMap<>();
+
+    static {
+        for (Map.Entry<Class<?>, String> e : CircuitWriter.getEnumTypes().entrySet())
+            ENUM_TYPES.put(e.getValue(), e.getKey());
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory f = XMLInputFactory.newInstance();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return f;
+    }
+
+    /**
+     * Reads a circuit.
+     *
+     * @param data the content of the file
+     * @return the circuit or null if the file can not be read by this reader
+     */
+    static Circuit read(byte[] data) {
+        try {
+            XMLStreamReader in;
+            synchronized (FACTORY) {
+                in = FACTORY.createXMLStreamReader(new ByteArrayInputStream(data));
+            }
+            try {
+                return new CircuitReader(in).readCircuit();
+            } finally {
+                in.close();
+            }
+        } catch (XMLStreamException | UnsupportedException | Bits.NumberFormatException | RuntimeException e) {
+            LOGGER.debug("file not supported by the reader: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private final XMLStreamReader in;
+    private final XmlPath path;
+    private final HashMap<String, Object> objects;
+    private String reference;
+
+    private CircuitReader(XMLStreamReader in) {
+        this.in = in;
+        path = new XmlPath();
+        objects = new HashMap<>();
+    }
+
+    private Circuit readCircuit() throws XMLStreamException, UnsupportedException, Bits.NumberFormatException {
+        in.nextTag();
+        enter();
+        if (!in.getLocalName().equals("circuit"))
+            throw new UnsupportedException("circuit");
+
+        // XStream does not call the constructor, so a file without a version is version 0
+        int version = 0;
+        ElementAttributes attributes = null;
+        ArrayList<VisualElement> visualElements = null;
+        ArrayList<Wire> wires = null;
+        ArrayList<String> measurementOrdering = null;
+        while (nextChild()) {
+            switch (in.getLocalName()) {
+                case "version":
+                    version = Integer.parseInt(text());
+                    break;
+                case "attributes":
+                    attributes = new ElementAttributes();
+                    readAttributes(attributes);
+                    break;
+                case "visualElements":
+                    visualElements = new ArrayList<>();
+                    while (nextChild()) {
+                        expect("visualElement");
+                        visualElements.add(readVisualElement());
+                    }
+                    break;
+                case "wires":
+                    wires = new ArrayList<>();
+                    while (nextChild()) {
+                        expect("wire");
+                        wires.add(readWire());
+                    }
+                    break;
+                case "measurementOrdering":
+                    measurementOrdering = new ArrayList<>();
+                    while (nextChild()) {
+                        expect("string");
+                        measurementOrdering.add(text());
+                    }
+                    break;
+                default:
+                    skip();
+            }
+        }
+        if (visualElements == null)
+            throw new UnsupportedException("visualElements");
+        return new Circuit(version, attributes, visualElements, wires, measurementOrdering);
+    }
+
+    private VisualElement readVisualElement() throws XMLStreamException, UnsupportedException, Bits.NumberFormatException {
+        VisualElement ve = null;
+        while (nextChild()) {
+            switch (in.getLocalName()) {
+                case "elementName":
+                    if (ve != null)
+                        throw new UnsupportedException("elementName");
+                    ve = new VisualElement(text());
+                    break;
+                case "elementAttributes":
+                    if (ve == null)
+                        throw new UnsupportedException("elementAttributes");
+                    readAttributes(ve.getElementAttributes());
+                    break;
+                case "pos":
+                    if (ve == null)
+                        throw new UnsupportedException("pos");
+                    ve.setStoredPos(readVector());
+                    break;
+                default:
+                    skip();
+            }
+        }
+        if (ve == null)
+            throw new UnsupportedException("visualElement");
+        return ve;
+    }
+
+    private Wire readWire() throws XMLStreamException, UnsupportedException {
+        Vector p1 = null;
+        Vector p2 = null;
+        while (nextChild()) {
+            switch (in.getLocalName()) {
+                case "p1":
+                    p1 = readVector();
+                    break;
+                case "p2":
+                    p2 = readVector();
+                    break;
+                default:
+                    skip();
+            }
+        }
+        if (p1 == null || p2 == null)
+            throw new UnsupportedException("wire");
+        return new Wire(p1, p2);
+    }
+
+    private Vector readVector() throws XMLStreamException, UnsupportedException {
+        if (reference != null)
+            return (Vector) referenced();
+        String p = path.get();
+        Vector v = new Vector(Integer.parseInt(in.getAttributeValue(null, "x")), Integer.parseInt(in.getAttributeValue(null, "y")));
+        objects.put(p, v);
+        empty();
+        return v;
+    }
+
+    private void readAttributes(ElementAttributes attributes) throws XMLStreamException, UnsupportedException, Bits.NumberFormatException {
+        while (nextChild()) {
+            expect("entry");
+            if (!nextChild())
+                throw new UnsupportedException("entry");
+            expect("string");
+            String key = text();
+            if (!nextChild())
+                throw new UnsupportedException("entry");
+            Object value = readValue();
+            if (nextChild())
+                throw new UnsupportedException("entry");
+            attributes.put(key, value);
+        }
+    }
+
+    private Object readValue() throws XMLStreamException, UnsupportedException, Bits.NumberFormatException {
+        if (reference != null)
+            return referenced();
+
+        final String name = in.getLocalName();
+        switch (name) {
+            case "string":
+                return text();
+            case "int":
+                return Integer.valueOf(text());
+            case "long":
+                return Long.valueOf(text());
+            case "boolean":
+                return Boolean.valueOf(text());
+            case "file":
+                return new File(text());
+            default:
+                Class<?> enumType = ENUM_TYPES.get(name);
+                if (enumType != null)
+                    return toEnum(enumType, text());
+        }
+
+        String p = path.get();
+        final Object value;
+        switch (name) {
+            case "rotation":
+                value = new Rotation(Integer.parseInt(in.getAttributeValue(null, "rotation")));
+                empty();
+                break;
+            case "value":
+                value = new InValue(Long.parseLong(in.getAttributeValue(null, "v")), Boolean.parseBoolean(in.getAttributeValue(null, "z")));
+                empty();
+                break;
+            case "awt-color":
+                value = readColor();
+                break;
+            case "testData":
+                if (!nextChild())
+                    throw new UnsupportedException(name);
+                expect("dataString");
+                value = TestCaseDescription.createUnparsed(text());
+                if (nextChild())
+                    throw new UnsupportedException(name);
+                break;
+            case "inverterConfig":
+                InverterConfig.Builder builder = new InverterConfig.Builder();
+                while (nextChild()) {
+                    expect("string");
+                    builder.add(text());
+                }
+                value = builder.build();
+                break;
+            case "data":
+                value = DataFieldConverter.parseDataString(text());
+                break;
+            default:
+                throw new UnsupportedException(name);
+        }
+        objects.put(p, value);
+        return value;
+    }
+
+    private static Object toEnum(Class<?> enumType, String name) throws UnsupportedException {
+        for (Object c : enumType.getEnumConstants())
+            if (((Enum<?>) c).name().equals(name))
+                return c;
+        throw new UnsupportedException(enumType.getSimpleName() + " " + name);
+    }
+
+    private Color readColor() throws XMLStreamException, UnsupportedException {
+        HashMap<String, Integer> c = new HashMap<>();
+        while (nextChild()) {
+            String n = in.getLocalName();
+            c.put(n, Integer.parseInt(text()));
+        }
+        if (c.size() != 4 || !c.containsKey("red") || !c.containsKey("green") || !c.containsKey("blue") || !c.containsKey("alpha"))
+            throw new UnsupportedException("awt-color");
+        return new Color(c.get("red"), c.get("green"), c.get("blue"), c.get("alpha"));
+    }
+
+    private Object referenced() throws XMLStreamException, UnsupportedException {
+        Object o = objects.get(path.resolve(reference));
+        if (o == null)
+            throw new UnsupportedException("reference " + reference);
+        reference = null;
+        empty();
+        return o;
+    }
+
+    private void expect(String name) throws UnsupportedException {
+        if (!in.getLocalName().equals(name))
+            throw new UnsupportedException(in.getLocalName());
+    }
+
+    /*
+     * Moves to the next child of the current node.
+     * Returns false if there is no further child, in which case the current node is left.
+     */
+    private boolean nextChild() throws XMLStreamException, UnsupportedException {
+        if (reference != null)
+            throw new UnsupportedException("reference " + reference);
+        while (true) {
+            switch (in.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    enter();
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    path.pop();
+                    return false;
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new UnsupportedException("unexpected end of document");
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void enter() throws UnsupportedException {
+        path.push(in.getLocalName());
+        for (int i = 0; i < in.getAttributeCount(); i++) {
+            switch (in.getAttributeLocalName(i)) {
+                case "reference":
+                    reference = in.getAttributeValue(i);
+                    break;
+                case "class":
+                case "resolves-to":
+                case "id":
+                    throw new UnsupportedException(in.getAttributeLocalName(i));
+                default:
+                    break;
+            }
+        }
+    }
+
+    /*
+     * Reads the text of the current node and leaves the node.
+     */
+    private String text() throws XMLStreamException, UnsupportedException {
+        if (reference != null)
+            throw new UnsupportedException("reference " + reference);
+        String text = in.getElementText();
+        path.pop();
+        return text;
+    }
+
+    /*
+     * Skips the current node and all its children.
+     * Used for unknown nodes, which are also ignored by XStream.
+     */
+    private void skip() throws XMLStreamException, UnsupportedException {
+        reference = null;
+        while (nextChild())
+            skip();
+    }
+
+    /*
+     * Leaves the current node which has to be empty.
+     */
+    private void empty() throws XMLStreamException, UnsupportedException {
+        if (nextChild())
+            throw new UnsupportedException(in.getLocalName());
+    }
+
+    private static final class UnsupportedException extends Exception {
+        private UnsupportedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.elements;
+
+import com.thoughtworks.xstream.io.naming.NoNameCoder;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+import de.neemann.digital.analyse.expression.format.FormatToExpression;
+import de.neemann.digital.core.IntFormat;
+import de.neemann.digital.core.arithmetic.BarrelShifterMode;
+import de.neemann.digital.core.arithmetic.LeftRightFormat;
+import de.neemann.digital.core.element.ElementAttributes;
+import de.neemann.digital.core.element.Rotation;
+import de.neemann.digital.core.extern.Application;
+import de.neemann.digital.core.io.CommonConnectionType;
+import de.neemann.digital.core.io.InValue;
+import de.neemann.digital.core.io.ProbeMode;
+import de.neemann.digital.core.memory.DataField;
+import de.neemann.digital.core.memory.DataFieldConverter;
+import de.neemann.digital.draw.graphics.Orientation;
+import de.neemann.digital.draw.graphics.Vector;
+import de.neemann.digital.draw.model.InverterConfig;
+import de.neemann.digital.draw.shapes.CustomCircuitShapeType;
+import de.neemann.digital.gui.components.data.ScopeTrigger;
+import de.neemann.digital.testing.TestCaseDescription;
+
+import java.awt.*;
+import java.io.File;
+import java.io.Writer;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Writes a circuit to a file without using reflection.
+ * Creates the same output as the XStream instance returned by {@link Circuit#getxStream()},
+ * including the references to objects which are used more than once.
+ * Only the attribute value types listed in this class are supported. If a circuit
+ * contains other values, it has to be written by XStream.
+ */
+final class CircuitWriter {
+    private static final Map<Class<?>, String> SIMPLE_TYPES = new HashMap<>();
+    private static final Map<Class<?>, String> OBJECT_TYPES = new HashMap<>();
+    private static final Map<Class<?>, String> ENUM_TYPES = new HashMap<>();
+
+    static {
+        SIMPLE_TYPES.put(String.class, "string");
+        SIMPLE_TYPES.put(Integer.class, "int");
+        SIMPLE_TYPES.put(Long.class, "long");
+        SIMPLE_TYPES.put(Boolean.class, "boolean");
+        SIMPLE_TYPES.put(File.class, "file");
+
+        OBJECT_TYPES.put(Rotation.class, "rotation");
+        OBJECT_TYPES.put(Color.class, "awt-color");
+        OBJECT_TYPES.put(InValue.class, "value");
+        OBJECT_TYPES.put(TestCaseDescription.class, "testData");
+        OBJECT_TYPES.put(InverterConfig.class, "inverterConfig");
+        OBJECT_TYPES.put(DataField.class, "data");
+
+        ENUM_TYPES.put(IntFormat.class, "intFormat");
+        ENUM_TYPES.put(FormatToExpression.class, "exprFormat");
+        ENUM_TYPES.put(BarrelShifterMode.class, "barrelShifterMode");
+        ENUM_TYPES.put(LeftRightFormat.class, "direction");
+        ENUM_TYPES.put(Application.Type.class, "appType");
+        ENUM_TYPES.put(CustomCircuitShapeType.class, "shapeType");
+        addEnum(Orientation.class);
+        addEnum(ProbeMode.class);
+        addEnum(CommonConnectionType.class);
+        addEnum(ScopeTrigger.Trigger.class);
+    }
+
+    private static void addEnum(Class<?> c) {
+        // enums without an alias are stored using their xml friendly class name
+        ENUM_TYPES.put(c, c.getName().replace("_", "__").replace("$", "_-"));
+    }
+
+    /**
+     * @return the enum types which are supported and their node names
+     */
+    static Map<Class<?>, String> getEnumTypes() {
+        return Collections.unmodifiableMap(ENUM_TYPES);
+    }
+
+    /**
+     * Checks if the given circuit can be written by this writer.
+     *
+     * @param attributes          the attributes of the circuit, maybe null
+     * @param visualElements      the visual elements
+     * @param wires               the wires, maybe null
+     * @param measurementOrdering the measurement ordering, maybe null
+     * @return true if the circuit can be written
+     */
+    static boolean isSupported(ElementAttributes attributes, List<VisualElement> visualElements, List<Wire> wires, List<String> measurementOrdering) {
+        if (measurementOrdering != null && measurementOrdering.getClass() != ArrayList.class)
+            return false;
+        if (attributes != null && !isSupported(attributes))
+            return false;
+        for (VisualElement ve : visualElements) {
+            if (ve.getClass() != VisualElement.class || !isSupported(ve.getPos()))
+                return false;
+            if (ve.getElementAttributes() != null && !isSupported(ve.getElementAttributes()))
+                return false;
+        }
+        if (wires != null)
+            for (Wire w : wires)
+                if (w.getClass() != Wire.class || !isSupported(w.p1) || !isSupported(w.p2))
+                    return false;
+        return true;
+    }
+
+    private static boolean isSupported(Vector v) {
+        return v == null || v.getClass() == Vector.class;
+    }
+
+    private static boolean isSupported(ElementAttributes attributes) {
+        for (Map.Entry<String, Object> e : attributes.entrySet()) {
+            Object v = e.getValue();
+            if (e.getKey() == null || v == null)
+                return false;
+            if (v instanceof Enum) {
+                if (!ENUM_TYPES.containsKey(((Enum<?>) v).getDeclaringClass()))
+                    return false;
+            } else if (!SIMPLE_TYPES.containsKey(v.getClass()) && !OBJECT_TYPES.containsKey(v.getClass()))
+                return false;
+        }
+        return true;
+    }
+
+    private final PrettyPrintWriter out;
+    private final XmlPath path;
+    private final IdentityHashMap<Object, String> written;
+
+    /**
+     * Creates a new instance
+     *
+     * @param w the writer to write to
+     */
+    CircuitWriter(Writer w) {
+        out = new PrettyPrintWriter(w, new NoNameCoder());
+        path = new XmlPath();
+        written = new IdentityHashMap<>();
+    }
+
+    /**
+     * Writes the circuit.
+     * Make sure the circuit is supported by calling
+     * {@link #isSupported(ElementAttributes, List, List, List)} first.
+     *
+     * @param version             the file version
+     * @param attributes          the attributes of the circuit, maybe null
+     * @param visualElements      the visual elements
+     * @param wires               the wires, maybe null
+     * @param measurementOrdering the measurement ordering, maybe null
+     */
+    void write(int version, ElementAttributes attributes, List<VisualElement> visualElements, List<Wire> wires, List<String> measurementOrdering) {
+        start("circuit");
+        writeText("version", Integer.toString(version));
+        if (attributes != null)
+            writeAttributes("attributes", attributes);
+        start("visualElements");
+        for (VisualElement ve : visualElements)
+            writeVisualElement(ve);
+        end();
+        if (wires != null) {
+            start("wires");
+            for (Wire w : wires) {
+                start("wire");
+                writeVector("p1", w.p1);
+                writeVector("p2", w.p2);
+                end();
+            }
+            end();
+        }
+        if (measurementOrdering != null) {
+            start("measurementOrdering");
+            for (String s : measurementOrdering)
+                writeText("string", s);
+            end();
+        }
+        end();
+        out.flush();
+    }
+
+    private void writeVisualElement(VisualElement ve) {
+        start("visualElement");
+        if (ve.getElementName() != null)
+            writeText("elementName", ve.getElementName());
+        if (ve.getElementAttributes() != null)
+            writeAttributes("elementAttributes", ve.getElementAttributes());
+        writeVector("pos", ve.getPos());
+        end();
+    }
+
+    private void writeAttributes(String name, ElementAttributes attributes) {
+        start(name);
+        for (Map.Entry<String, Object> e : attributes.entrySet()) {
+            start("entry");
+            writeText("string", e.getKey());
+            writeValue(e.getValue());
+            end();
+        }
+        end();
+    }
+
+    private void writeVector(String name, Vector v) {
+        if (v == null)
+            return;
+        if (startObject(name, v)) {
+            out.addAttribute("x", Integer.toString(v.x));
+            out.addAttribute("y", Integer.toString(v.y));
+        }
+        end();
+    }
+
+    private void writeValue(Object v) {
+        if (v instanceof Enum) {
+            writeText(ENUM_TYPES.get(((Enum<?>) v).getDeclaringClass()), ((Enum<?>) v).name());
+            return;
+        }
+
+        String simple = SIMPLE_TYPES.get(v.getClass());
+        if (simple != null) {
+            if (v instanceof File)
+                writeText(simple, ((File) v).getPath());
+            else
+                writeText(simple, v.toString());
+            return;
+        }
+
+        if (startObject(OBJECT_TYPES.get(v.getClass()), v)) {
+            if (v instanceof Rotation)
+                out.addAttribute("rotation", Integer.toString(((Rotation) v).getRotation()));
+            else if (v instanceof Color) {
+                Color c = (Color) v;
+                writeText("red", Integer.toString(c.getRed()));
+                writeText("green", Integer.toString(c.getGreen()));
+                writeText("blue", Integer.toString(c.getBlue()));
+                writeText("alpha", Integer.toString(c.getAlpha()));
+            } else if (v instanceof InValue) {
+                out.addAttribute("v", Long.toString(((InValue) v).getValue()));
+                out.addAttribute("z", Boolean.toString(((InValue) v).isHighZ()));
+            } else if (v instanceof TestCaseDescription) {
+                String data = ((TestCaseDescription) v).getDataString();
+                if (data != null)
+                    writeText("dataString", data);
+            } else if (v instanceof InverterConfig) {
+                for (String s : ((InverterConfig) v).getInputs())
+                    writeText("string", s);
+            } else if (v instanceof DataField)
+                out.setValue(DataFieldConverter.createDataString((DataField) v));
+        }
+        end();
+    }
+
+    /*
+     * Starts a node holding an object which may be used more than once.
+     * Returns false if the object was already written, in which case only a reference is written.
+     */
+    private boolean startObject(String name, Object o) {
+        start(name);
+        String existing = written.get(o);
+        if (existing != null) {
+            out.addAttribute("reference", path.relativeTo(existing));
+            return false;
+        }
+        written.put(o, path.get());
+        return true;
+    }
+
+    private void writeText(String name, String text) {
+        start(name);
+        out.setValue(text);
+        end();
+    }
+
+    private void start(String name) {
+        path.push(name);
+        out.startNode(name);
+    }
+
+    private void end() {
+        out.endNode();
+        path.pop();
+    }
+}
@@ -113,6 +113,7 @@ public class ElementOrder implements ElementOrderer.OrderInterface<String> {
             VisualElement y = elements.get(index1);
             elements.set(index1, elements.get(index2));
             elements.set(index2, y);
+            circuit.elementsReordered();
         }
 
         @Override
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.elements;
+
+import de.neemann.digital.draw.graphics.GraphicMinMax;
+import de.neemann.digital.draw.graphics.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static de.neemann.digital.draw.shapes.GenericShape.SIZE;
+
+/**
+ * A uniform grid which is used to find the elements and wires at a given position
+ * without checking all elements and wires of a circuit.
+ * Every cell of the grid stores the indices of the elements and wires which overlap it.
+ * The grid is created from a snapshot of the element and wire lists of a circuit.
+ * The indexed elements and wires report a change of their geometry to the index, and only
+ * the changed entries are moved to their new cells before the next query.
+ */
+final class GridIndex {
+    private static final int CELL_SIZE = SIZE * 8;
+
+    private final ArrayList<VisualElement> visualElements;
+    private final ArrayList<Wire> wires;
+    private final int elementCount;
+    private final int wireCount;
+    private final HashMap<Long, Cell> cells;
+    // the cell range x1, y1, x2, y2 of every entry
+    private final int[] elementCells;
+    private final int[] wireCells;
+    private final BitSet changedElements;
+    private final BitSet changedWires;
+    private boolean valid;
+
+    /**
+     * Creates a new index
+     *
+     * @param visualElements the visual elements
+     * @param wires          the wires
+     */
+    GridIndex(ArrayList<VisualElement> visualElements, ArrayList<Wire> wires) {
+        this.visualElements = visualElements;
+        this.wires = wires;
+        elementCount = visualElements.size();
+        wireCount = wires.size();
+        cells = new HashMap<>();
+        elementCells = new int[elementCount * 4];
+        wireCells = new int[wireCount * 4];
+        changedElements = new BitSet(elementCount);
+        changedWires = new BitSet(wireCount);
+        valid = true;
+
+        // the shape may be created while adding the element, so register the index afterwards
+        for (int i = 0; i < elementCount; i++) {
+            addElement(i);
+            visualElements.get(i).setGridIndex(this, i);
+        }
+        for (int i = 0; i < wireCount; i++) {
+            addWire(i);
+            wires.get(i).setGridIndex(this, i);
+        }
+    }
+
+    /**
+     * Is called if the position or the shape of an indexed visual element has changed.
+     *
+     * @param index the index of the element
+     */
+    void elementChanged(int index) {
+        changedElements.set(index);
+    }
+
+    /**
+     * Is called if an end point of an indexed wire has changed.
+     *
+     * @param index the index of the wire
+     */
+    void wireChanged(int index) {
+        changedWires.set(index);
+    }
+
+    /**
+     * Is called if an indexed element or wire is added to the index of an other circuit.
+     * In this case its changes are not reported to this index anymore.
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    private void addElement(int index) {
+        VisualElement ve = visualElements.get(index);
+        GraphicMinMax mm = ve.getMinMax(true);
+        if (mm.getMin() == null)
+            add(ve.getPos(), ve.getPos(), index, true);
+        else
+            // shape specific matches may exceed the bounding box
+            add(mm.getMin().add(-SIZE, -SIZE), mm.getMax().add(SIZE, SIZE), index, true);
+    }
+
+    private void addWire(int index) {
+        Wire w = wires.get(index);
+        add(Vector.min(w.p1, w.p2), Vector.max(w.p1, w.p2), index, false);
+    }
+
+    private void add(Vector min, Vector max, int index, boolean element) {
+        int[] range = element ? elementCells : wireCells;
+        int o = index * 4;
+        range[o] = cell(min.x);
+        range[o + 1] = cell(min.y);
+        range[o + 2] = cell(max.x);
+        range[o + 3] = cell(max.y);
+        for (int x = range[o]; x <= range[o + 2]; x++)
+            for (int y = range[o + 1]; y <= range[o + 3]; y++)
+                cells.computeIfAbsent(key(x, y), k -> new Cell()).add(index, element);
+    }
+
+    private void remove(int index, boolean element) {
+        int[] range = element ? elementCells : wireCells;
+        int o = index * 4;
+        for (int x = range[o]; x <= range[o + 2]; x++)
+            for (int y = range[o + 1]; y <= range[o + 3]; y++) {
+                long k = key(x, y);
+                Cell c = cells.get(k);
+                if (c.remove(index, element))
+                    cells.remove(k);
+            }
+    }
+
+    /*
+     * Moves the changed entries to their new cells.
+     */
+    private void update() {
+        for (int i = changedElements.nextSetBit(0); i >= 0; i = changedElements.nextSetBit(i + 1)) {
+            remove(i, true);
+            addElement(i);
+        }
+        changedElements.clear();
+        for (int i = changedWires.nextSetBit(0); i >= 0; i = changedWires.nextSetBit(i + 1)) {
+            remove(i, false);
+            addWire(i);
+        }
+        changedWires.clear();
+    }
+
+    /**
+     * Returns true if the index matches the given lists
+     *
+     * @param visualElements the visual elements
+     * @param wires          the wires
+     * @return true if this index is up to date
+     */
+    boolean isValid(ArrayList<VisualElement> visualElements, ArrayList<Wire> wires) {
+        return this.visualElements == visualElements
+                && this.wires == wires
+                && elementCount == visualElements.size()
+                && wireCount == wires.size()
+                && valid;
+    }
+
+    /**
+     * Returns the indices of the elements which possibly overlap the given rectangle.
+     *
+     * @param min upper left corner of the rectangle
+     * @param max lower right corner of the rectangle
+     * @return the indices of the elements in ascending order
+     */
+    BitSet getElements(Vector min, Vector max) {
+        return get(min, max, true);
+    }
+
+    /**
+     * Returns the indices of the wires which possibly overlap the given rectangle.
+     *
+     * @param min upper left corner of the rectangle
+     * @param max lower right corner of the rectangle
+     * @return the indices of the wires in ascending order
+     */
+    BitSet getWires(Vector min, Vector max) {
+        return get(min, max, false);
+    }
+
+    private BitSet get(Vector min, Vector max, boolean element) {
+        update();
+        BitSet found = new BitSet();
+        int x1 = cell(min.x);
+        int x2 = cell(max.x);
+        int y1 = cell(min.y);
+        int y2 = cell(max.y);
+        if ((long) (x2 - x1 + 1) * (y2 - y1 + 1) > cells.size()) {
+            // large rectangle, check the occupied cells only
+            for (Map.Entry<Long, Cell> e : cells.entrySet()) {
+                long k = e.getKey();
+                int x = (int) (k >> 32);
+                int y = (int) k;
+                if (x1 <= x && x <= x2 && y1 <= y && y <= y2)
+                    e.getValue().addTo(found, element);
+            }
+        } else {
+            for (int x = x1; x <= x2; x++)
+                for (int y = y1; y <= y2; y++) {
+                    Cell c = cells.get(key(x, y));
+                    if (c != null)
+                        c.addTo(found, element);
+                }
+        }
+        return found;
+    }
+
+    private static int cell(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static final class Cell {
+        private int[] elements = new int[2];
+        private int elementCount;
+        private int[] wires = new int[4];
+        private int wireCount;
+
+        private void add(int index, boolean element) {
+            if (element) {
+                if (elementCount == elements.length)
+                    elements = Arrays.copyOf(elements, elementCount * 2);
+                elements[elementCount++] = index;
+            } else {
+                if (wireCount == wires.length)
+                    wires = Arrays.copyOf(wires, wireCount * 2);
+                wires[wireCount++] = index;
+            }
+        }
+
+        /*
+         * Removes the given index and returns true if the cell is empty afterwards.
+         */
+        private boolean remove(int index, boolean element) {
+            if (element)
+                elementCount = remove(elements, elementCount, index);
+            else
+                wireCount = remove(wires, wireCount, index);
+            return elementCount == 0 && wireCount == 0;
+        }
+
+        private static int remove(int[] indices, int count, int index) {
+            for (int i = 0; i < count; i++)
+                if (indices[i] == index) {
+                    indices[i] = indices[count - 1];
+                    return count - 1;
+                }
+            return count;
+        }
+
+        private void addTo(BitSet found, boolean element) {
+            if (element) {
+                for (int i = 0; i < elementCount; i++)
+                    found.set(elements[i]);
+            } else {
+                for (int i = 0; i < wireCount; i++)
+                    found.set(wires[i]);
+            }
+        }
+    }
+}
@@ -39,6 +39,8 @@ public class VisualElement implements Drawable, Movable, AttributeListener {
     // shapes are recreated if attributes are changed, therefore a factory is necessary and not only a simple shape!
     private transient ShapeFactory shapeFactory;
     private transient Transform transform;
+    private transient GridIndex gridIndex;
+    private transient int gridPosition;
 
     // these fields are stored to disk
     private String elementName;
@@ -113,11 +115,28 @@ public class VisualElement implements Drawable, Movable, AttributeListener {
     }
 
     private void resetGeometry() {
+        if (gridIndex != null)
+            gridIndex.elementChanged(gridPosition);
         transform = null;
         minMax = null;
         minMaxText = null;
     }
 
+    /**
+     * Sets the grid index this element is stored in.
+     * An element is only stored in a single index. If it is added to an other index,
+     * the previous one becomes invalid.
+     *
+     * @param gridIndex    the index
+     * @param gridPosition the position of this element in the index
+     */
+    void setGridIndex(GridIndex gridIndex, int gridPosition) {
+        if (this.gridIndex != null && this.gridIndex != gridIndex)
+            this.gridIndex.invalidate();
+        this.gridIndex = gridIndex;
+        this.gridPosition = gridPosition;
+    }
+
     /**
      * @return the position of this element
      */
@@ -140,6 +159,17 @@ public class VisualElement implements Drawable, Movable, AttributeListener {
         return this;
     }
 
+    /**
+     * Sets the position as it is read from a file.
+     * The position is not aligned to the grid.
+     *
+     * @param pos the position
+     */
+    void setStoredPos(Vector pos) {
+        this.pos = pos;
+        resetGeometry();
+    }
+
     /**
      * Checks if the given point is within the bounding box of the shape of this element.
      *
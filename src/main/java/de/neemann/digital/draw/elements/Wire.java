@@ -48,6 +48,8 @@ public class Wire implements Drawable, Movable, ObservableValueReader {
     private transient boolean p2Dot;
     private transient int bits;
     private transient boolean isConnectedToSplitter;
+    private transient GridIndex gridIndex;
+    private transient int gridPosition;
 
     /**
      * Creates anew wire
@@ -137,6 +139,7 @@ public class Wire implements Drawable, Movable, ObservableValueReader {
     public void move(Vector delta) {
         p1 = p1.add(delta);
         p2 = p2.add(delta);
+        geometryChanged();
     }
 
     @Override
@@ -152,6 +155,7 @@ public class Wire implements Drawable, Movable, ObservableValueReader {
      */
     public void setP1(Vector p1) {
         this.p1 = p1;
+        geometryChanged();
     }
 
     /**
@@ -162,6 +166,27 @@ public class Wire implements Drawable, Movable, ObservableValueReader {
      */
     public void setP2(Vector p2) {
         this.p2 = p2;
+        geometryChanged();
+    }
+
+    /**
+     * Sets the grid index this wire is stored in.
+     * A wire is only stored in a single index. If it is added to an other index,
+     * the previous one becomes invalid.
+     *
+     * @param gridIndex    the index
+     * @param gridPosition the position of this wire in the index
+     */
+    void setGridIndex(GridIndex gridIndex, int gridPosition) {
+        if (this.gridIndex != null && this.gridIndex != gridIndex)
+            this.gridIndex.invalidate();
+        this.gridIndex = gridIndex;
+        this.gridPosition = gridPosition;
+    }
+
+    private void geometryChanged() {
+        if (gridIndex != null)
+            gridIndex.wireChanged(gridPosition);
     }
 
     /**
@@ -349,6 +374,7 @@ public class Wire implements Drawable, Movable, ObservableValueReader {
             @Override
             public void move(Vector delta) {
                 p1 = p1.add(delta);
+                geometryChanged();
             }
 
             @Override
@@ -366,6 +392,7 @@ public class Wire implements Drawable, Movable, ObservableValueReader {
             @Override
             public void move(Vector delta) {
                 p2 = p2.add(delta);
+                geometryChanged();
             }
 
             @Override
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.elements;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Tracks the path of the current node while a xml file is read or written.
+ * The paths are created the same way XStream creates them, so the relative
+ * references to objects used more than once are compatible with XStream.
+ */
+final class XmlPath {
+    private final ArrayList<String> chunks = new ArrayList<>();
+    private final ArrayList<HashMap<String, Integer>> counters = new ArrayList<>();
+
+    /**
+     * Enters a node
+     *
+     * @param name the name of the node
+     */
+    void push(String name) {
+        int depth = chunks.size();
+        if (counters.size() <= depth)
+            counters.add(new HashMap<>());
+        int n = counters.get(depth).merge(name, 1, Integer::sum);
+        if (n > 1)
+            chunks.add(name + "[" + n + "]");
+        else
+            chunks.add(name);
+    }
+
+    /**
+     * Leaves the current node
+     */
+    void pop() {
+        int depth = chunks.size();
+        if (counters.size() > depth)
+            counters.get(depth).clear();
+        chunks.remove(depth - 1);
+    }
+
+    /**
+     * @return the absolute path of the current node
+     */
+    String get() {
+        StringBuilder sb = new StringBuilder();
+        for (String c : chunks)
+            sb.append('/').append(c);
+        return sb.toString();
+    }
+
+    /**
+     * Creates the path of the given node relative to the current node
+     *
+     * @param absolutePath the absolute path of the referenced node
+     * @return the relative path
+     */
+    String relativeTo(String absolutePath) {
+        String[] target = absolutePath.substring(1).split("/");
+        int common = 0;
+        while (common < target.length && common < chunks.size() && target[common].equals(chunks.get(common)))
+            common++;
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = common; i < chunks.size(); i++)
+            append(sb, "..");
+        for (int i = common; i < target.length; i++)
+            append(sb, target[i]);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String chunk) {
+        if (sb.length() > 0)
+            sb.append('/');
+        sb.append(chunk);
+    }
+
+    /**
+     * Resolves a path relative to the current node
+     *
+     * @param path the relative or absolute path
+     * @return the absolute path
+     */
+    String resolve(String path) {
+        ArrayList<String> result = new ArrayList<>();
+        if (!path.startsWith("/"))
+            result.addAll(chunks);
+        for (String c : path.split("/")) {
+            if (c.isEmpty() || c.equals("."))
+                continue;
+            if (c.equals("..")) {
+                if (!result.isEmpty())
+                    result.remove(result.size() - 1);
+            } else if (c.endsWith("[1]"))
+                result.add(c.substring(0, c.length() - 3));
+            else
+                result.add(c);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String c : result)
+            sb.append('/').append(c);
+        return sb.toString();
+    }
+}
@@ -26,6 +26,7 @@ import de.neemann.digital.core.wiring.*;
 import de.neemann.digital.draw.elements.Circuit;
 import de.neemann.digital.draw.elements.PinException;
 import de.neemann.digital.draw.elements.Tunnel;
+import de.neemann.digital.draw.elements.VisualElement;
 import de.neemann.digital.draw.shapes.ShapeFactory;
 import de.neemann.digital.gui.Settings;
 import de.neemann.digital.gui.components.data.DummyElement;
@@ -45,6 +46,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * The ElementLibrary is responsible for storing all the components which can be used in a circuit.
@@ -54,10 +56,26 @@ import java.util.*;
  * When a file is selected it is loaded to the library. After that also an icon is available.
  * This is done because the loading of a circuit and the creation of an icon is very time consuming and should
  * be avoided if not necessary. It's a kind of lazy loading.
+ * To speed up the opening of large circuits, the files of the nested circuits are parsed concurrently in the
+ * background as soon as they are referenced by a loaded circuit. The descriptions are still created lazily.
  */
 public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>, LibraryInterface {
     private static final Logger LOGGER = LoggerFactory.getLogger(ElementLibrary.class);
     private static final long MIN_RESCAN_INTERVAL = 5000;
+    private static final int MAX_PRELOAD_THREADS = 4;
+    private static final ThreadPoolExecutor PRELOAD_EXECUTOR = createPreloadExecutor();
+    private static final FutureTask<Circuit> LOADED = new FutureTask<>(() -> null);
+
+    private static ThreadPoolExecutor createPreloadExecutor() {
+        int threads = Math.max(1, Math.min(MAX_PRELOAD_THREADS, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "circuit preload");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
     /**
      * @return the additional library path
@@ -98,6 +116,8 @@ public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>
     private Exception exception;
     private long lastRescanTime;
     private StringBuilder warningMessage;
+    private final ConcurrentHashMap<File, FutureTask<Circuit>> loading = new ConcurrentHashMap<>();
+    private volatile Map<String, File> preloadFiles = Collections.emptyMap();
 
     /**
      * Creates a new instance.
@@ -366,6 +386,15 @@ public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>
         final PopulateMapVisitor populateMapVisitor = new PopulateMapVisitor(map);
         root.traverse(populateMapVisitor);
         warningMessage = populateMapVisitor.getWarningMessage();
+
+        HashMap<String, File> files = new HashMap<>();
+        for (Map.Entry<String, LibraryNode> e : map.entrySet()) {
+            LibraryNode n = e.getValue();
+            if (n.getFile() != null && n.isUnique())
+                files.put(e.getKey(), n.getFile());
+        }
+        loading.clear();
+        preloadFiles = files;
     }
 
     /**
@@ -478,6 +507,8 @@ public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>
 
     private void rescanFolder() {
         LOGGER.debug("rescan folder");
+        // the cached circuits are replaced by the rescan, so the resolved ones must not be kept
+        ResolveGenerics.invalidateSharedCache();
         LibraryNode cn = custom.scanFolder(rootLibraryPath, false);
 
         populateNodeMap();
@@ -554,6 +585,9 @@ public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>
      * @throws IOException IOException
      */
     public void invalidateElement(File name) throws IOException {
+        ResolveGenerics.invalidateSharedCache();
+        loading.clear();
+        invalidateTemplates(name.getName());
         LibraryNode n = map.get(name.getName());
         if (n != null)
             n.invalidate();
@@ -563,6 +597,31 @@ public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>
         }
     }
 
+    /*
+     * Invalidates the flattened structure of all circuits which use the changed circuit,
+     * either directly or by one of the circuits they use. All other circuits are kept,
+     * so only the modified parts need to be flattened again if the model is created.
+     */
+    private void invalidateTemplates(String changedName) {
+        HashSet<String> changed = new HashSet<>();
+        changed.add(changedName);
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (Map.Entry<String, LibraryNode> e : map.entrySet()) {
+                ElementTypeDescription d = e.getValue().getDescriptionOrNull();
+                if (d instanceof ElementTypeDescriptionCustom && !changed.contains(e.getKey())) {
+                    ElementTypeDescriptionCustom custom = (ElementTypeDescriptionCustom) d;
+                    if (custom.uses(changed)) {
+                        custom.invalidateTemplate();
+                        changed.add(e.getKey());
+                        found = true;
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Updates all entries
      *
@@ -588,13 +647,9 @@ public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>
      */
     ElementTypeDescription importElement(File file) throws IOException {
         try {
-            LOGGER.debug("load element " + file);
-            Circuit circuit;
-            try {
-                circuit = Circuit.loadCircuit(file, shapeFactory);
-            } catch (FileNotFoundException e) {
-                throw new IOException(Lang.get("err_couldNotFindIncludedFile_N0", file));
-            }
+            Circuit circuit = getCircuit(file);
+            for (VisualElement ve : circuit.getElements())
+                ve.setShapeFactory(shapeFactory);
 
             ElementTypeDescriptionCustom description = createCustomDescription(file, circuit, this);
             description.setShortName(createShortName(file.getName(), circuit.getAttributes().getLabel()));
@@ -609,6 +664,79 @@ public class ElementLibrary implements Iterable<ElementLibrary.ElementContainer>
         }
     }
 
+    /**
+     * Starts the loading of all the circuits used by the given circuit in the background.
+     * Also the circuits used by these circuits are loaded and so on.
+     * The descriptions are created not until they are requested by {@link #getElementType(String)}.
+     *
+     * @param circuit the circuit
+     */
+    public void preload(Circuit circuit) {
+        Map<String, File> files = preloadFiles;
+        if (files.isEmpty())
+            return;
+
+        for (VisualElement ve : circuit.getElements()) {
+            File file = findFile(files, ve.getElementName());
+            if (file != null && !loading.containsKey(file)) {
+                FutureTask<Circuit> task = new FutureTask<>(() -> loadCircuit(file));
+                if (loading.putIfAbsent(file, task) == null)
+                    PRELOAD_EXECUTOR.execute(task);
+            }
+        }
+    }
+
+    private static File findFile(Map<String, File> files, String elementName) {
+        if (elementName == null)
+            return null;
+        File file = files.get(elementName);
+        if (file == null) {
+            // effects only some old files!
+            elementName = elementName.replace("\\", "/");
+            if (elementName.contains("/"))
+                file = files.get(new File(elementName).getName());
+        }
+        return file;
+    }
+
+    /*
+     * Returns the circuit stored in the given file.
+     * If the file is already loaded or is loading in the background, this circuit is used.
+     * If not, the circuit is loaded on the calling thread.
+     */
+    private Circuit getCircuit(File file) throws IOException {
+        FutureTask<Circuit> task = loading.compute(file, (f, t) -> t == null || t == LOADED ? new FutureTask<>(() -> loadCircuit(f)) : t);
+
+        // does nothing if the task is already running or done
+        task.run();
+        try {
+            Circuit circuit = task.get();
+            // every description gets its own circuit instance
+            loading.replace(file, task, LOADED);
+            return circuit;
+        } catch (ExecutionException e) {
+            loading.remove(file, task);
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException(Lang.get("msg_errorImportingModel_N0", file), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(Lang.get("msg_errorImportingModel_N0", file), e);
+        }
+    }
+
+    private Circuit loadCircuit(File file) throws IOException {
+        LOGGER.debug("load element " + file);
+        Circuit circuit;
+        try {
+            circuit = Circuit.loadCircuit(file, null);
+        } catch (FileNotFoundException e) {
+            throw new IOException(Lang.get("err_couldNotFindIncludedFile_N0", file));
+        }
+        preload(circuit);
+        return circuit;
+    }
+
     private String createShortName(String name, String userDefined) {
         if (userDefined.isEmpty()) {
             if (name.endsWith(".dig")) return name.substring(0, name.length() - 4).replace("_", "\\_");
@@ -11,6 +11,7 @@ import de.neemann.digital.draw.elements.Circuit;
 import de.neemann.digital.draw.elements.PinException;
 import de.neemann.digital.draw.elements.VisualElement;
 import de.neemann.digital.draw.model.ModelCreator;
+import de.neemann.digital.draw.model.NestedCircuitTemplate;
 import de.neemann.digital.draw.model.NetList;
 import de.neemann.digital.hdl.hgs.Parser;
 import de.neemann.digital.hdl.hgs.ParserException;
@@ -21,6 +22,7 @@ import de.neemann.digital.lang.Lang;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Set;
 import java.util.TreeSet;
 
 /**
@@ -35,6 +37,7 @@ public final class ElementTypeDescriptionCustom extends ElementTypeDescription {
     private final LibraryInterface library;
     private String description;
     private NetList netList;
+    private NestedCircuitTemplate template;
     private String declarationDefault;
 
     /**
@@ -49,7 +52,7 @@ public final class ElementTypeDescriptionCustom extends ElementTypeDescription {
         this.file = file;
         this.circuit = circuit;
         this.library = library;
-        resolveGenerics = new ResolveGenerics(circuit, library);
+        resolveGenerics = new ResolveGenerics(circuit, library, true);
         setShortName(file.getName());
         addAttribute(Keys.ROTATE);
         addAttribute(Keys.LABEL);
@@ -127,9 +130,6 @@ public final class ElementTypeDescriptionCustom extends ElementTypeDescription {
      * @throws ElementNotFoundException ElementNotFoundException
      */
     ModelCreator getModelCreator(String subName, int depth, VisualElement errorVisualElement, VisualElement containingVisualElement) throws PinException, NodeException, ElementNotFoundException {
-        if (netList == null)
-            netList = new NetList(circuit);
-
         if (depth > MAX_DEPTH)
             throw new NodeException(Lang.get("err_recursiveNestingAt_N0", circuit.getOrigin()));
 
@@ -138,7 +138,52 @@ public final class ElementTypeDescriptionCustom extends ElementTypeDescription {
 
             return new ModelCreator(c, library, true, new NetList(new NetList(c), errorVisualElement), subName, depth, errorVisualElement);
         } else
-            return new ModelCreator(circuit, library, true, new NetList(netList, errorVisualElement), subName, depth, errorVisualElement);
+            return getTemplate(depth, errorVisualElement).createModelCreator(subName, errorVisualElement);
+    }
+
+    /**
+     * Returns the flattened structure of this circuit, creates it if necessary.
+     *
+     * @param depth              recursion depth, used to detect a circuit which contains itself
+     * @param errorVisualElement the visual element used to create error messages
+     * @return the template
+     * @throws PinException             PinException
+     * @throws NodeException            NodeException
+     * @throws ElementNotFoundException ElementNotFoundException
+     */
+    synchronized NestedCircuitTemplate getTemplate(int depth, VisualElement errorVisualElement) throws PinException, NodeException, ElementNotFoundException {
+        if (template == null) {
+            if (netList == null)
+                netList = new NetList(circuit);
+            template = new NestedCircuitTemplate(circuit, library, netList, depth, errorVisualElement);
+        }
+        return template;
+    }
+
+    /**
+     * Removes the flattened structure of this circuit.
+     * Needs to be called if a nested circuit has changed.
+     */
+    synchronized void invalidateTemplate() {
+        template = null;
+    }
+
+    /**
+     * Checks if this circuit directly uses one of the given circuits.
+     * Generic circuits are able to use any circuit, so true is returned in this case.
+     *
+     * @param names the names of the circuits
+     * @return true if one of the given circuits is used
+     */
+    boolean uses(Set<String> names) {
+        if (isGeneric())
+            return true;
+        for (VisualElement ve : circuit.getElements()) {
+            String name = ve.getElementName();
+            if (names.contains(name) || names.contains(new File(name.replace("\\", "/")).getName()))
+                return true;
+        }
+        return false;
     }
 
     /**
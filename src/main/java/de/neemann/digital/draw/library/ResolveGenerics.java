@@ -22,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.*;
 
 import static de.neemann.digital.draw.shapes.GenericShape.SIZE;
@@ -39,10 +40,18 @@ public class ResolveGenerics {
     private static final String SETTINGS_KEY = "settings";
     private static final String GLOBALS_KEY = "global";
     private static final String THIS_KEY = "this";
-    private final HashMap<String, Statement> map;
+    private static final int SHARED_CACHE_SIZE = 500;
+    private static final Map<SharedKey, SoftReference<CircuitHolder>> SHARED_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<SharedKey, SoftReference<CircuitHolder>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<SharedKey, SoftReference<CircuitHolder>> eldest) {
+                    return size() > SHARED_CACHE_SIZE;
+                }
+            });
     private final HashMap<Args, CircuitHolder> circuitMap;
     private final Circuit circuit;
     private final LibraryInterface library;
+    private final boolean shared;
 
     /**
      * Creates a new instance
@@ -51,12 +60,39 @@ public class ResolveGenerics {
      * @param library the library to ude
      */
     public ResolveGenerics(Circuit circuit, LibraryInterface library) {
+        this(circuit, library, false);
+    }
+
+    /**
+     * Creates a new instance.
+     * If shared is set, the resolved circuits are stored in a process wide cache which is
+     * shared by all instances resolving the same circuit.
+     * This is only allowed for circuits loaded by the library, because they are never modified.
+     * The cache is cleared if the library folder is rescanned or an element of the library is invalidated,
+     * so it does not keep circuits which are not used by the library anymore.
+     *
+     * @param circuit the circuit to resolve
+     * @param library the library to ude
+     * @param shared  if true, the process wide cache is used
+     */
+    public ResolveGenerics(Circuit circuit, LibraryInterface library, boolean shared) {
         this.circuit = circuit;
         this.library = library;
-        map = new HashMap<>();
+        this.shared = shared;
         circuitMap = new HashMap<>();
     }
 
+    /**
+     * Clears the process wide cache of resolved circuits.
+     * Needs to be called if a circuit is reloaded because the resolved
+     * circuits may depend on other circuits of the library.
+     * Is also called if the library folder is rescanned, because the cache key holds the
+     * unresolved circuit, which would otherwise be kept in memory after it is replaced.
+     */
+    public static void invalidateSharedCache() {
+        SHARED_CACHE.clear();
+    }
+
     /**
      * Resolves the generics
      *
@@ -73,6 +109,9 @@ public class ResolveGenerics {
             else
                 args = createArgsFromParentCircuitEmbedding(attributes);
 
+            if (shared)
+                return getShared(args);
+
             CircuitHolder ch = circuitMap.get(args);
             if (ch == null) {
                 ch = createResolvedCircuit(args);
@@ -85,12 +124,23 @@ public class ResolveGenerics {
         }
     }
 
+    private CircuitHolder getShared(Args args) throws NodeException, ElementNotFoundException {
+        SharedKey key = new SharedKey(circuit, args);
+        SoftReference<CircuitHolder> ref = SHARED_CACHE.get(key);
+        CircuitHolder ch = ref == null ? null : ref.get();
+        if (ch == null) {
+            ch = createResolvedCircuit(args);
+            SHARED_CACHE.put(key, new SoftReference<>(ch));
+        }
+        return ch;
+    }
+
     private Args createArgsFromParentCircuitEmbedding(ElementAttributes attributes) throws NodeException {
         Context context = (Context) attributes.getFromCache(GEN_ARGS_KEY);
         if (context == null) {
             String argsCode = attributes.get(Keys.GENERIC);
             try {
-                Statement s = getStatement(argsCode);
+                Statement s = Parser.parseCached(argsCode);
                 context = new Context(circuit.getOrigin());
                 s.execute(context);
             } catch (HGSEvalException | ParserException | IOException e) {
@@ -109,7 +159,7 @@ public class ResolveGenerics {
             throw new NodeException(Lang.get("err_multipleGenericInitCodes"));
         String argsCode = g.get(0).getElementAttributes().get(Keys.GENERIC);
         try {
-            getStatement(argsCode).execute(context);
+            Parser.parseCached(argsCode).execute(context);
         } catch (IOException | ParserException | HGSEvalException e) {
             throw new NodeException(Lang.get("err_inGenericInitCode"), e);
         }
@@ -156,7 +206,7 @@ public class ResolveGenerics {
                 ElementTypeDescription elementTypeDescription = library.getElementType(ve.getElementName(), elementAttributes);
 
                 boolean isCustom = elementTypeDescription instanceof ElementTypeDescriptionCustom;
-                Statement genS = getStatement(gen);
+                Statement genS = Parser.parseCached(gen);
                 Context mod = createContext(c, newComponents, newWires, args)
                         .declareVar(GLOBALS_KEY, globals)
                         .declareVar("args", args);
@@ -186,15 +236,6 @@ public class ResolveGenerics {
         }
     }
 
-    private Statement getStatement(String code) throws IOException, ParserException {
-        Statement genS = map.get(code);
-        if (genS == null) {
-            genS = new Parser(code).parse(false);
-            map.put(code, genS);
-        }
-        return genS;
-    }
-
     /**
      * Holds the args of a circuit.
      * Implements the access to the parents args values.
@@ -237,6 +278,33 @@ public class ResolveGenerics {
         }
     }
 
+    /**
+     * The key of the shared cache.
+     * The circuits are compared by identity.
+     */
+    private static final class SharedKey {
+        private final Circuit circuit;
+        private final Args args;
+
+        private SharedKey(Circuit circuit, Args args) {
+            this.circuit = circuit;
+            this.args = args;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SharedKey that = (SharedKey) o;
+            return circuit == that.circuit && args.equals(that.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(circuit) * 31 + args.hashCode();
+        }
+    }
+
     /**
      * Holds the circuit and the args that created that circuit.
      */
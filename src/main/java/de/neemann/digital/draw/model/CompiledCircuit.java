@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.model;
+
+import de.neemann.digital.core.Model;
+import de.neemann.digital.core.NodeException;
+import de.neemann.digital.core.element.Keys;
+import de.neemann.digital.core.element.PinDescription;
+import de.neemann.digital.core.memory.rom.ROMManger;
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.draw.elements.Pin;
+import de.neemann.digital.draw.elements.PinException;
+import de.neemann.digital.draw.library.ElementNotFoundException;
+import de.neemann.digital.draw.library.LibraryInterface;
+import de.neemann.digital.lang.Lang;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * A circuit which is prepared to create many models.
+ * The nested circuits are flattened, the generics are resolved and the nets are built only once
+ * by a {@link ModelCreator}. After that every call of {@link #instantiate()} creates new elements
+ * from the stored element types and attributes and connects them the same way.
+ * The models created are not connected to the GUI.
+ * <p>
+ * The instance is not modified by {@link #instantiate()}, so models can be created concurrently.
+ */
+public final class CompiledCircuit {
+    private final Circuit circuit;
+    private final ArrayList<ModelEntry> entries;
+    private final ArrayList<Net> nets;
+    // the pins of the nets, stored as pairs of entry index and pin index
+    private final ArrayList<int[]> netPins;
+    // input pins of removed elements like the pins of nested circuits which are not used inside
+    private final ArrayList<Pin> unusedInputs;
+
+    /**
+     * Creates a new instance
+     *
+     * @param circuit the circuit
+     * @param library the library
+     * @throws PinException             PinException
+     * @throws NodeException            NodeException
+     * @throws ElementNotFoundException ElementNotFoundException
+     */
+    public CompiledCircuit(Circuit circuit, LibraryInterface library) throws PinException, NodeException, ElementNotFoundException {
+        this(new ModelCreator(circuit, library));
+    }
+
+    /**
+     * Creates a new instance.
+     * The model creator can still be used to create a model.
+     *
+     * @param modelCreator the model creator which contains the flattened circuit
+     * @throws PinException if a net is driven by a pin which does not belong to an element
+     */
+    public CompiledCircuit(ModelCreator modelCreator) throws PinException {
+        circuit = modelCreator.getCircuit();
+        entries = new ArrayList<>();
+        IdentityHashMap<Pin, int[]> pinMap = new IdentityHashMap<>();
+        for (ModelEntry e : modelCreator) {
+            int pinIndex = 0;
+            for (Pin p : e.getPins())
+                pinMap.put(p, new int[]{entries.size(), pinIndex++});
+            entries.add(e);
+        }
+
+        nets = new ArrayList<>();
+        netPins = new ArrayList<>();
+        unusedInputs = new ArrayList<>();
+        for (Net n : modelCreator.getNetList()) {
+            ArrayList<Pin> pins = n.getPins();
+            int[] indices = new int[pins.size() * 2];
+            for (int i = 0; i < pins.size(); i++) {
+                final Pin p = pins.get(i);
+                int[] index = pinMap.get(p);
+                if (index == null) {
+                    if (p.getDirection() != PinDescription.Direction.input)
+                        throw new PinException(Lang.get("err_pin_N_notFound", p.getName()), n);
+                    index = new int[]{-1, unusedInputs.size()};
+                    unusedInputs.add(p);
+                }
+                indices[i * 2] = index[0];
+                indices[i * 2 + 1] = index[1];
+            }
+            nets.add(n);
+            netPins.add(indices);
+        }
+    }
+
+    /**
+     * Creates a new model.
+     *
+     * @return the model
+     * @throws PinException  PinException
+     * @throws NodeException NodeException
+     */
+    public Model instantiate() throws PinException, NodeException {
+        ArrayList<ModelEntry> newEntries = new ArrayList<>(entries.size());
+        ArrayList<ArrayList<Pin>> newPins = new ArrayList<>(entries.size());
+        for (ModelEntry e : entries) {
+            ModelEntry copy = e.createCopy();
+            newEntries.add(copy);
+            ArrayList<Pin> pins = new ArrayList<>();
+            for (Pin p : copy.getPins())
+                pins.add(p);
+            newPins.add(pins);
+        }
+
+        Model m = new Model()
+                .setRootPath(circuit.getOrigin())
+                .setOscillationDetectionCounter(circuit.getAttributes().get(Keys.OSCILLATION_DETECTION_COUNTER));
+
+        for (int i = 0; i < nets.size(); i++) {
+            int[] indices = netPins.get(i);
+            ArrayList<Pin> pins = new ArrayList<>(indices.length / 2);
+            for (int j = 0; j < indices.length; j += 2) {
+                if (indices[j] < 0) {
+                    Pin p = unusedInputs.get(indices[j + 1]);
+                    pins.add(new Pin(p.getPos(), p));
+                } else
+                    pins.add(newPins.get(indices[j]).get(indices[j + 1]));
+            }
+            new Net(nets.get(i), nets.get(i).getVisualElement(), pins).interconnect(m, false);
+        }
+
+        for (ModelEntry e : newEntries)
+            e.applyInputs();
+
+        for (ModelEntry e : newEntries)
+            e.getElement().registerNodes(m);
+
+        for (ModelEntry e : newEntries)
+            e.getElement().init(m);
+
+        ROMManger romManager = circuit.getAttributes().get(Keys.ROMMANAGER);
+        romManager.applyTo(m);
+
+        return m;
+    }
+
+    /**
+     * @return the circuit
+     */
+    public Circuit getCircuit() {
+        return circuit;
+    }
+}
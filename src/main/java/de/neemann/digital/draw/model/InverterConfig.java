@@ -9,8 +9,10 @@ import de.neemann.digital.core.NodeWithoutDelay;
 import de.neemann.digital.core.ObservableValue;
 import de.neemann.digital.hdl.hgs.HGSMap;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Manages the input inverting of a component
@@ -96,6 +98,15 @@ public final class InverterConfig implements HGSMap {
         return inputs != null ? inputs.hashCode() : 0;
     }
 
+    /**
+     * @return the names of the inverted inputs
+     */
+    public Set<String> getInputs() {
+        if (inputs == null)
+            return Collections.emptySet();
+        return Collections.unmodifiableSet(inputs);
+    }
+
     /**
      * @return the number of inverted inputs
      */
@@ -152,7 +152,7 @@ public class ModelCreator implements Iterable<ModelEntry> {
                 }
 
                 if (isNotAIO)
-                    entries.add(new ModelEntry(element, pins, ve, elementType.getInputDescription(ve.getElementAttributes()), isNestedCircuit, circuit.getOrigin(), cve));
+                    entries.add(new ModelEntry(element, pins, ve, elementType.getInputDescription(ve.getElementAttributes()), isNestedCircuit, circuit.getOrigin(), cve, elementType, attr));
 
                 for (Pin p : pins)
                     netList.add(p);
@@ -232,6 +232,22 @@ public class ModelCreator implements Iterable<ModelEntry> {
         }
     }
 
+    /**
+     * Creates a new instance of a nested circuit from its parts.
+     * Used by the {@link NestedCircuitTemplate}.
+     *
+     * @param circuit the nested circuit
+     * @param netList the net list of the instance
+     * @param entries the entries of the instance
+     * @param ioMap   the pins of the inputs and outputs of the instance
+     */
+    ModelCreator(Circuit circuit, NetList netList, ArrayList<ModelEntry> entries, HashMap<String, Pin> ioMap) {
+        this.circuit = circuit;
+        this.netList = netList;
+        this.entries = entries;
+        this.ioMap = ioMap;
+    }
+
     private void checkWiresForSplitterConnection(Circuit circuit) {
         HashSet<Vector> posSet = new HashSet<>();
         for (VisualElement e : circuit.getElements())
@@ -362,6 +378,20 @@ public class ModelCreator implements Iterable<ModelEntry> {
         return entry;
     }
 
+    /**
+     * @return the pins of the inputs and outputs of a nested circuit
+     */
+    HashMap<String, Pin> getIOMap() {
+        return ioMap;
+    }
+
+    /**
+     * @return the net list of the flattened circuit
+     */
+    NetList getNetList() {
+        return netList;
+    }
+
     /**
      * @return the circuit which was used to create this model description
      */
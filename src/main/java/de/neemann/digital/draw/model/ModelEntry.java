@@ -5,10 +5,13 @@
  */
 package de.neemann.digital.draw.model;
 
+import de.neemann.digital.core.Node;
 import de.neemann.digital.core.NodeException;
 import de.neemann.digital.core.ObservableValue;
 import de.neemann.digital.core.ObservableValues;
 import de.neemann.digital.core.element.Element;
+import de.neemann.digital.core.element.ElementAttributes;
+import de.neemann.digital.core.element.ElementTypeDescription;
 import de.neemann.digital.core.element.Keys;
 import de.neemann.digital.core.element.PinDescription;
 import de.neemann.digital.core.element.PinDescriptions;
@@ -33,8 +36,11 @@ public class ModelEntry {
     private final File origin;                           // Only used to create better error messages
     private final VisualElement containingVisualElement; // Only used to create better error messages
     private final VisualElement visualElement;
+    private final ElementTypeDescription elementType;
+    private final ElementAttributes elementAttributes;
     private IOState ioState;
 
+    //CHECKSTYLE.OFF: ParameterNumberCheck
     /**
      * Creates a new instance
      *
@@ -45,8 +51,10 @@ public class ModelEntry {
      * @param isNestedElement         true if this visual element is a nested included element
      * @param origin                  Used to create better error messages
      * @param containingVisualElement only used to create better error messages
+     * @param elementType             the type of the element
+     * @param elementAttributes       the attributes used to create the element
      */
-    public ModelEntry(Element element, Pins pins, VisualElement visualElement, PinDescriptions inputNames, boolean isNestedElement, File origin, VisualElement containingVisualElement) {
+    public ModelEntry(Element element, Pins pins, VisualElement visualElement, PinDescriptions inputNames, boolean isNestedElement, File origin, VisualElement containingVisualElement, ElementTypeDescription elementType, ElementAttributes elementAttributes) {
         this.element = element;
         this.pins = pins;
         this.visualElement = visualElement;
@@ -54,6 +62,48 @@ public class ModelEntry {
         this.isNestedElement = isNestedElement;
         this.origin = origin;
         this.containingVisualElement = containingVisualElement;
+        this.elementType = elementType;
+        this.elementAttributes = elementAttributes;
+    }
+    //CHECKSTYLE.ON: ParameterNumberCheck
+
+    /**
+     * Creates a new entry containing a new element and new pins.
+     * The outputs of the new element are bound to the new pins, but the pins are not
+     * connected to a net.
+     *
+     * @return the new entry
+     * @throws PinException PinException
+     */
+    ModelEntry createCopy() throws PinException {
+        return createCopy(elementAttributes, containingVisualElement);
+    }
+
+    /**
+     * Creates a new entry containing a new element and new pins.
+     * Used to create a new instance of a nested circuit.
+     *
+     * @param attributes              the attributes used to create the new element
+     * @param containingVisualElement the containing visual element of the new entry
+     * @return the new entry
+     * @throws PinException PinException
+     */
+    ModelEntry createCopy(ElementAttributes attributes, VisualElement containingVisualElement) throws PinException {
+        Element e = elementType.createElement(attributes);
+        if (e instanceof Node)
+            ((Node) e).setOrigin(origin);
+        Pins p = new Pins();
+        for (Pin pin : pins)
+            p.add(new Pin(pin.getPos(), pin).setVisualElement(visualElement));
+        p.bindOutputsToOutputPins(e.getOutputs());
+        return new ModelEntry(e, p, visualElement, inputNames, isNestedElement, origin, containingVisualElement, elementType, attributes);
+    }
+
+    /**
+     * @return the attributes used to create the element
+     */
+    ElementAttributes getElementAttributes() {
+        return elementAttributes;
     }
 
     /**
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.model;
+
+import de.neemann.digital.core.NodeException;
+import de.neemann.digital.core.element.ElementAttributes;
+import de.neemann.digital.core.element.Keys;
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.draw.elements.Pin;
+import de.neemann.digital.draw.elements.PinException;
+import de.neemann.digital.draw.elements.VisualElement;
+import de.neemann.digital.draw.library.ElementNotFoundException;
+import de.neemann.digital.draw.library.LibraryInterface;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The flattened structure of a nested circuit.
+ * The nested circuit is flattened once by a {@link ModelCreator}. The created elements, the
+ * pins and the nets are stored by their indices. After that, every instance of the nested
+ * circuit is created by {@link #createModelCreator(String, VisualElement)}, which only creates new
+ * elements and pins and connects them the same way, without looking up element types, creating
+ * shapes or building nets.
+ */
+public final class NestedCircuitTemplate {
+    // used as the name of the template, replaced by the name of the instance
+    private static final String NAME_MARKER = "\u0000";
+
+    private final Circuit circuit;
+    private final ArrayList<ModelEntry> entries;
+    private final ArrayList<Net> nets;
+    // the pins of the nets, stored as pairs of kind and index
+    private final ArrayList<int[]> netPins;
+    private final ArrayList<String> ioNames;
+    private final ArrayList<Pin> ioPins;
+    private final ArrayList<Pin> otherPins;
+
+    /**
+     * Creates a new template
+     *
+     * @param circuit            the nested circuit
+     * @param library            the library
+     * @param netList            the net list of the nested circuit, not modified
+     * @param depth              recursion depth, used to detect a circuit which contains itself
+     * @param errorVisualElement the visual element used to create error messages
+     * @throws PinException             PinException
+     * @throws NodeException            NodeException
+     * @throws ElementNotFoundException ElementNotFoundException
+     */
+    public NestedCircuitTemplate(Circuit circuit, LibraryInterface library, NetList netList, int depth, VisualElement errorVisualElement) throws PinException, NodeException, ElementNotFoundException {
+        this.circuit = circuit;
+        ModelCreator mc = new ModelCreator(circuit, library, true, new NetList(netList, errorVisualElement), NAME_MARKER, depth, errorVisualElement);
+
+        entries = new ArrayList<>();
+        IdentityHashMap<Pin, int[]> pinMap = new IdentityHashMap<>();
+        for (ModelEntry e : mc) {
+            int pinIndex = 0;
+            for (Pin p : e.getPins())
+                pinMap.put(p, new int[]{entries.size(), pinIndex++});
+            entries.add(e);
+        }
+
+        ioNames = new ArrayList<>();
+        ioPins = new ArrayList<>();
+        for (Map.Entry<String, Pin> e : mc.getIOMap().entrySet()) {
+            pinMap.put(e.getValue(), new int[]{-1, ioPins.size()});
+            ioNames.add(e.getKey());
+            ioPins.add(e.getValue());
+        }
+
+        nets = new ArrayList<>();
+        netPins = new ArrayList<>();
+        otherPins = new ArrayList<>();
+        for (Net n : mc.getNetList()) {
+            ArrayList<Pin> pins = n.getPins();
+            int[] indices = new int[pins.size() * 2];
+            for (int i = 0; i < pins.size(); i++) {
+                final Pin p = pins.get(i);
+                int[] index = pinMap.get(p);
+                if (index == null) {
+                    // pins of removed elements like the unused inputs of nested circuits
+                    index = new int[]{-2, otherPins.size()};
+                    otherPins.add(p);
+                    pinMap.put(p, index);
+                }
+                indices[i * 2] = index[0];
+                indices[i * 2 + 1] = index[1];
+            }
+            nets.add(n);
+            netPins.add(indices);
+        }
+    }
+
+    /**
+     * Creates a new instance of the nested circuit.
+     *
+     * @param subName                 name of the instance, used to name unique elements
+     * @param containingVisualElement the topmost containing visual element
+     * @return the model creator which contains the new instance
+     * @throws PinException PinException
+     */
+    public ModelCreator createModelCreator(String subName, VisualElement containingVisualElement) throws PinException {
+        ArrayList<ModelEntry> newEntries = new ArrayList<>(entries.size());
+        ArrayList<ArrayList<Pin>> newPins = new ArrayList<>(entries.size());
+        for (ModelEntry e : entries) {
+            ElementAttributes attr = e.getElementAttributes();
+            String label = attr.getLabel();
+            if (label.contains(NAME_MARKER)) {
+                attr = new ElementAttributes(attr);
+                attr.set(Keys.LABEL, replaceMarker(label, subName));
+            }
+            ModelEntry copy = e.createCopy(attr, containingVisualElement);
+            newEntries.add(copy);
+            ArrayList<Pin> pins = new ArrayList<>();
+            for (Pin p : copy.getPins())
+                pins.add(p);
+            newPins.add(pins);
+        }
+
+        ArrayList<Pin> newIOPins = copyPins(ioPins);
+        ArrayList<Pin> newOtherPins = copyPins(otherPins);
+        HashMap<String, Pin> ioMap = new HashMap<>();
+        for (int i = 0; i < ioNames.size(); i++)
+            ioMap.put(ioNames.get(i), newIOPins.get(i));
+
+        ArrayList<Net> newNets = new ArrayList<>(nets.size());
+        for (int i = 0; i < nets.size(); i++) {
+            int[] indices = netPins.get(i);
+            ArrayList<Pin> pins = new ArrayList<>(indices.length / 2);
+            for (int j = 0; j < indices.length; j += 2) {
+                final int index = indices[j + 1];
+                switch (indices[j]) {
+                    case -1:
+                        pins.add(newIOPins.get(index));
+                        break;
+                    case -2:
+                        pins.add(newOtherPins.get(index));
+                        break;
+                    default:
+                        pins.add(newPins.get(indices[j]).get(index));
+                }
+            }
+            newNets.add(new Net(nets.get(i), containingVisualElement, pins));
+        }
+
+        return new ModelCreator(circuit, new NetList(newNets), newEntries, ioMap);
+    }
+
+    private static ArrayList<Pin> copyPins(ArrayList<Pin> pins) {
+        ArrayList<Pin> copy = new ArrayList<>(pins.size());
+        for (Pin p : pins)
+            copy.add(new Pin(p.getPos(), p));
+        return copy;
+    }
+
+    /*
+     * The marker is the beginning of the name of the template. It is followed by
+     * a minus if the names of inner circuits are appended.
+     */
+    private static String replaceMarker(String label, String subName) {
+        if (subName.isEmpty())
+            return label.replace(NAME_MARKER + "-", "").replace(NAME_MARKER, "");
+        else
+            return label.replace(NAME_MARKER, subName);
+    }
+}
@@ -54,51 +54,42 @@ public class Net {
     }
 
     /**
-     * Creates a net containing a single wire
+     * Creates a copy of the given net containing the given pins.
+     * The points are shared with the given net, the labels are copied because
+     * they are modified if nets are merged.
      *
-     * @param w the wire
+     * @param toCopy        the net to copy
+     * @param visualElement the containing visual element, only used to create better error messages
+     * @param pins          the pins of the new net
      */
-    public Net(Wire w) {
-        points = new HashSet<>();
-        points.add(w.p1);
-        points.add(w.p2);
-        pins = new ArrayList<>();
-        wires = new ArrayList<>();
-        wires.add(w);
-        labelSet = new HashSet<>();
+    Net(Net toCopy, VisualElement visualElement, ArrayList<Pin> pins) {
+        points = toCopy.points;
+        this.visualElement = visualElement;
+        wires = null;
+        this.pins = pins;
+        labelSet = new HashSet<>(toCopy.labelSet);
+        origin = toCopy.origin;
     }
 
     /**
-     * Creates a single point net
+     * Creates an empty net.
+     * The points and wires are added by the {@link NetList}.
      *
-     * @param v the vector containing the points coordinates
+     * @param withWires true if the net contains wires
      */
-    public Net(Vector v) {
+    Net(boolean withWires) {
         points = new HashSet<>();
-        points.add(v);
         pins = new ArrayList<>();
-        wires = null;
+        wires = withWires ? new ArrayList<>() : null;
         labelSet = new HashSet<>();
     }
 
-    /**
-     * Tries to add the given wire to this net
-     *
-     * @param wire the wire
-     * @return true if the given wire is connected to one of the old wires.
-     */
-    public Vector tryMerge(Wire wire) {
-        if (points.contains(wire.p1)) {
-            wires.add(wire);
-            points.add(wire.p2);
-            return wire.p2;
-        }
-        if (points.contains(wire.p2)) {
-            wires.add(wire);
-            points.add(wire.p1);
-            return wire.p1;
-        }
-        return null;
+    void addPoint(Vector p) {
+        points.add(p);
+    }
+
+    void addWire(Wire w) {
+        wires.add(w);
     }
 
     /**
@@ -116,18 +107,6 @@ public class Net {
             set.put(p, this);
     }
 
-    /**
-     * Add all wires of the given net to this net
-     *
-     * @param changedNet the net to add
-     */
-    void addAllPointsFrom(Net changedNet) {
-        points.addAll(changedNet.points);
-        if (wires != null && changedNet.wires != null)
-            wires.addAll(changedNet.wires);
-        labelSet.addAll(changedNet.labelSet);
-    }
-
     /**
      * Add a pin to this net
      *
@@ -11,6 +11,7 @@ import de.neemann.digital.draw.graphics.Vector;
 import de.neemann.digital.lang.Lang;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,98 +26,70 @@ public class NetList implements Iterable<Net> {
     private HashMap<Pin, Net> pinMap;
 
     /**
-     * Creates a net list from the given circuit
+     * Creates a net list from the given circuit.
+     * All wire end points are numbered and connected points are joined using a
+     * union find structure, so the time required grows linear with the number of wires.
      *
      * @param circuit the circuit
      * @throws PinException PinException
      */
     public NetList(Circuit circuit) throws PinException {
         netList = new ArrayList<>();
+        PointUnion union = new PointUnion();
         for (Wire w : circuit.getWires())
-            add(w);
-
+            union.union(union.getId(w.p1), union.getId(w.p2));
+        final int wirePoints = union.size();
 
         // handles a direct pin overlap by adding a single point net
         HashSet<Vector> allPinPositions = new HashSet<>();
-        HashSet<Vector> directConnection = new HashSet<>();
         for (VisualElement ve : circuit.getElements())
             for (Pin p : ve.getPins()) {
                 Vector v = p.getPos();
-                if (allPinPositions.contains(v))
-                    directConnection.add(v);
-                else
-                    allPinPositions.add(v);
-            }
-
-        HashMap<Vector, Net> allNetPositions = getAllNetPositions();
-        for (Vector v : directConnection)
-            if (!allNetPositions.containsKey(v)) {
-                Net net = new Net(v);
-                netList.add(net);
-                allNetPositions.put(v, net);
+                if (!allPinPositions.add(v))
+                    union.getId(v);
             }
 
-
-        boolean hasLabel = false;
+        HashMap<String, Integer> labelMap = new HashMap<>();
+        ArrayList<Integer> labelIds = new ArrayList<>();
+        ArrayList<String> labels = new ArrayList<>();
         for (VisualElement ve : circuit.getElements())
             if (ve.equalsDescription(Tunnel.DESCRIPTION)) {
                 String label = ve.getElementAttributes().get(Keys.NETNAME).trim();
                 if (!label.isEmpty()) {
-                    Net found = allNetPositions.get(ve.getPos());
-                    if (found == null) {
+                    Integer id = union.getIdOrNull(ve.getPos());
+                    if (id == null) {
                         final PinException e = new PinException(Lang.get("err_labelNotConnectedToNet_N", label), ve);
                         e.setOrigin(circuit.getOrigin());
                         throw e;
                     }
 
-                    found.addLabel(label);
-                    hasLabel = true;
+                    Integer present = labelMap.putIfAbsent(label, id);
+                    if (present != null)
+                        union.union(present, id);
+                    labelIds.add(id);
+                    labels.add(label);
                 }
             }
 
-        if (hasLabel)
-            mergeLabels();
-
-        for (Net n : netList)
-            n.setOrigin(circuit.getOrigin());
-    }
-
-    private void mergeLabels() {
-        ArrayList<Net> oldNetList = new ArrayList<>(netList);
-        netList.clear();
-
-        HashMap<String, Net> map = new HashMap<>();
-        for (Net n : oldNetList) {
-            HashSet<String> labels = n.getLabels();
-            switch (labels.size()) {
-                case 0:
-                    netList.add(n);
-                    break;
-                case 1:
-                    String label = labels.iterator().next();
-                    Net net = map.get(label);
-                    if (net == null) {
-                        netList.add(n);
-                        map.put(label, n);
-                    } else {
-                        net.addAllPointsFrom(n);
-                        for (String l : n.getLabels())
-                            map.put(l, net);
-                    }
-                    break;
-                default:
-                    for (String la : new ArrayList<>(labels)) {
-                        net = map.get(la);
-                        if (net != null) {
-                            n.addAllPointsFrom(net);
-                            netList.remove(net);
-                        }
-                    }
-                    netList.add(n);
-                    for (String l : n.getLabels())
-                        map.put(l, n);
+        HashMap<Integer, Net> nets = new HashMap<>();
+        posMap = new HashMap<>();
+        for (int id = 0; id < union.size(); id++) {
+            int root = union.find(id);
+            Net net = nets.get(root);
+            if (net == null) {
+                net = new Net(root < wirePoints);
+                net.setOrigin(circuit.getOrigin());
+                nets.put(root, net);
+                netList.add(net);
             }
+            Vector p = union.getPoint(id);
+            net.addPoint(p);
+            posMap.put(p, net);
         }
+        for (Wire w : circuit.getWires())
+            posMap.get(w.p1).addWire(w);
+        for (int i = 0; i < labels.size(); i++)
+            nets.get(union.find(labelIds.get(i))).addLabel(labels.get(i));
     }
 
     /**
@@ -131,6 +104,15 @@ public class NetList implements Iterable<Net> {
             netList.add(new Net(net, visualElement));
     }
 
+    /**
+     * Creates a net list containing the given nets
+     *
+     * @param nets the nets
+     */
+    NetList(ArrayList<Net> nets) {
+        netList = nets;
+    }
+
     /**
      * Adds a complete net list to this net list.
      * Used during custom component connection.
@@ -158,29 +140,6 @@ public class NetList implements Iterable<Net> {
             net.add(pin);
     }
 
-    private void add(Wire w) {
-        for (Net net : netList) {
-            Vector added = net.tryMerge(w);
-            if (added != null) {
-                netChanged(net, added);
-                return;
-            }
-        }
-        netList.add(new Net(w));
-    }
-
-    private void netChanged(Net changedNet, Vector added) {
-        for (Net n : netList) {
-            if (n != changedNet) {
-                if (n.contains(added)) {
-                    n.addAllPointsFrom(changedNet);
-                    netList.remove(changedNet);
-                    return;
-                }
-            }
-        }
-    }
-
     /**
      * @return the number of nets in this net list
      */
@@ -217,6 +176,8 @@ public class NetList implements Iterable<Net> {
      * @return the net
      */
     public Net getNetOfPos(Vector pos) {
+        if (posMap != null)
+            return posMap.get(pos);
         for (Net n : netList)
             if (n.contains(pos))
                 return n;
@@ -242,4 +203,58 @@ public class NetList implements Iterable<Net> {
             if (pinMap.get(p) == childNet)
                 pinMap.remove(p);
     }
+
+    /**
+     * Union find structure used to join the connected points
+     */
+    private static final class PointUnion {
+        private final HashMap<Vector, Integer> ids = new HashMap<>();
+        private final ArrayList<Vector> points = new ArrayList<>();
+        private int[] parent = new int[16];
+
+        private int getId(Vector v) {
+            Integer id = ids.get(v);
+            if (id == null) {
+                id = points.size();
+                ids.put(v, id);
+                points.add(v);
+                if (id == parent.length)
+                    parent = Arrays.copyOf(parent, id * 2);
+                parent[id] = id;
+            }
+            return id;
+        }
+
+        private Integer getIdOrNull(Vector v) {
+            return ids.get(v);
+        }
+
+        private Vector getPoint(int id) {
+            return points.get(id);
+        }
+
+        private int size() {
+            return points.size();
+        }
+
+        private int find(int id) {
+            while (parent[id] != id) {
+                parent[id] = parent[parent[id]];
+                id = parent[id];
+            }
+            return id;
+        }
+
+        /*
+         * The smaller id becomes the root, so the root of a set is always its first point
+         */
+        private void union(int a, int b) {
+            a = find(a);
+            b = find(b);
+            if (a < b)
+                parent[b] = a;
+            else if (b < a)
+                parent[a] = b;
+        }
+    }
 }
@@ -26,6 +26,7 @@ import de.neemann.digital.draw.library.ElementLibrary;
 import de.neemann.digital.draw.library.ElementNotFoundException;
 import de.neemann.digital.draw.library.ElementTypeDescriptionCustom;
 import de.neemann.digital.draw.model.AsyncSequentialClock;
+import de.neemann.digital.draw.model.CompiledCircuit;
 import de.neemann.digital.draw.model.ModelCreator;
 import de.neemann.digital.draw.model.RealTimeClock;
 import de.neemann.digital.draw.shapes.Drawable;
@@ -1238,11 +1239,14 @@ public final class Main extends JFrame implements ClosingWindowListener.ConfirmS
             @Override
             public void actionPerformed(ActionEvent e) {
                 try {
-                    Model model = new ModelCreator(circuitComponent.getCircuit(), new SubstituteLibrary(library)).createModel(false);
+                    final CompiledCircuit compiled = new CompiledCircuit(circuitComponent.getCircuit(), new SubstituteLibrary(library));
+                    Model model = compiled.instantiate();
                     try {
                         model.checkForInvalidSignals();
                         new TableDialog(Main.this,
-                                new ModelAnalyser(model).analyse(),
+                                new ModelAnalyser(model)
+                                        .setParallel(compiled::instantiate, Runtime.getRuntime().availableProcessors())
+                                        .analyse(),
                                 library,
                                 getBaseFileName())
                                 .setVisible(true);
@@ -1418,6 +1422,7 @@ public final class Main extends JFrame implements ClosingWindowListener.ConfirmS
             long time = System.currentTimeMillis();
             modelCreator = new ModelCreator(circuitComponent.getCircuit(), library);
             model = modelCreator.createModel(true);
+            model.setParallelThreshold(Settings.getInstance().get(Keys.SETTINGS_PARALLEL_THRESHOLD));
 
             time = System.currentTimeMillis() - time;
             LOGGER.debug("model creation: " + time + " ms, " + model.getNodes().size() + " nodes");
@@ -1454,7 +1459,7 @@ public final class Main extends JFrame implements ClosingWindowListener.ConfirmS
                                 new AsyncSequentialClock(model, ai, timerExecutor));
                         realTimeClockRunning = true;
                     }
-                    model.setAsyncMode();
+                    model.setAsyncMode().setEventDriven(true);
                 }
             }
 
@@ -1625,6 +1630,7 @@ public final class Main extends JFrame implements ClosingWindowListener.ConfirmS
                     SwingUtilities.invokeLater(new ErrorMessage(library.getWarningMessage().toString()).setComponent(this));
             }
             Circuit circuit = Circuit.loadCircuit(filename, shapeFactory);
+            library.preload(circuit);
             circuitComponent.setCircuit(circuit);
 
             // requests the circuit modified state, so place it behind circuitComponent.setCircuit(circuit);
@@ -105,6 +105,18 @@ public class ScopeTrigger extends Node implements Element {
         lastClock = clock;
     }
 
+    @Override
+    public Object saveState() {
+        return new boolean[]{lastClock, wasTrigger};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        boolean[] s = (boolean[]) state;
+        lastClock = s[0];
+        wasTrigger = s[1];
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
     }
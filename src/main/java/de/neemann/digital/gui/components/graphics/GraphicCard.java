@@ -139,6 +139,22 @@ public class GraphicCard extends Node implements Element, RAMInterface {
         lastClk = clk;
     }
 
+    @Override
+    public Object saveState() {
+        return new Object[]{memory.createSnapshot(), lastClk, addr, lastBank};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        memory.restoreSnapshot((DataField) s[0]);
+        lastClk = (Boolean) s[1];
+        addr = (Integer) s[2];
+        lastBank = (Boolean) s[3];
+        if (graphicDialog != null)
+            updateGraphic(lastBank);
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         if (ld) {
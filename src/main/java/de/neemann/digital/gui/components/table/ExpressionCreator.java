@@ -29,8 +29,9 @@ import java.util.concurrent.TimeUnit;
  */
 public class ExpressionCreator {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExpressionCreator.class);
-    private static final int MAX_INPUTS_ALLOWED = 12;
+    private static final int MAX_INPUTS_ALLOWED = 20;
     private static final int COMPLEX_VAR_SIZE = 8;
+    private static final int HEURISTIC_VAR_SIZE = 12;
 
     private final TruthTable theTable;
     private ProgressListener progressListener;
@@ -125,9 +126,10 @@ public class ExpressionCreator {
     private MinimizerInterface getMinimizer(int size) {
         if (size <= 4)
             return new MinimizerQuineMcCluskeyExam();
-        else {
+        else if (size <= HEURISTIC_VAR_SIZE)
             return new MinimizerQuineMcCluskey();
-        }
+        else
+            return new MinimizerEspresso();
     }
 
     /**
@@ -19,6 +19,7 @@ import de.neemann.digital.analyse.format.TruthTableFormatter;
 import de.neemann.digital.analyse.format.TruthTableFormatterCSV;
 import de.neemann.digital.analyse.format.TruthTableFormatterHex;
 import de.neemann.digital.analyse.format.TruthTableFormatterTestCase;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
 import de.neemann.digital.builder.ATF150x.ATFDevice;
 import de.neemann.digital.builder.ExpressionToFileExporter;
@@ -808,7 +809,7 @@ public class TableDialog extends JDialog {
             int i = n - 1;
             int rows = 1 << n;
             for (Variable v : vars) {
-                BoolTableByteArray val = new BoolTableByteArray(rows);
+                BoolTableBitSet val = new BoolTableBitSet(rows);
                 for (int n = 0; n < rows; n++)
                     val.set(n, ((n + 1) >> i) & 1);
                 truthTable.addResult(addOne(v.getIdentifier()), val);
@@ -838,7 +839,7 @@ public class TableDialog extends JDialog {
             int i = n - 1;
             int rows = 1 << (n + 1);
             for (int vi = 1; vi < vars.size(); vi++) {
-                BoolTableByteArray val = new BoolTableByteArray(rows);
+                BoolTableBitSet val = new BoolTableBitSet(rows);
                 for (int n = 0; n < rows; n++) {
                     if (n >= rows / 2)
                         val.set(n, ((n - 1) >> i) & 1);
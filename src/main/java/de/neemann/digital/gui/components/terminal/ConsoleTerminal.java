@@ -34,4 +34,10 @@ public class ConsoleTerminal implements TerminalInterface {
     public String getText() {
         return text.toString();
     }
+
+    @Override
+    public void setText(String text) {
+        this.text.setLength(0);
+        this.text.append(text);
+    }
 }
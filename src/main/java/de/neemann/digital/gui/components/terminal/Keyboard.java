@@ -77,6 +77,20 @@ public class Keyboard extends Node implements Element {
         lastClock = nowClock;
     }
 
+    @Override
+    public Object saveState() {
+        String text = keyboardInterface == null ? null : keyboardInterface.getText();
+        return new Object[]{lastClock, text};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        lastClock = (Boolean) s[0];
+        if (keyboardInterface != null && s[1] != null)
+            keyboardInterface.setText((String) s[1]);
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
         if (keyboardInterface != null) {
@@ -124,5 +138,17 @@ public class Keyboard extends Node implements Element {
          */
         void deleteFirstChar();
 
+        /**
+         * @return the characters which are not yet read
+         */
+        String getText();
+
+        /**
+         * Sets the characters which are not yet read
+         *
+         * @param text the characters
+         */
+        void setText(String text);
+
     }
 }
@@ -80,4 +80,19 @@ public class KeyboardDialog extends JDialog implements Keyboard.KeyboardInterfac
             }
         }
     }
+
+    @Override
+    public String getText() {
+        synchronized (textLock) {
+            return text;
+        }
+    }
+
+    @Override
+    public void setText(String text) {
+        synchronized (textLock) {
+            this.text = text;
+        }
+        SwingUtilities.invokeLater(() -> textLabel.setText(text));
+    }
 }
@@ -81,6 +81,20 @@ public class Terminal extends Node implements Element {
         lastClock = clockVal;
     }
 
+    @Override
+    public Object saveState() {
+        String text = terminal == null ? null : terminal.getText();
+        return new Object[]{lastClock, text};
+    }
+
+    @Override
+    public void restoreState(Object state) {
+        Object[] s = (Object[]) state;
+        lastClock = (Boolean) s[0];
+        if (terminal != null)
+            terminal.setText(s[1] == null ? "" : (String) s[1]);
+    }
+
     @Override
     public void writeOutputs() throws NodeException {
     }
@@ -116,6 +116,18 @@ public final class TerminalDialog extends JDialog {
         }
     }
 
+    /**
+     * Replaces the text of the terminal dialog
+     *
+     * @param text the text
+     */
+    private void setText(String text) {
+        textArea.setText("");
+        pos = 0;
+        for (int i = 0; i < text.length(); i++)
+            addChar(text.charAt(i));
+    }
+
     private static final class MyTerminal implements TerminalInterface {
         private final Model model;
         private final ElementAttributes attr;
@@ -145,5 +157,15 @@ public final class TerminalDialog extends JDialog {
         public String getText() {
             return text.toString();
         }
+
+        @Override
+        public void setText(String text) {
+            this.text.setLength(0);
+            this.text.append(text);
+            SwingUtilities.invokeLater(() -> SwingUtilities.invokeLater(() -> {
+                if (terminalDialog != null && terminalDialog.isVisible())
+                    terminalDialog.setText(text);
+            }));
+        }
     }
 }
@@ -21,4 +21,12 @@ public interface TerminalInterface {
      * @return the text shown
      */
     String getText();
+
+    /**
+     * Replaces the text shown.
+     * Used to restore a snapshot of the model.
+     *
+     * @param text the text
+     */
+    void setText(String text);
 }
@@ -188,7 +188,7 @@ public class ValueTableDialog extends JDialog {
                 int r = table.getSelectedRow();
                 if (r >= 0 && r < vtm.getRowCount() && valueTableHolder.testCaseDescription != null) {
                     TestRow row = vtm.getRow(r);
-                    int testRow = row.getRow();
+                    long testRow = row.getRow();
                     if (owner instanceof Main && testRow >= 0) {
                         Main main = (Main) owner;
                         main.startSimulation(m -> new TestExecutor("", valueTableHolder.testCaseDescription, m).executeTo(testRow));
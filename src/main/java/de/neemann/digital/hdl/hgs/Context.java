@@ -62,7 +62,8 @@ public class Context implements HGSMap {
 
     private final Context parent;
     private final StringBuilder code;
-    private final HashMap<String, Object> map;
+    // created lazily, most contexts created by loops never declare a variable
+    private HashMap<String, Object> map;
     private File rootPath;
     private boolean loggingEnabled = true;
 
@@ -97,7 +98,6 @@ public class Context implements HGSMap {
             this.code = new StringBuilder();
         else
             this.code = null;
-        map = new HashMap<>();
     }
 
     /**
@@ -107,7 +107,7 @@ public class Context implements HGSMap {
      * @return true if value is present
      */
     public boolean contains(String name) {
-        if (map.containsKey(name))
+        if (map != null && map.containsKey(name))
             return true;
         else {
             if (parent != null)
@@ -143,18 +143,43 @@ public class Context implements HGSMap {
      * @throws HGSEvalException HGSEvalException
      */
     public Object getVar(String name) throws HGSEvalException {
-        Object v = map.get(name);
-        if (v == null) {
-            if (parent == null) {
-                InnerFunction builtIn = BUILT_IN.get(name);
-                if (builtIn != null)
-                    return builtIn;
-
-                throw new HGSEvalException("Variable not found: " + name);
-            } else
-                return parent.getVar(name);
-        } else
-            return v;
+        return getVar(name, BUILT_IN.get(name));
+    }
+
+    /**
+     * Get a variable.
+     * Used by a reference which has already resolved the built-in function while parsing.
+     *
+     * @param name    the name
+     * @param builtIn the built-in function returned if the variable is not found, maybe null
+     * @return the value
+     * @throws HGSEvalException HGSEvalException
+     */
+    public Object getVar(String name, InnerFunction builtIn) throws HGSEvalException {
+        Context c = this;
+        do {
+            if (c.map != null) {
+                Object v = c.map.get(name);
+                if (v != null)
+                    return v;
+            }
+            c = c.parent;
+        } while (c != null);
+
+        if (builtIn != null)
+            return builtIn;
+
+        throw new HGSEvalException("Variable not found: " + name);
+    }
+
+    /**
+     * Returns the built-in function with the given name
+     *
+     * @param name the name
+     * @return the function or null if there is no such built-in function
+     */
+    public static InnerFunction getBuiltIn(String name) {
+        return BUILT_IN.get(name);
     }
 
     /**
@@ -166,7 +191,7 @@ public class Context implements HGSMap {
      * @throws HGSEvalException HGSEvalException
      */
     public void setVar(String name, Object val) throws HGSEvalException {
-        Object v = map.get(name);
+        Object v = map == null ? null : map.get(name);
         if (v != null) {
             if (v.getClass().isAssignableFrom(val.getClass()))
                 map.put(name, val);
@@ -208,7 +233,9 @@ public class Context implements HGSMap {
      * @throws HGSEvalException HGSEvalException
      */
     public Context declareVar(String name, Object value) throws HGSEvalException {
-        if (map.containsKey(name))
+        if (map == null)
+            map = new HashMap<>();
+        else if (map.containsKey(name))
             throw new HGSEvalException("Variable '" + name + "' already declared!");
         map.put(name, value);
         return this;
@@ -254,7 +281,7 @@ public class Context implements HGSMap {
      */
     public String toStringKeys() {
         StringBuilder sb = new StringBuilder();
-        for (Map.Entry<String, Object> k : map.entrySet()) {
+        for (Map.Entry<String, Object> k : getMap().entrySet()) {
             sb.append(k.getKey()).append(":");
             Object val = k.getValue();
             if (val instanceof Context)
@@ -332,6 +359,8 @@ public class Context implements HGSMap {
 
     @Override
     public Object hgsMapGet(String key) {
+        if (map == null)
+            return null;
         return map.get(key);
     }
 
@@ -339,7 +368,13 @@ public class Context implements HGSMap {
      * @return the set of all contained values
      */
     public HashSet<String> getKeySet() {
-        return new HashSet<>(map.keySet());
+        return new HashSet<>(getMap().keySet());
+    }
+
+    private Map<String, Object> getMap() {
+        if (map == null)
+            return Collections.emptyMap();
+        return map;
     }
 
     private static final class FunctionPrint extends InnerFunction {
@@ -721,12 +756,12 @@ public class Context implements HGSMap {
         if (o == null || getClass() != o.getClass()) return false;
         Context context = (Context) o;
         return Objects.equals(parent, context.parent)
-                && map.equals(context.map);
+                && getMap().equals(context.getMap());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(parent, map);
+        return Objects.hash(parent, getMap());
     }
 
 }
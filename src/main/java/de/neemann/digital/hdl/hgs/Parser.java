@@ -14,7 +14,9 @@ import de.neemann.digital.testing.parser.OperatorPrecedence;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static de.neemann.digital.hdl.hgs.Tokenizer.Token.*;
@@ -23,6 +25,33 @@ import static de.neemann.digital.hdl.hgs.Tokenizer.Token.*;
  * Parser to evaluate text templates
  */
 public class Parser {
+    private static final int CACHE_SIZE = 1000;
+    private static final Map<String, Statement> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, Statement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Statement> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * Parses the given code, which is not a template.
+     * The statements are cached, so the same code is parsed only once.
+     * This is possible because a parsed statement does not hold any state.
+     *
+     * @param code the code to parse
+     * @return the statement
+     * @throws IOException     IOException
+     * @throws ParserException ParserException
+     */
+    public static Statement parseCached(String code) throws IOException, ParserException {
+        Statement s = CACHE.get(code);
+        if (s == null) {
+            s = new Parser(code).parse(false);
+            CACHE.put(code, s);
+        }
+        return s;
+    }
 
     /**
      * Creates a statement from the jar file using ClassLoader.getSystemResourceAsStream(path).
@@ -63,6 +92,8 @@ public class Parser {
 
     private ArrayList<Reference> refRead;
     private final Tokenizer tok;
+    // true if a variable is declared in the context of the statement parsed
+    private boolean declares;
 
     /**
      * Create a new instance
@@ -173,6 +204,8 @@ public class Parser {
                 switch (refToken) {
                     case COLON:
                         expect(EQUAL);
+                        if (!export)
+                            declares = true;
                         final Expression initVal = parseExpression();
                         if (isRealStatement) expect(SEMICOLON);
                         if (export)
@@ -227,9 +260,17 @@ public class Parser {
                 expect(OPEN);
                 final Expression ifCond = toBool(parseExpression());
                 expect(CLOSE);
+                boolean outer = enterContext();
                 final Statement ifStatement = parseStatement();
                 if (nextIs(ELSE)) {
                     final Statement elseStatement = parseStatement();
+                    if (!leaveContext(outer))
+                        return c -> {
+                            if ((boolean) ifCond.value(c))
+                                ifStatement.execute(c);
+                            else
+                                elseStatement.execute(c);
+                        };
                     return c -> {
                         Context iC = new Context(c, false);
                         if ((boolean) ifCond.value(iC))
@@ -237,12 +278,18 @@ public class Parser {
                         else
                             elseStatement.execute(iC);
                     };
-                } else
+                } else {
+                    if (!leaveContext(outer))
+                        return c -> {
+                            if ((boolean) ifCond.value(c))
+                                ifStatement.execute(c);
+                        };
                     return c -> {
                         Context iC = new Context(c, false);
                         if ((boolean) ifCond.value(iC))
                             ifStatement.execute(iC);
                     };
+                }
             case FOR:
                 expect(OPEN);
                 Statement init = parseStatement(false); // parse like an expression
@@ -251,12 +298,14 @@ public class Parser {
                 expect(SEMICOLON);
                 Statement inc = parseStatement(false); // parse like an expression
                 expect(CLOSE);
+                outer = enterContext();
                 Statement inner = parseStatement();
+                final boolean innerContext = leaveContext(outer);
                 return c -> {
                     Context iC = new Context(c, false);
                     init.execute(iC);
                     while ((boolean) forCond.value(iC)) {
-                        inner.execute(new Context(iC, false));
+                        inner.execute(innerContext ? new Context(iC, false) : iC);
                         inc.execute(iC);
                     }
                 };
@@ -264,18 +313,22 @@ public class Parser {
                 expect(OPEN);
                 final Expression whileCond = toBool(parseExpression());
                 expect(CLOSE);
-                inner = parseStatement();
+                outer = enterContext();
+                final Statement whileInner = parseStatement();
+                final boolean whileContext = leaveContext(outer);
                 return c -> {
-                    Context iC = new Context(c, false);
-                    while ((boolean) whileCond.value(iC)) inner.execute(iC);
+                    Context iC = whileContext ? new Context(c, false) : c;
+                    while ((boolean) whileCond.value(iC)) whileInner.execute(iC);
                 };
             case REPEAT:
+                outer = enterContext();
                 final Statement repeatInner = parseStatement();
+                final boolean repeatContext = leaveContext(outer);
                 expect(UNTIL);
                 final Expression repeatCond = toBool(parseExpression());
                 if (isRealStatement) expect(SEMICOLON);
                 return c -> {
-                    Context iC = new Context(c, false);
+                    Context iC = repeatContext ? new Context(c, false) : c;
                     do {
                         repeatInner.execute(iC);
                     } while (!(boolean) repeatCond.value(iC));
@@ -293,12 +346,35 @@ public class Parser {
                 expect(IDENT);
                 String funcName = tok.getIdent();
                 FirstClassFunction funcDecl = parseFunction();
+                declares = true;
                 return lino(c -> c.declareVar(funcName, new FirstClassFunctionCall(funcDecl, c)));
             default:
                 throw newUnexpectedToken(token);
         }
     }
 
+    /*
+     * Is called if a statement is parsed which is executed in a new context.
+     * Returns the state of the enclosing context.
+     */
+    private boolean enterContext() {
+        boolean outer = declares;
+        declares = false;
+        return outer;
+    }
+
+    /*
+     * Is called after a statement executed in a new context is parsed.
+     * Returns true if the statement declares variables, which means
+     * the new context is required. If not, the statement can be
+     * executed in the enclosing context.
+     */
+    private boolean leaveContext(boolean outer) {
+        boolean needsContext = declares;
+        declares = outer;
+        return needsContext;
+    }
+
     private Expression toBool(Expression expression) {
         return linoE(c -> Value.toBool(expression.value(c)));
     }
@@ -509,7 +585,10 @@ public class Parser {
                 args.add(tok.getIdent());
             }
         }
+        // the function body is executed in a new context created by the call
+        boolean outer = enterContext();
         Statement st = parseStatement();
+        leaveContext(outer);
         return new FirstClassFunction(args, st);
     }
 
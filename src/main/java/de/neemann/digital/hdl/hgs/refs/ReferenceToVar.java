@@ -7,12 +7,14 @@ package de.neemann.digital.hdl.hgs.refs;
 
 import de.neemann.digital.hdl.hgs.Context;
 import de.neemann.digital.hdl.hgs.HGSEvalException;
+import de.neemann.digital.hdl.hgs.function.InnerFunction;
 
 /**
  * Handles the access to a simple variable
  */
 public class ReferenceToVar implements Reference {
     private final String name;
+    private final InnerFunction builtIn;
 
     /**
      * Creates a new variable access
@@ -21,6 +23,7 @@ public class ReferenceToVar implements Reference {
      */
     public ReferenceToVar(String name) {
         this.name = name;
+        builtIn = Context.getBuiltIn(name);
     }
 
     @Override
@@ -40,7 +43,7 @@ public class ReferenceToVar implements Reference {
 
     @Override
     public Object get(Context context) throws HGSEvalException {
-        return context.getVar(name);
+        return context.getVar(name, builtIn);
     }
 
     /**
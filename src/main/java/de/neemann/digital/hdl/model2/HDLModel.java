@@ -68,7 +68,7 @@ public class HDLModel implements Iterable<HDLCircuit> {
 
                 final Circuit circuit = tdc.getCircuit();
                 if (circuit.getAttributes().get(Keys.IS_GENERIC)) {
-                    ResolveGenerics.CircuitHolder holder = new ResolveGenerics(circuit, elementLibrary).resolveCircuit(v.getElementAttributes());
+                    ResolveGenerics.CircuitHolder holder = new ResolveGenerics(circuit, elementLibrary, true).resolveCircuit(v.getElementAttributes());
 
                     GenericsCache cache = genericInstanceNumbers.computeIfAbsent(v.getElementName(), t -> new GenericsCache());
 
@@ -21,12 +21,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * Runs all tests in al circuits in a folder
+ * Runs all tests in al circuits in a folder.
+ * The files and the test cases are executed concurrently on a {@link ForkJoinPool}.
+ * The message of a file is build in the order of its test cases, so it does not depend
+ * on the number of threads used.
  */
 public class FolderTestRunner {
     private final ArrayList<FileToTest> files;
+    private int threads = Runtime.getRuntime().availableProcessors();
     private Thread thread;
 
     /**
@@ -51,16 +57,29 @@ public class FolderTestRunner {
         }
     }
 
+    /**
+     * Sets the number of threads used to run the tests.
+     * Defaults to the number of available processors.
+     *
+     * @param threads the number of threads
+     * @return this for chained calls
+     */
+    public FolderTestRunner setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
     /**
      * Starts all the tests.
      * The test execution is done in a new thread, so this method returns immediately.
+     * The listener is called from the threads executing the tests.
      *
      * @param fileChangedListener the listsener to notify if a file status changed
      * @param shapeFactory        the shape factory
      * @param library             the element library
      */
     public void startTests(FileChangedListener fileChangedListener, ShapeFactory shapeFactory, ElementLibrary library) {
-        thread = new Thread(new TestRunner(files, fileChangedListener, shapeFactory, library));
+        thread = new Thread(new TestRunner(files, fileChangedListener, shapeFactory, library, threads));
         thread.setDaemon(true);
         thread.start();
     }
@@ -110,9 +129,10 @@ public class FolderTestRunner {
 
         private final File file;
         private final String name;
-        private String message = "-";
-        private FileToTest.Status status = FileToTest.Status.unknown;
-        private int rowCount;
+        // written by the worker threads and read by the event dispatch thread
+        private volatile String message = "-";
+        private volatile FileToTest.Status status = FileToTest.Status.unknown;
+        private volatile long rowCount;
 
 
         private FileToTest(int rootLength, File file) {
@@ -153,14 +173,14 @@ public class FolderTestRunner {
             return file;
         }
 
-        private void setTestRows(int rowCount) {
+        private void setTestRows(long rowCount) {
             this.rowCount = rowCount;
         }
 
         /**
          * @return the number of test case rows
          */
-        public int getRowCount() {
+        public long getRowCount() {
             return rowCount;
         }
     }
@@ -170,47 +190,87 @@ public class FolderTestRunner {
         private final FileChangedListener fileChangedListener;
         private final ShapeFactory shapeFactory;
         private final ElementLibrary library;
+        private final int threads;
 
-        private TestRunner(ArrayList<FileToTest> files, FileChangedListener fileChangedListener, ShapeFactory shapeFactory, ElementLibrary library) {
+        private TestRunner(ArrayList<FileToTest> files, FileChangedListener fileChangedListener, ShapeFactory shapeFactory, ElementLibrary library, int threads) {
             this.files = files;
             this.fileChangedListener = fileChangedListener;
             this.shapeFactory = shapeFactory;
             this.library = library;
+            this.threads = threads;
         }
 
         @Override
         public void run() {
-            for (int i = 0; i < files.size(); i++) {
-                FileToTest f = files.get(i);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ArrayList<FileTask> tasks = new ArrayList<>(files.size());
+                for (int i = 0; i < files.size(); i++)
+                    tasks.add(new FileTask(files.get(i), i));
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        private void setMessage(FileToTest f, int i, String message, FileToTest.Status status) {
+            f.setMessage(message, status);
+            fileChangedListener.messageChanged(f, i);
+        }
+
+        private final class FileTask extends RecursiveAction {
+            private final FileToTest f;
+            private final int i;
+
+            private FileTask(FileToTest f, int i) {
+                this.f = f;
+                this.i = i;
+            }
+
+            @Override
+            protected void compute() {
                 try {
-                    Circuit circuit = Circuit.loadCircuit(f.file, shapeFactory);
+                    Circuit circuit;
+                    // the library and the shape factory are shared, so loading is done by one thread at a time
+                    synchronized (library) {
+                        circuit = Circuit.loadCircuit(f.file, shapeFactory);
+                    }
                     List<Circuit.TestCase> testCases = circuit.getTestCases();
                     if (testCases.isEmpty()) {
                         // if no test data is available, at least check if the model is error free
                         try {
-                            new ModelCreator(circuit, library).createModel(false);
+                            synchronized (library) {
+                                new ModelCreator(circuit, library).createModel(false);
+                            }
                             // if error free, issue a no test date message
                             setMessage(f, i, Lang.get("err_noTestData"), FileToTest.Status.unknown);
                         } catch (Exception e) {
                             setMessage(f, i, Lang.get("msg_errorCreatingModel"), FileToTest.Status.error);
                         }
                     } else {
+                        ArrayList<TestCaseTask> tasks = new ArrayList<>(testCases.size());
+                        for (Circuit.TestCase tc : testCases)
+                            tasks.add(new TestCaseTask(tc, circuit));
+                        invokeAll(tasks);
+
                         StringBuilder sb = new StringBuilder();
-                        int rowCount = 0;
-                        for (Circuit.TestCase tc : testCases) {
-                            try {
-                                TestResult tr = new TestExecutor(tc, circuit, library).execute();
-                                if (tr.allPassed()) {
-                                    rowCount += tr.getRowsTested();
-                                } else {
-                                    if (sb.length() > 0)
-                                        sb.append("; ");
-                                    sb.append(Lang.get("msg_test_N_Failed", tc.getLabel()));
-                                }
-                            } catch (TestingDataException | NodeException e) {
+                        long rowCount = 0;
+                        for (TestCaseTask t : tasks) {
+                            if (t.error != null) {
+                                setMessage(f, i, t.error.getMessage(), FileToTest.Status.error);
+                                return;
+                            }
+                            if (t.message == null) {
+                                rowCount += t.rowsTested;
+                            } else {
                                 if (sb.length() > 0)
                                     sb.append("; ");
-                                sb.append(tc.getLabel()).append(": ").append(e.getMessage());
+                                sb.append(t.message);
                             }
                         }
                         if (sb.length() == 0) {
@@ -220,15 +280,43 @@ public class FolderTestRunner {
                             setMessage(f, i, sb.toString(), FileToTest.Status.failed);
                     }
 
-                } catch (IOException | ElementNotFoundException | PinException | ParserException | RuntimeException e) {
+                } catch (IOException | RuntimeException e) {
                     setMessage(f, i, e.getMessage(), FileToTest.Status.error);
                 }
             }
         }
 
-        private void setMessage(FileToTest f, int i, String message, FileToTest.Status status) {
-            f.setMessage(message, status);
-            fileChangedListener.messageChanged(f, i);
+        private final class TestCaseTask extends RecursiveAction {
+            private final Circuit.TestCase tc;
+            private final Circuit circuit;
+            private long rowsTested;
+            private String message;
+            private Exception error;
+
+            private TestCaseTask(Circuit.TestCase tc, Circuit circuit) {
+                this.tc = tc;
+                this.circuit = circuit;
+            }
+
+            @Override
+            protected void compute() {
+                try {
+                    TestExecutor te;
+                    synchronized (library) {
+                        te = new TestExecutor(tc, circuit, library);
+                    }
+                    // only the summary is needed, so no rows are stored
+                    TestResult tr = te.executeStreaming(0);
+                    if (tr.allPassed())
+                        rowsTested = tr.getRowsTested();
+                    else
+                        message = Lang.get("msg_test_N_Failed", tc.getLabel());
+                } catch (TestingDataException | NodeException e) {
+                    message = tc.getLabel() + ": " + e.getMessage();
+                } catch (ElementNotFoundException | PinException | ParserException | RuntimeException e) {
+                    error = e;
+                }
+            }
         }
     }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.testing;
+
+import de.neemann.digital.core.Model;
+import de.neemann.digital.core.ObservableValue;
+import de.neemann.digital.core.basic.BitSlicedEvaluator;
+import de.neemann.digital.data.Value;
+import de.neemann.digital.testing.parser.LineListener;
+import de.neemann.digital.testing.parser.TestRow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Executes the rows of a test case bit sliced.
+ * Up to 64 consecutive rows are collected and evaluated in a single pass by a {@link BitSlicedEvaluator}.
+ * This is only possible if all inputs and outputs are one bit values and the circuit
+ * consists of one bit basic gates only which are all needed to calculate the outputs.
+ * Such a circuit has no state.
+ * Rows which can not be evaluated this way, like rows containing a clock or a high z value,
+ * are passed to the {@link TestResult} which executes them on the model.
+ */
+final class LineListenerBitSliced implements LineListener {
+    private final TestExecutor testExecutor;
+    private final TestResult parent;
+    private final BitSlicedEvaluator evaluator;
+    private final ArrayList<TestExecutor.TestSignal> inputs;
+    private final ArrayList<TestExecutor.TestSignal> outputs;
+    private final TestRow[] rows;
+    private final long[] in;
+    private final long[] out;
+    private int count;
+    private TestRow notApplied;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testExecutor the test executor
+     * @param model        the model used by the test executor
+     * @param parent       the test result to add the results to
+     * @return the listener or null if the model can not be evaluated bit sliced
+     */
+    static LineListenerBitSliced create(TestExecutor testExecutor, Model model, TestResult parent) {
+        ArrayList<TestExecutor.TestSignal> inputs = new ArrayList<>();
+        ArrayList<ObservableValue> inValues = new ArrayList<>();
+        for (TestExecutor.TestSignal s : testExecutor.getInputs())
+            if (s.getValue() != null) {
+                if (s.getValue().getBits() != 1)
+                    return null;
+                inputs.add(s);
+                inValues.add(s.getValue());
+            }
+
+        ArrayList<ObservableValue> outValues = new ArrayList<>();
+        for (TestExecutor.TestSignal s : testExecutor.getOutputs()) {
+            if (s.getValue().getBits() != 1)
+                return null;
+            outValues.add(s.getValue());
+        }
+
+        // all nodes need to be evaluated, otherwise errors like a short circuit in an unused
+        // part of the circuit would not be detected
+        BitSlicedEvaluator evaluator = BitSlicedEvaluator.create(model.getNodes(), inValues, outValues);
+        if (evaluator == null || evaluator.getGateCount() != model.getNodes().size())
+            return null;
+
+        return new LineListenerBitSliced(testExecutor, parent, evaluator, inputs);
+    }
+
+    private LineListenerBitSliced(TestExecutor testExecutor, TestResult parent, BitSlicedEvaluator evaluator, ArrayList<TestExecutor.TestSignal> inputs) {
+        this.testExecutor = testExecutor;
+        this.parent = parent;
+        this.evaluator = evaluator;
+        this.inputs = inputs;
+        outputs = testExecutor.getOutputs();
+        rows = new TestRow[BitSlicedEvaluator.SLICE];
+        in = new long[inputs.size()];
+        out = new long[outputs.size()];
+    }
+
+    @Override
+    public void add(TestRow testRow) {
+        Value[] values = testRow.getValues();
+        for (TestExecutor.TestSignal s : inputs)
+            if (values[s.getIndex()].getType() != Value.Type.NORMAL) {
+                evaluate();
+                notApplied = null;
+                parent.add(testRow);
+                return;
+            }
+
+        // the values array is reused by the line emitters, so a copy is stored
+        rows[count++] = new TestRow(values.clone(), testRow.getDescription());
+        if (count == rows.length)
+            evaluate();
+    }
+
+    /**
+     * Evaluates the collected rows and applies the last row to the model.
+     * Needs to be called before the model is accessed.
+     */
+    void flush() {
+        evaluate();
+        if (notApplied != null) {
+            Value[] values = notApplied.getValues();
+            testExecutor.advanceModel(notApplied, values, new Value[values.length], parent);
+            notApplied = null;
+        }
+    }
+
+    /**
+     * Evaluates the collected rows and adds them to the test result.
+     * The model is not modified.
+     */
+    void evaluate() {
+        if (count == 0)
+            return;
+
+        Arrays.fill(in, 0);
+        for (int r = 0; r < count; r++) {
+            Value[] values = rows[r].getValues();
+            for (int i = 0; i < in.length; i++)
+                if ((values[inputs.get(i).getIndex()].getValue() & 1) != 0)
+                    in[i] |= 1L << r;
+        }
+
+        evaluator.evaluate(in, out);
+
+        for (int r = 0; r < count; r++) {
+            Value[] values = rows[r].getValues();
+            Value[] res = new Value[values.length];
+            for (TestExecutor.TestSignal s : testExecutor.getInputs())
+                res[s.getIndex()] = values[s.getIndex()];
+            for (int o = 0; o < out.length; o++) {
+                final int index = outputs.get(o).getIndex();
+                res[index] = new MatchedValue(values[index], new Value((out[o] >>> r) & 1), 1);
+            }
+            parent.addResult(rows[r], res);
+        }
+        notApplied = rows[count - 1];
+        Arrays.fill(rows, 0, count, null);
+        count = 0;
+    }
+}
@@ -16,7 +16,7 @@ import java.util.ArrayList;
  * The test data.
  */
 public class TestCaseDescription {
-    private final String dataString;
+    private String dataString;
     private transient LineEmitter lines;
     private transient ArrayList<String> names;
     private transient ArrayList<VirtualSignal> virtualSignals;
@@ -44,6 +44,19 @@ public class TestCaseDescription {
         parseDataString();
     }
 
+    /**
+     * Creates a new instance without parsing the data.
+     * The data is parsed if it is needed the first time.
+     *
+     * @param data the test case description
+     * @return the new instance
+     */
+    public static TestCaseDescription createUnparsed(String data) {
+        TestCaseDescription tcd = new TestCaseDescription();
+        tcd.dataString = data;
+        return tcd;
+    }
+
     /**
      * creates a new instance
      *
@@ -163,9 +163,10 @@ public class TestExecutor {
      * @throws ParserException      ParserException
      * @throws TestingDataException TestingDataException
      */
-    public void executeTo(int row) throws ParserException, TestingDataException {
+    public void executeTo(long row) throws ParserException, TestingDataException {
+        context.setMaxLoops(LineEmitterRepeat.MAX_LOOPS);
         execute(new TestResultListener() {
-            private int r = row;
+            private long r = row;
 
             @Override
             public void add(TestRow testRow) {
@@ -186,14 +187,42 @@ public class TestExecutor {
     }
 
     /**
-     * Creates the result by comparing the testing vector with the given model
+     * Creates the result by comparing the testing vector with the given model.
+     * In contrast to {@link #execute()} the rows are not stored. Only the given number of failed rows
+     * is kept together with some rows executed before them, so the memory used does not depend
+     * on the number of rows executed.
+     *
+     * @param maxFailedRows the number of failed rows to keep
+     * @return the result of the test execution
+     * @throws ParserException      ParserException
+     * @throws TestingDataException TestingDataException
+     */
+    public TestResult executeStreaming(int maxFailedRows) throws ParserException, TestingDataException {
+        return execute(new TestResult(this, maxFailedRows));
+    }
+
+    /**
+     * Creates the result by comparing the testing vector with the given model.
+     * If the circuit is made of one bit basic gates only, up to 64 rows are evaluated at once.
      *
      * @return the result of the test execution
      * @throws ParserException      ParserException
      * @throws TestingDataException TestingDataException
      */
     public TestResult execute() throws ParserException, TestingDataException {
-        return execute(new TestResult(this), true);
+        return execute(new TestResult(this));
+    }
+
+    private TestResult execute(TestResult result) throws ParserException, TestingDataException {
+        // only in streaming mode the memory used does not depend on the number of rows
+        context.setMaxLoops(result.isStreaming() ? LineEmitterRepeat.MAX_LOOPS_STREAMING : LineEmitterRepeat.MAX_LOOPS);
+        LineListenerBitSliced bitSliced = LineListenerBitSliced.create(this, model, result);
+        if (bitSliced == null)
+            return execute(result, true);
+
+        context.setBeforeModelRead(bitSliced::flush);
+        execute(bitSliced, true);
+        return result;
     }
 
     /**
@@ -206,6 +235,8 @@ public class TestExecutor {
     private <LL extends LineListener> LL execute(LL lineListener, boolean closeModel) throws ParserException, TestingDataException {
         try {
             lines.emitLines(new LineListenerResolveDontCare(lineListener, inputs), context);
+            if (lineListener instanceof LineListenerBitSliced)
+                ((LineListenerBitSliced) lineListener).evaluate();
             return lineListener;
         } catch (RuntimeException re) {
             errorOccurred = true;
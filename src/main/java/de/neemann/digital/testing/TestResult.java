@@ -9,6 +9,8 @@ import de.neemann.digital.data.Value;
 import de.neemann.digital.data.ValueTable;
 import de.neemann.digital.testing.parser.TestRow;
 
+import java.util.ArrayDeque;
+
 /**
  * The test result created by the test executor
  */
@@ -16,13 +18,18 @@ public class TestResult implements TestResultListener {
     private static final int MAX_RESULTS = 1 << 10;
     private static final int ERR_RESULTS = MAX_RESULTS * 2;
 
+    private static final int CONTEXT_ROWS = 8;
+
     private final TestExecutor testExecutor;
     private final ValueTable results;
-    private int passedCount;
-    private int failedCount;
+    private final int maxFailedRows;
+    private final ArrayDeque<ContextRow> context;
+    private long passedCount;
+    private long failedCount;
     private boolean toManyResults;
     private int visibleRows;
-    private int rowCount;
+    private long rowCount;
+    private int failedRowsKept;
 
     /**
      * Creates a new instance
@@ -30,8 +37,27 @@ public class TestResult implements TestResultListener {
      * @param testExecutor the test executor that created tis instance
      */
     TestResult(TestExecutor testExecutor) {
+        this(testExecutor, -1);
+    }
+
+    /**
+     * Creates a new instance.
+     * If maxFailedRows is not negative, the streaming mode is used: The passed and failed rows are
+     * only counted, and the value table only contains the first failed rows, each together
+     * with the rows executed right before it. So the memory used does not depend on the
+     * number of rows executed.
+     *
+     * @param testExecutor  the test executor that created tis instance
+     * @param maxFailedRows the number of failed rows to keep in streaming mode, -1 if all rows are kept
+     */
+    TestResult(TestExecutor testExecutor, int maxFailedRows) {
         this.testExecutor = testExecutor;
+        this.maxFailedRows = maxFailedRows;
         results = new ValueTable(testExecutor.getNames());
+        if (maxFailedRows >= 0)
+            context = new ArrayDeque<>(CONTEXT_ROWS);
+        else
+            context = null;
     }
 
     @Override
@@ -41,20 +67,33 @@ public class TestResult implements TestResultListener {
 
         testExecutor.advanceModel(testRow, values, res, this);
 
+        for (TestExecutor.TestSignal out : testExecutor.getOutputs())
+            res[out.getIndex()] = new MatchedValue(values[out.getIndex()], out.getValue());
+
+        addResult(testRow, res);
+    }
+
+    /**
+     * Adds the result of a test row.
+     * The outputs in the result need to be {@link MatchedValue} instances.
+     *
+     * @param testRow the test row
+     * @param res     the result of the test row
+     */
+    void addResult(TestRow testRow, Value[] res) {
         boolean ok = true;
-        for (TestExecutor.TestSignal out : testExecutor.getOutputs()) {
-            MatchedValue matchedValue = new MatchedValue(values[out.getIndex()], out.getValue());
-            res[out.getIndex()] = matchedValue;
-            if (!matchedValue.isPassed())
+        for (TestExecutor.TestSignal out : testExecutor.getOutputs())
+            if (!((MatchedValue) res[out.getIndex()]).isPassed())
                 ok = false;
-        }
 
         if (ok)
             passedCount++;
         else
             failedCount++;
 
-        if (visibleRows < (ok ? MAX_RESULTS : ERR_RESULTS)) {
+        if (context != null)
+            addStreaming(res, testRow.getDescription(), ok);
+        else if (visibleRows < (ok ? MAX_RESULTS : ERR_RESULTS)) {
             visibleRows++;
             results.add(new TestRow(res, testRow.getDescription()).setRow(rowCount));
         } else
@@ -62,19 +101,61 @@ public class TestResult implements TestResultListener {
         rowCount++;
     }
 
+    private void addStreaming(Value[] res, String description, boolean ok) {
+        if (failedRowsKept >= maxFailedRows) {
+            if (!ok)
+                toManyResults = true;
+            return;
+        }
+
+        TestRow row = new TestRow(res, description).setRow(rowCount);
+        if (ok)
+            addToContext(row, false);
+        else {
+            failedRowsKept++;
+            for (ContextRow c : context) {
+                results.add(c.row);
+                if (c.clockRow)
+                    results.omitInTable();
+            }
+            context.clear();
+            results.add(row);
+        }
+    }
+
+    private void addToContext(TestRow row, boolean clockRow) {
+        if (context.size() == CONTEXT_ROWS)
+            context.removeFirst();
+        context.addLast(new ContextRow(row, clockRow));
+    }
+
     @Override
     public void addClockRow(String description) {
-        if (visibleRows < ERR_RESULTS) {
-            Value[] r = new Value[testExecutor.getNames().size()];
-            for (TestExecutor.TestSignal out : testExecutor.getOutputs())
-                r[out.getIndex()] = new Value(out.getValue());
-            for (TestExecutor.TestSignal in : testExecutor.getInputs())
-                r[in.getIndex()] = new Value(in.getValue());
-            results.add(new TestRow(r, description)).omitInTable();
-        } else
+        if (context != null) {
+            if (failedRowsKept < maxFailedRows)
+                addToContext(createClockRow(description), true);
+        } else if (visibleRows < ERR_RESULTS)
+            results.add(createClockRow(description)).omitInTable();
+        else
             toManyResults = true;
     }
 
+    private TestRow createClockRow(String description) {
+        Value[] r = new Value[testExecutor.getNames().size()];
+        for (TestExecutor.TestSignal out : testExecutor.getOutputs())
+            r[out.getIndex()] = new Value(out.getValue());
+        for (TestExecutor.TestSignal in : testExecutor.getInputs())
+            r[in.getIndex()] = new Value(in.getValue());
+        return new TestRow(r, description);
+    }
+
+
+    /**
+     * @return true if only the first failed rows are kept
+     */
+    boolean isStreaming() {
+        return context != null;
+    }
 
     /**
      * @return true if all tests have passed
@@ -86,6 +167,7 @@ public class TestResult implements TestResultListener {
     /**
      * Indicates if there are to many entries in the table to show.
      * If there are to many entries, the test results is still correct.
+     * In streaming mode this is only the case if failed rows are missing.
      *
      * @return true if there are missing items in the results list.
      */
@@ -106,7 +188,7 @@ public class TestResult implements TestResultListener {
     public int failedPercent() {
         if (passedCount == 0)
             return 100;
-        int p = 100 * failedCount / passedCount;
+        int p = (int) (100L * failedCount / passedCount);
         if (p == 0 && failedCount > 0)
             p = 1;
         return p;
@@ -115,7 +197,7 @@ public class TestResult implements TestResultListener {
     /**
      * @return the number of rows tested (passed+failed)
      */
-    public int getRowsTested() {
+    public long getRowsTested() {
         return passedCount + failedCount;
     }
 
@@ -126,4 +208,13 @@ public class TestResult implements TestResultListener {
         return results;
     }
 
+    private static final class ContextRow {
+        private final TestRow row;
+        private final boolean clockRow;
+
+        private ContextRow(TestRow row, boolean clockRow) {
+            this.row = row;
+            this.clockRow = clockRow;
+        }
+    }
 }
@@ -44,6 +44,7 @@ public class UnitTester {
         initLibrary(library);
         ShapeFactory shapeFactory = new ShapeFactory(library);
         Circuit circuit = Circuit.loadCircuit(file, shapeFactory);
+        library.preload(circuit);
         model = new ModelCreator(circuit, library).createModel(false);
     }
 
@@ -6,19 +6,31 @@
 package de.neemann.digital.testing.parser;
 
 import de.neemann.digital.core.Model;
+import de.neemann.digital.core.ObservableValue;
 import de.neemann.digital.core.Signal;
 import de.neemann.digital.lang.Lang;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * The context of the calculations.
+ * <p>
+ * The variables are stored in slots. A context created for a loop of a parsed test
+ * has a fixed layout of slots, one for every variable declared in the loop, which allows the
+ * {@link Parser} to resolve the variable references to slot indices while parsing.
+ * All other variables are appended to the slots when set.
  */
 public class Context {
+    private static final String[] EMPTY = new String[0];
+
     private final Context parent;
-    private HashMap<String, Long> map;
+    private final String[] layout;
+    private String[] names;
+    private long[] values;
+    private boolean[] defined;
     private Model model;
+    private Runnable beforeModelRead;
+    private long maxLoops;
 
     /**
      * Creates an empty context
@@ -33,7 +45,22 @@ public class Context {
      * @param parent the parents context
      */
     public Context(Context parent) {
+        this(parent, EMPTY);
+    }
+
+    /**
+     * Creates a context with the given layout.
+     * All slots are undefined.
+     *
+     * @param parent the parents context
+     * @param layout the names of the slots
+     */
+    Context(Context parent, String[] layout) {
         this.parent = parent;
+        this.layout = layout;
+        names = layout;
+        values = new long[layout.length];
+        defined = new boolean[layout.length];
     }
 
     /**
@@ -44,20 +71,64 @@ public class Context {
      * @throws ParserException if the variable does not exist
      */
     public long getVar(String name) throws ParserException {
-        if (map == null || !map.containsKey(name)) {
-            if (parent == null) {
-                if (model != null) {
-                    // inputs are not supported because there are cases where values
-                    // are evaluated and model inputs are not set!
-                    for (Signal s : model.getTestOutputs())
-                        if (s.getName().equals(name))
-                            return s.getValue().getValue();
-                }
-                throw new ParserException(Lang.get("err_variable_N0_notFound", name));
-            }
-            return parent.getVar(name);
-        } else
-            return map.get(name);
+        return getVar(name, null);
+    }
+
+    /**
+     * Returns the value of a variable.
+     * If the variable is a signal of the model, the given reference is used to cache the signal.
+     *
+     * @param name      the name of the variable
+     * @param reference the reference used to cache the signal, maybe null
+     * @return the value
+     * @throws ParserException if the variable does not exist
+     */
+    long getVar(String name, VariableReference reference) throws ParserException {
+        Context c = this;
+        while (true) {
+            final int i = c.indexOf(name);
+            if (i >= 0 && c.defined[i])
+                return c.values[i];
+            if (c.parent == null)
+                break;
+            c = c.parent;
+        }
+
+        if (c.model != null) {
+            if (c.beforeModelRead != null)
+                c.beforeModelRead.run();
+            // inputs are not supported because there are cases where values
+            // are evaluated and model inputs are not set!
+            final ObservableValue value;
+            if (reference == null)
+                value = getTestOutput(c.model, name);
+            else
+                value = reference.getTestOutput(c.model);
+            if (value != null)
+                return value.getValue();
+        }
+        throw new ParserException(Lang.get("err_variable_N0_notFound", name));
+    }
+
+    /**
+     * Returns the test output of the model with the given name
+     *
+     * @param model the model
+     * @param name  the name
+     * @return the value of the output or null if there is no such output
+     */
+    static ObservableValue getTestOutput(Model model, String name) {
+        for (Signal s : model.getTestOutputs())
+            if (s.getName().equals(name))
+                return s.getValue();
+        return null;
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < names.length; i++)
+            if (names[i].equals(name))
+                return i;
+        return -1;
     }
 
     /**
@@ -68,17 +139,66 @@ public class Context {
      * @return this for chained calls
      */
     public Context setVar(String varName, long value) {
-        if (map == null)
-            map = new HashMap<>();
-        map.put(varName, value);
+        int i = indexOf(varName);
+        if (i < 0) {
+            i = names.length;
+            names = Arrays.copyOf(names, i + 1);
+            values = Arrays.copyOf(values, i + 1);
+            defined = Arrays.copyOf(defined, i + 1);
+            names[i] = varName;
+        }
+        values[i] = value;
+        defined[i] = true;
         return this;
     }
 
+    /**
+     * @return the layout this context was created with
+     */
+    String[] getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return the parent context, null if there is none
+     */
+    Context getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns true if the slot with the given index is defined
+     *
+     * @param index the index of the slot
+     * @return true if the slot is defined
+     */
+    boolean isDefined(int index) {
+        return defined[index];
+    }
+
+    /**
+     * Returns the value of the slot with the given index
+     *
+     * @param index the index of the slot
+     * @return the value
+     */
+    long getSlot(int index) {
+        return values[index];
+    }
+
+    /**
+     * Sets the value of the slot with the given index
+     *
+     * @param index the index of the slot
+     * @param value the value
+     */
+    void setSlot(int index, long value) {
+        values[index] = value;
+        defined[index] = true;
+    }
+
     @Override
     public String toString() {
-        if (map == null && parent == null)
-            return "";
-
         StringBuilder sb = new StringBuilder();
         fillString(sb);
         return sb.toString();
@@ -87,11 +207,11 @@ public class Context {
     private void fillString(StringBuilder sb) {
         if (parent != null)
             parent.fillString(sb);
-        if (map != null)
-            for (Map.Entry<String, Long> e : map.entrySet()) {
+        for (int i = 0; i < names.length; i++)
+            if (defined[i]) {
                 if (sb.length() > 0)
                     sb.append(";");
-                sb.append(e.getKey()).append("=").append(e.getValue());
+                sb.append(names[i]).append("=").append(values[i]);
             }
     }
 
@@ -105,4 +225,41 @@ public class Context {
         this.model = model;
         return this;
     }
+
+    /**
+     * Sets a runnable which is called before a value is read from the model.
+     * Used if the rows are not applied to the model one by one.
+     *
+     * @param beforeModelRead the runnable to call
+     * @return this for chained calls
+     */
+    public Context setBeforeModelRead(Runnable beforeModelRead) {
+        this.beforeModelRead = beforeModelRead;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of iterations of a loop.
+     * If not set, {@link LineEmitterRepeat#MAX_LOOPS} is used.
+     *
+     * @param maxLoops the maximum number of iterations
+     * @return this for chained calls
+     */
+    public Context setMaxLoops(long maxLoops) {
+        this.maxLoops = maxLoops;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of iterations of a loop
+     */
+    long getMaxLoops() {
+        Context c = this;
+        while (c != null) {
+            if (c.maxLoops > 0)
+                return c.maxLoops;
+            c = c.parent;
+        }
+        return LineEmitterRepeat.MAX_LOOPS;
+    }
 }
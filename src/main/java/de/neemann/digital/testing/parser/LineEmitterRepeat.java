@@ -11,9 +11,16 @@ import de.neemann.digital.lang.Lang;
  * Repeats some inner table rows.
  */
 public class LineEmitterRepeat implements LineEmitter {
-    private static final long MAX_LOOPS = 1L << 24;
+    /**
+     * The maximum number of iterations if all rows are kept
+     */
+    public static final long MAX_LOOPS = 1L << 24;
+    /**
+     * The maximum number of iterations if the rows are only counted
+     */
+    public static final long MAX_LOOPS_STREAMING = 1L << 30;
 
-    private final String name;
+    private final String[] layout;
     private final int size;
     private final LineEmitter inner;
 
@@ -26,19 +33,35 @@ public class LineEmitterRepeat implements LineEmitter {
      * @throws ParserException if there are to many iterations
      */
     public LineEmitterRepeat(String name, long size, LineEmitter inner) throws ParserException {
-        this.name = name;
+        this(new String[]{name}, size, inner);
+    }
+
+    /**
+     * Creates a new loop.
+     * The loop variable is stored in the first slot of the layout.
+     *
+     * @param layout the layout of the context used by the loop
+     * @param size   number of iterations
+     * @param inner  the lines to repeat
+     * @throws ParserException if there are to many iterations
+     */
+    LineEmitterRepeat(String[] layout, long size, LineEmitter inner) throws ParserException {
+        this.layout = layout;
         this.size = (int) size;
         this.inner = inner;
 
-        if (size > MAX_LOOPS)
+        if (size > MAX_LOOPS_STREAMING)
             throw new ParserException(Lang.get("err_toManyIterations"));
     }
 
     @Override
     public void emitLines(LineListener listener, Context context) throws ParserException {
-        Context c = new Context(context);
+        if (size > context.getMaxLoops())
+            throw new ParserException(Lang.get("err_toManyIterations"));
+
+        Context c = new Context(context, layout);
         for (int i = 0; i < size; i++) {
-            c.setVar(name, i);
+            c.setSlot(0, i);
             inner.emitLines(listener, c);
         }
     }
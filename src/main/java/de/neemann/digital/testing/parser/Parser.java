@@ -38,7 +38,9 @@ public class Parser {
     private final Tokenizer tok;
     private final HashMap<String, Function> functions = new HashMap<>();
     private final Random random;
+    private final ArrayList<VariableReference> references = new ArrayList<>();
     private LineEmitter emitter;
+    private Scope scope;
 
     /**
      * Creates a new instance
@@ -67,6 +69,9 @@ public class Parser {
         parseHeader();
         emitter = parseRows(null);
         expect(Tokenizer.Token.EOF);
+        for (VariableReference r : references)
+            r.link();
+        references.clear();
         return this;
     }
 
@@ -149,7 +154,8 @@ public class Parser {
                     expect(Tokenizer.Token.IDENT);
                     final String sigName = tok.getIdent();
                     expect(Tokenizer.Token.EQUAL);
-                    final Expression sigExpression = parseExpression();
+                    // virtual signals are evaluated outside of the loops
+                    final Expression sigExpression = parseUnscopedExpression();
                     expect(Tokenizer.Token.SEMICOLON);
                     addVirtualSignal(new VirtualSignal(sigName, sigExpression));
                     break;
@@ -164,14 +170,16 @@ public class Parser {
                     expect(Tokenizer.Token.EQUAL);
                     final Expression intValue = parseExpression();
                     expect(Tokenizer.Token.SEMICOLON);
-                    list.add((listener, context) -> context.setVar(varName, intValue.value(context)));
+                    list.add(createLet(varName, intValue));
                     break;
                 case REPEAT:
                     tok.consume();
                     expect(Tokenizer.Token.OPEN);
                     long count = parseInt();
                     expect(Tokenizer.Token.CLOSE);
-                    list.add(new LineEmitterRepeat("n", count, parseSingleRow()));
+                    scope = new Scope(scope, "n");
+                    LineEmitter row = parseSingleRow();
+                    list.add(new LineEmitterRepeat(closeScope(), count, row));
                     break;
                 case LOOP:
                     tok.consume();
@@ -181,7 +189,9 @@ public class Parser {
                     expect(Tokenizer.Token.COMMA);
                     count = parseInt();
                     expect(Tokenizer.Token.CLOSE);
-                    list.add(new LineEmitterRepeat(var, count, parseRows(Tokenizer.Token.LOOP)));
+                    scope = new Scope(scope, var);
+                    LineEmitter rows = parseRows(Tokenizer.Token.LOOP);
+                    list.add(new LineEmitterRepeat(closeScope(), count, rows));
                     break;
                 case WHILE:
                     tok.consume();
@@ -196,6 +206,27 @@ public class Parser {
         }
     }
 
+    private LineEmitter createLet(String varName, Expression intValue) {
+        if (scope == null)
+            return (listener, context) -> context.setVar(varName, intValue.value(context));
+
+        final Scope letScope = scope;
+        final int index = letScope.declare(varName);
+        return (listener, context) -> {
+            final long value = intValue.value(context);
+            if (context.getLayout() == letScope.getLayout())
+                context.setSlot(index, value);
+            else
+                context.setVar(varName, value);
+        };
+    }
+
+    private String[] closeScope() {
+        String[] layout = scope.close();
+        scope = scope.getParent();
+        return layout;
+    }
+
     private DataField parseData() throws IOException, ParserException {
         expect(Tokenizer.Token.OPEN);
         DataField df = new DataField();
@@ -273,7 +304,7 @@ public class Parser {
     }
 
     private long parseInt() throws ParserException, IOException {
-        return parseExpression().value(new Context());
+        return parseUnscopedExpression().value(new Context());
     }
 
     private void expect(Tokenizer.Token token) throws IOException, ParserException {
@@ -343,6 +374,19 @@ public class Parser {
         return value;
     }
 
+    /*
+     * Parses an expression which is not evaluated in the context of the enclosing loops
+     */
+    private Expression parseUnscopedExpression() throws IOException, ParserException {
+        Scope s = scope;
+        scope = null;
+        try {
+            return parseExpression();
+        } finally {
+            scope = s;
+        }
+    }
+
     private Expression parseExpression() throws IOException, ParserException {
         return parseExpression(OperatorPrecedence.lowest());
     }
@@ -379,8 +423,12 @@ public class Parser {
                     } while (tok.peek() == Tokenizer.Token.COMMA);
                     expect(Tokenizer.Token.CLOSE);
                     return findFunction(name, args);
-                } else
-                    return (c) -> c.getVar(name);
+                } else {
+                    VariableReference r = new VariableReference(name, scope);
+                    if (scope != null)
+                        references.add(r);
+                    return r;
+                }
             case NUMBER:
                 long num = convToLong(tok.getIdent());
                 return (c) -> num;
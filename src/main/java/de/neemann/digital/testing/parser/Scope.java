@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.testing.parser;
+
+import java.util.ArrayList;
+
+/**
+ * The variables declared in a loop while the test is parsed.
+ * At runtime a {@link Context} with the layout of this scope is created for the loop,
+ * so every variable declared in the loop has a fixed slot index.
+ */
+final class Scope {
+    private final Scope parent;
+    private final ArrayList<String> names;
+    private String[] layout;
+
+    /**
+     * Creates a new scope
+     *
+     * @param parent  the enclosing scope, null if this is the outermost loop
+     * @param loopVar the loop variable which is stored in slot zero
+     */
+    Scope(Scope parent, String loopVar) {
+        this.parent = parent;
+        names = new ArrayList<>();
+        names.add(loopVar);
+    }
+
+    /**
+     * Declares a variable in this scope
+     *
+     * @param name the name of the variable
+     * @return the slot index of the variable
+     */
+    int declare(String name) {
+        if (layout != null)
+            throw new IllegalStateException("scope is already closed");
+        int i = names.indexOf(name);
+        if (i < 0) {
+            i = names.size();
+            names.add(name);
+        }
+        return i;
+    }
+
+    /**
+     * Returns the slot index of the given variable
+     *
+     * @param name the name of the variable
+     * @return the index or -1 if the variable is not declared in this scope
+     */
+    int indexOf(String name) {
+        return names.indexOf(name);
+    }
+
+    /**
+     * Closes this scope. After this call no variables can be declared.
+     *
+     * @return the layout of the scope
+     */
+    String[] close() {
+        if (layout == null)
+            layout = names.toArray(new String[0]);
+        return layout;
+    }
+
+    /**
+     * @return the layout of this scope, null if the scope is not closed
+     */
+    String[] getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return the enclosing scope, null if there is none
+     */
+    Scope getParent() {
+        return parent;
+    }
+}
@@ -13,7 +13,7 @@ import de.neemann.digital.data.Value;
 public class TestRow {
     private final Value[] values;
     private final String description;
-    private int rowCount = -1;
+    private long rowCount = -1;
 
     /**
      * Creates a new instance
@@ -66,7 +66,7 @@ public class TestRow {
      * @param rowCount the number to set
      * @return this for chained calls
      */
-    public TestRow setRow(int rowCount) {
+    public TestRow setRow(long rowCount) {
         this.rowCount = rowCount;
         return this;
     }
@@ -74,7 +74,7 @@ public class TestRow {
     /**
      * @return the row number of this row, or -1 if no row number is available
      */
-    public int getRow() {
+    public long getRow() {
         return rowCount;
     }
 }
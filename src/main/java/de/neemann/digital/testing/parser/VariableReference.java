@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.testing.parser;
+
+import de.neemann.digital.core.Model;
+import de.neemann.digital.core.ObservableValue;
+
+import java.util.ArrayList;
+
+/**
+ * A reference to a variable, resolved while parsing.
+ * For every enclosing loop the slot index of the variable is stored, so the value is
+ * found without comparing names. If the variable is not declared in an enclosing loop,
+ * the context the test is started with is searched by name, and if it is a signal of
+ * the model, the signal is cached.
+ * If the expression is evaluated in a context which is not created for the enclosing loops,
+ * the variable is searched by name.
+ */
+final class VariableReference implements Expression {
+    private final String name;
+    private Scope scope;
+    private String[][] layouts;
+    private int[] indices;
+    private Binding binding;
+
+    /**
+     * Creates a new reference
+     *
+     * @param name  the name of the variable
+     * @param scope the innermost enclosing loop, null if there is none
+     */
+    VariableReference(String name, Scope scope) {
+        this.name = name;
+        this.scope = scope;
+        if (scope == null)
+            link();
+    }
+
+    /**
+     * Resolves the slot indices.
+     * Needs to be called after all enclosing scopes are closed.
+     */
+    void link() {
+        ArrayList<Scope> scopes = new ArrayList<>();
+        for (Scope s = scope; s != null; s = s.getParent())
+            scopes.add(s);
+        layouts = new String[scopes.size()][];
+        indices = new int[scopes.size()];
+        for (int i = 0; i < indices.length; i++) {
+            layouts[i] = scopes.get(i).close();
+            indices[i] = scopes.get(i).indexOf(name);
+        }
+        scope = null;
+    }
+
+    @Override
+    public long value(Context c) throws ParserException {
+        Context f = c;
+        for (int i = 0; i < indices.length; i++) {
+            if (f == null || f.getLayout() != layouts[i])
+                return c.getVar(name);
+
+            final int index = indices[i];
+            if (index >= 0 && f.isDefined(index))
+                return f.getSlot(index);
+            f = f.getParent();
+        }
+        if (f == null)
+            return c.getVar(name);
+        return f.getVar(name, this);
+    }
+
+    /**
+     * Returns the test output of the given model which has the name of this variable
+     *
+     * @param model the model
+     * @return the output or null if there is no such output
+     */
+    ObservableValue getTestOutput(Model model) {
+        Binding b = binding;
+        if (b == null || b.model != model) {
+            // the binding is immutable, so a reference can be shared by concurrently running tests
+            b = new Binding(model, Context.getTestOutput(model, name));
+            binding = b;
+        }
+        return b.value;
+    }
+
+    private static final class Binding {
+        private final Model model;
+        private final ObservableValue value;
+
+        private Binding(Model model, ObservableValue value) {
+            this.model = model;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.analyse;
+
+import de.neemann.digital.analyse.expression.Constant;
+import de.neemann.digital.analyse.expression.ContextFiller;
+import de.neemann.digital.analyse.expression.Expression;
+import de.neemann.digital.analyse.expression.ExpressionException;
+import de.neemann.digital.analyse.expression.Variable;
+import de.neemann.digital.analyse.expression.format.FormatToExpression;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static de.neemann.digital.analyse.expression.Variable.vars;
+
+public class MinimizerEspressoTest extends TestCase {
+
+    public void testConstants() throws Exception {
+        ArrayList<Variable> v = vars(3);
+        assertSame(Constant.ZERO, MinimizerEspresso.minimize(v, new BoolTableBitSet("00000000")));
+        assertSame(Constant.ONE, MinimizerEspresso.minimize(v, new BoolTableBitSet("11111111")));
+        assertSame(Constant.ONE, MinimizerEspresso.minimize(v, new BoolTableBitSet("1X1X1XX1")));
+        assertSame(Constant.ZERO, MinimizerEspresso.minimize(v, new BoolTableBitSet("XXXXXXXX")));
+    }
+
+    public void testSimple() throws Exception {
+        ArrayList<Variable> v = vars(3);
+        Expression e = MinimizerEspresso.minimize(v, new BoolTableBitSet("00011111"));
+        assertEquals("A ∨ (B ∧ C)", FormatToExpression.UNICODE.format(e));
+    }
+
+    public void testManyVariables() throws Exception {
+        // A ∨ B in a table with 16 variables
+        final int n = 16;
+        BoolTableBitSet t = new BoolTableBitSet(1 << n);
+        for (int i = 0; i < t.size(); i++)
+            t.set(i, (i >> (n - 2)) != 0);
+
+        Expression e = MinimizerEspresso.minimize(vars(n), t);
+        assertEquals("A ∨ B", FormatToExpression.UNICODE.format(e));
+    }
+
+    public void testToManyVariables() {
+        try {
+            MinimizerEspresso.minimize(vars(25), new BoolTableBitSet(1 << 25));
+            fail();
+        } catch (ExpressionException e) {
+            assertTrue(true);
+        }
+    }
+
+    public void testRandomWithDontCares() throws Exception {
+        Random r = new Random(1);
+        for (int n = 9; n <= 14; n++) {
+            ArrayList<Variable> v = vars(n);
+            BoolTableBitSet t = new BoolTableBitSet(1 << n);
+            for (int i = 0; i < t.size(); i++)
+                t.set(i, r.nextInt(3));
+
+            Expression e = MinimizerEspresso.minimize(v, t);
+            ContextFiller context = new ContextFiller(v);
+            for (int i = 0; i < t.size(); i++) {
+                int val = t.get(i).asInt();
+                if (val <= 1)
+                    assertEquals(val == 1, e.calculate(context.setContextTo(i)));
+            }
+        }
+    }
+}
@@ -7,7 +7,6 @@ package de.neemann.digital.analyse;
 
 import de.neemann.digital.analyse.expression.Variable;
 import de.neemann.digital.analyse.quinemc.BoolTable;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
 import de.neemann.digital.analyse.quinemc.ThreeStateValue;
 import de.neemann.digital.core.Model;
 import de.neemann.digital.core.NodeException;
@@ -65,6 +64,32 @@ public class ModelAnalyserTest extends TestCase {
                 "1\t1\t0\t\n", tt.toString());
     }
 
+    public void testParallelSimple() throws Exception {
+        checkParallel("../../main/dig/combinatorial/Multiply8Bit.dig");
+    }
+
+    public void testParallelDependant() throws Exception {
+        checkParallel("../../main/dig/combinatorial/Comp7485.dig");
+    }
+
+    private void checkParallel(String file) throws Exception {
+        File f = new File(Resources.getRoot(), file);
+        final ElementLibrary library = new ElementLibrary();
+        library.setRootFilePath(f.getParentFile());
+        Circuit circuit = Circuit.loadCircuit(f, new ShapeFactory(library));
+
+        TruthTable expected = new ModelAnalyser(new ModelCreator(circuit, library).createModel(false)).analyse();
+        int[] created = {0};
+        TruthTable tt = new ModelAnalyser(new ModelCreator(circuit, library).createModel(false))
+                .setParallel(() -> {
+                    created[0]++;
+                    return new ModelCreator(circuit, library).createModel(false);
+                }, 4)
+                .analyse();
+        assertEquals(3, created[0]);
+        assertEquals(expected.toString(), tt.toString());
+    }
+
     public void testAnalyzerDFF() throws Exception {
         Model model = createModel("dig/analyze/analyzeTestDFF.dig");
         TruthTable tt = new ModelAnalyser(model).analyse();
@@ -252,7 +277,7 @@ public class ModelAnalyserTest extends TestCase {
         checkTable(getInner(Y4), zero, zero, zero, zero, zero, zero, zero, one);
     }
 
-    private BoolTableByteArray getInner(BoolTable table) {
+    private BoolTable getInner(BoolTable table) {
         assertTrue(table instanceof BoolTableExpanded);
         return ((BoolTableExpanded) table).getBoolTable();
     }
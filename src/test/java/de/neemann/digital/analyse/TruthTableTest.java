@@ -7,7 +7,7 @@ package de.neemann.digital.analyse;
 
 import de.neemann.digital.analyse.expression.ContextFiller;
 import de.neemann.digital.analyse.expression.Variable;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import junit.framework.TestCase;
 
 import java.io.StringWriter;
@@ -26,7 +26,7 @@ public class TruthTableTest extends TestCase {
     public void testGetByContext() throws Exception {
         ArrayList<Variable> vars = Variable.vars(5);
         TruthTable t = new TruthTable(vars).addResult();
-        BoolTableByteArray result = (BoolTableByteArray) t.getResult(0);
+        BoolTableBitSet result = (BoolTableBitSet) t.getResult(0);
         for (int i = 0; i < t.getRows(); i++) {
             result.set(i, i % 3);
         }
@@ -7,7 +7,7 @@ package de.neemann.digital.analyse.format;
 
 import de.neemann.digital.analyse.TruthTable;
 import de.neemann.digital.analyse.expression.Variable;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import junit.framework.TestCase;
 
 import java.io.StringWriter;
@@ -18,7 +18,7 @@ public class TruthTableFormatterHexTest extends TestCase {
     public void testHexExportSingle() throws Exception {
         ArrayList<Variable> vars = Variable.vars(3);
         TruthTable t = new TruthTable(vars).addResult();
-        BoolTableByteArray result = (BoolTableByteArray) t.getResult(0);
+        BoolTableBitSet result = (BoolTableBitSet) t.getResult(0);
         for (int i = 0; i < t.getRows(); i++) {
             result.set(i, i % 2);
         }
@@ -38,12 +38,12 @@ public class TruthTableFormatterHexTest extends TestCase {
     public void testHexExportTwo() throws Exception {
         ArrayList<Variable> vars = Variable.vars(3);
         TruthTable t = new TruthTable(vars).addResult();
-        BoolTableByteArray result = (BoolTableByteArray) t.getResult(0);
+        BoolTableBitSet result = (BoolTableBitSet) t.getResult(0);
         for (int i = 0; i < t.getRows(); i++) {
             result.set(i, i % 2);
         }
         t.addResult();
-        result = (BoolTableByteArray) t.getResult(1);
+        result = (BoolTableBitSet) t.getResult(1);
         for (int i = 0; i < t.getRows(); i++) {
             result.set(i, (i + 1) % 2);
         }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.analyse.quinemc;
+
+import de.neemann.digital.analyse.expression.Variable;
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class BoolTableBitSetTest extends TestCase {
+
+    public void testSetGet() {
+        BoolTableBitSet t = new BoolTableBitSet(130);
+        t.set(0, 1);
+        t.set(64, 2);
+        t.set(129, true);
+        t.set(129, 2);
+        t.set(0, false);
+        assertEquals(ThreeStateValue.zero, t.get(0));
+        assertEquals(ThreeStateValue.dontCare, t.get(64));
+        assertEquals(ThreeStateValue.dontCare, t.get(129));
+        assertEquals(0, t.getOnes(0) | t.getOnes(1) | t.getOnes(2));
+        assertEquals(1, t.getDontCares(1));
+        assertEquals(2, t.getDontCares(2));
+        assertEquals(3, t.getWordCount());
+    }
+
+    public void testString() {
+        String s = "01X1X0011100X";
+        BoolTableBitSet t = new BoolTableBitSet(s);
+        assertEquals(s, t.toString());
+        assertEquals(s, new BoolTableBitSet(new BoolTableByteArray(s)).toString());
+        assertEquals(s, new BoolTableByteArray(t).toString());
+        assertEquals(t, new BoolTableBitSet(t));
+        assertEquals(0b1110001010, t.getOnes(0));
+        assertEquals(0b1000000010100, t.getDontCares(0));
+    }
+
+    public void testSetWord() {
+        BoolTableBitSet t = new BoolTableBitSet(4);
+        t.set(0, 2);
+        t.setWord(0, -1);
+        assertEquals("1111", t.toString());
+        assertEquals(0xfL, t.getOnes(0));
+    }
+
+    public void testModify() {
+        BoolTableBitSet t = new BoolTableBitSet("01X");
+        t.modify(v -> v > 1 ? v : (byte) (1 - v));
+        assertEquals("10X", t.toString());
+        assertEquals("1100XX", BoolTableBitSet.createDoubledValues(t).toString());
+    }
+
+    public void testQuineMcCluskey() throws Exception {
+        Random r = new Random(1);
+        for (int n = 0; n < 20; n++) {
+            BoolTableByteArray bytes = new BoolTableByteArray(256);
+            for (int i = 0; i < bytes.size(); i++)
+                bytes.set(i, r.nextInt(3));
+            String expected = new QuineMcCluskey(Variable.vars(8)).fillTableWith(bytes).toString();
+            String found = new QuineMcCluskey(Variable.vars(8)).fillTableWith(new BoolTableBitSet(bytes)).toString();
+            assertEquals(expected, found);
+        }
+    }
+}
@@ -9,7 +9,7 @@ import de.neemann.digital.analyse.expression.Variable;
 import junit.framework.TestCase;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
 
 /**
  */
@@ -38,13 +38,13 @@ public class QuineMcCluskeyExactCoverTest extends TestCase {
         final ArrayList<TableRow> pri = qmc.getPrimes();
         assertEquals(2, pri.size());
 
-        Collection<Integer> s1 = pri.get(0).getSource();
-        assertEquals(1, s1.size());
-        assertTrue(s1.contains(3));
+        BitSet s1 = pri.get(0).getSource();
+        assertEquals(1, s1.cardinality());
+        assertTrue(s1.get(3));
 
-        Collection<Integer> s2 = pri.get(1).getSource();
-        assertEquals(1, s2.size());
-        assertTrue(s2.contains(4));
+        BitSet s2 = pri.get(1).getSource();
+        assertEquals(1, s2.cardinality());
+        assertTrue(s2.get(4));
     }
 
 }
@@ -9,8 +9,10 @@ import de.neemann.digital.cli.cli.CLIException;
 import de.neemann.digital.integration.Resources;
 import junit.framework.TestCase;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 
 public class CommandLineTesterTest extends TestCase {
 
@@ -22,6 +24,26 @@ public class CommandLineTesterTest extends TestCase {
         assertEquals(32, tester.getTestsPassed());
     }
 
+    public void testThreads() throws IOException {
+        File source = new File(Resources.getRoot(), "../../main/dig/lib/DIL Chips/74xx/arithmetic/74181.dig");
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        assertEquals(0, new CommandLineTester(source).execute(new PrintStream(sequential)));
+
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        CommandLineTester tester = new CommandLineTester(source).setThreads(4);
+        assertEquals(0, tester.execute(new PrintStream(parallel)));
+        assertEquals(32, tester.getTestsPassed());
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    public void testCommandThreads() throws CLIException {
+        File source = new File(Resources.getRoot(), "dig/failingTest.dig");
+        File tests = new File(Resources.getRoot(), "../../main/dig/sequential/Counter-D.dig");
+        CommandLineTester.TestCommand tc = new CommandLineTester.TestCommand();
+        tc.execute(new String[]{source.getPath(), "-tests", tests.getPath(), "-threads", "2"});
+        assertEquals(1, tc.getTestsPassed());
+    }
+
     public void testFailing() throws IOException {
         File source = new File(Resources.getRoot(), "dig/failingTest.dig");
         CommandLineTester tester = new CommandLineTester(source);
@@ -30,6 +52,17 @@ public class CommandLineTesterTest extends TestCase {
         assertEquals(0, tester.getTestsPassed());
     }
 
+    public void testRowsOmitted() throws IOException {
+        File source = new File(Resources.getRoot(), "dig/failingTest.dig");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, new CommandLineTester(source).setVerbose(true).setMaxFailedRows(0).execute(new PrintStream(out)));
+        assertTrue(out.toString().contains("rows omitted"));
+
+        out = new ByteArrayOutputStream();
+        assertEquals(1, new CommandLineTester(source).setVerbose(true).setMaxFailedRows(-1).execute(new PrintStream(out)));
+        assertFalse(out.toString().contains("rows omitted"));
+    }
+
     public void testExternalTests() throws IOException {
         File source = new File(Resources.getRoot(), "dig/failingTest.dig");
         CommandLineTester tester = new CommandLineTester(source)
@@ -59,4 +92,15 @@ public class CommandLineTesterTest extends TestCase {
         }
     }
 
+    public void testCommandInvalidMaxFailedRows() {
+        try {
+            File source = new File(Resources.getRoot(), "dig/failingTest.dig");
+            CommandLineTester.TestCommand tc = new CommandLineTester.TestCommand();
+            tc.execute(new String[]{source.getPath(), "-maxFailedRows", "-2"});
+            fail();
+        } catch (CLIException e) {
+            assertEquals(107, e.getExitCode());
+        }
+    }
+
 }
\ No newline at end of file
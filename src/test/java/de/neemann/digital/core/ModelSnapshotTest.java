@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core;
+
+import de.neemann.digital.core.element.ElementAttributes;
+import de.neemann.digital.core.element.Keys;
+import de.neemann.digital.core.flipflops.FlipflopJK;
+import de.neemann.digital.core.memory.Counter;
+import de.neemann.digital.core.memory.RAMDualPort;
+import de.neemann.digital.core.wiring.Delay;
+import de.neemann.digital.gui.components.graphics.GraphicCard;
+import de.neemann.digital.gui.components.terminal.Terminal;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+
+import static de.neemann.digital.core.ObservableValues.ovs;
+
+public class ModelSnapshotTest extends TestCase {
+    private static final int CYCLES = 40;
+
+    private ObservableValue clk;
+    private ArrayList<ObservableValue> outputs;
+    private RAMDualPort ram;
+
+    private Model createModel() throws NodeException {
+        ObservableValue one = new ObservableValue("one", 1).setValue(1).setConstant();
+        ObservableValue zero = new ObservableValue("zero", 1).setConstant();
+        clk = new ObservableValue("clk", 1);
+
+        Model model = new Model();
+        model.addInput(new Signal("clk", clk));
+
+        Counter counter = model.add(new Counter(new ElementAttributes().setBits(4)));
+        counter.setInputs(ovs(one, clk, zero));
+        ObservableValue count = counter.getOutputs().get(0);
+
+        FlipflopJK jk = model.add(new FlipflopJK(new ElementAttributes()));
+        jk.setInputs(ovs(one, clk, one));
+        ObservableValue q = jk.getOutputs().get(0);
+
+        ram = model.add(new RAMDualPort(new ElementAttributes().setBits(4).set(Keys.ADDR_BITS, 4)));
+        ram.setInputs(ovs(count, count, q, clk, one));
+
+        Delay delay = model.add(new Delay(new ElementAttributes().setBits(4).set(Keys.DELAY_TIME, 3)));
+        delay.setInputs(count.asList());
+
+        outputs = new ArrayList<>();
+        outputs.add(count);
+        outputs.add(q);
+        outputs.add(ram.getOutputs().get(0));
+        outputs.add(delay.getOutputs().get(0));
+        return model;
+    }
+
+    private long[] run(Model model) throws NodeException {
+        long[] result = new long[CYCLES * outputs.size()];
+        int i = 0;
+        for (int c = 0; c < CYCLES; c++) {
+            clk.setBool(!clk.getBool());
+            model.doStep();
+            for (ObservableValue o : outputs)
+                result[i++] = o.getValue();
+        }
+        return result;
+    }
+
+    private void check(Model model) throws Exception {
+        ErrorDetector ed = new ErrorDetector();
+        model.addObserver(ed);
+        model.init(false);
+
+        ModelSnapshot snapshot = model.snapshot();
+        long[] first = run(model);
+        assertTrue(ram.getMemory().getDataWord(1) != 0);
+
+        model.restore(snapshot);
+        assertEquals(0, ram.getMemory().getDataWord(1));
+        assertArrayEquals(first, run(model));
+
+        model.restore(snapshot);
+        assertArrayEquals(first, run(model));
+        ed.check();
+    }
+
+    private static void assertArrayEquals(long[] expected, long[] found) {
+        assertEquals(expected.length, found.length);
+        for (int i = 0; i < expected.length; i++)
+            assertEquals("index " + i, expected[i], found[i]);
+    }
+
+    public void testSnapshot() throws Exception {
+        check(createModel());
+    }
+
+    public void testSnapshotEventDriven() throws Exception {
+        check(createModel().setEventDriven(true));
+    }
+
+    public void testPendingUpdates() throws Exception {
+        Model model = createModel();
+        model.init(false);
+        clk.setBool(true);
+        ModelSnapshot snapshot = model.snapshot();
+        assertTrue(model.needsUpdate());
+        model.doStep();
+        long count = outputs.get(0).getValue();
+        assertEquals(1, count);
+
+        model.restore(snapshot);
+        assertTrue(model.needsUpdate());
+        assertEquals(0, outputs.get(0).getValue());
+        model.doStep();
+        assertEquals(count, outputs.get(0).getValue());
+    }
+
+    public void testGraphicCard() throws Exception {
+        ObservableValue one = new ObservableValue("one", 1).setValue(1).setConstant();
+        ObservableValue zero = new ObservableValue("zero", 1).setConstant();
+        ObservableValue addr = new ObservableValue("addr", 3).setValue(5);
+        ObservableValue data = new ObservableValue("data", 8).setValue(42);
+        clk = new ObservableValue("clk", 1);
+
+        Model model = new Model();
+        model.addInput(new Signal("clk", clk));
+        GraphicCard gc = model.add(new GraphicCard(new ElementAttributes()
+                .setBits(8)
+                .set(Keys.GRAPHIC_WIDTH, 2)
+                .set(Keys.GRAPHIC_HEIGHT, 2)));
+        gc.setInputs(ovs(addr, one, clk, zero, zero, data));
+        model.init(false);
+
+        ModelSnapshot snapshot = model.snapshot();
+        clk.setBool(true);
+        model.doStep();
+        assertEquals(42, gc.getMemory().getDataWord(5));
+
+        model.restore(snapshot);
+        assertEquals(0, gc.getMemory().getDataWord(5));
+        clk.setBool(true);
+        model.doStep();
+        assertEquals(42, gc.getMemory().getDataWord(5));
+    }
+
+    public void testTerminal() throws Exception {
+        ObservableValue one = new ObservableValue("one", 1).setValue(1).setConstant();
+        ObservableValue data = new ObservableValue("data", 8).setValue('A');
+        clk = new ObservableValue("clk", 1);
+
+        Model model = new Model();
+        model.addInput(new Signal("clk", clk));
+        Terminal terminal = model.add(new Terminal(new ElementAttributes()));
+        terminal.setInputs(ovs(data, clk, one));
+        model.init(false);
+
+        clk.setBool(true);
+        model.doStep();
+        clk.setBool(false);
+        model.doStep();
+        assertEquals("A", terminal.getTerminalInterface().getText());
+
+        ModelSnapshot snapshot = model.snapshot();
+        clk.setBool(true);
+        model.doStep();
+        assertEquals("AA", terminal.getTerminalInterface().getText());
+
+        model.restore(snapshot);
+        assertEquals("A", terminal.getTerminalInterface().getText());
+        clk.setBool(true);
+        model.doStep();
+        assertEquals("AA", terminal.getTerminalInterface().getText());
+    }
+}
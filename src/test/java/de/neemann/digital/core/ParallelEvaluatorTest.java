@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core;
+
+import de.neemann.digital.core.basic.FanIn;
+import de.neemann.digital.core.basic.Not;
+import de.neemann.digital.core.basic.XOr;
+import de.neemann.digital.core.element.ElementAttributes;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import static de.neemann.digital.core.ObservableValues.ovs;
+import static org.junit.Assert.assertArrayEquals;
+
+public class ParallelEvaluatorTest extends TestCase {
+    private static final int WIDTH = 1000;
+
+    private ObservableValue a;
+    private ArrayList<ObservableValue> outputs;
+
+    /*
+     * Creates many xor gates which all depend on a and on their neighbour
+     */
+    private Model createModel() throws NodeException {
+        a = new ObservableValue("a", 8);
+        outputs = new ArrayList<>();
+        Model model = new Model();
+        model.addInput(new Signal("a", a));
+        ObservableValue last = a;
+        for (int i = 0; i < WIDTH; i++) {
+            Not not = model.add(new Not(new ElementAttributes().setBits(8)));
+            not.setInputs(last.asList());
+            FanIn xor = model.add(new XOr(new ElementAttributes().setBits(8)));
+            xor.setInputs(ovs(a, not.getOutput()));
+            outputs.add(xor.getOutput());
+            last = not.getOutput();
+        }
+        return model;
+    }
+
+    private long[] run(Model model) throws Exception {
+        ErrorDetector ed = new ErrorDetector();
+        model.addObserver(ed);
+        model.init(false);
+        long[] result = new long[WIDTH * 4];
+        int j = 0;
+        for (int v = 1; v <= 4; v++) {
+            a.setValue(v * 17);
+            model.doStep();
+            for (ObservableValue o : outputs)
+                result[j++] = o.getValue();
+        }
+        ed.check();
+        return result;
+    }
+
+    public void testParallel() throws Exception {
+        long[] expected = run(createModel());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(expected, run(createModel().setParallelThreshold(10, pool)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testStepCounter() throws Exception {
+        Model seq = createModel();
+        run(seq);
+        Model par = createModel().setParallelThreshold(10);
+        run(par);
+        assertEquals(seq.getStepCounter(), par.getStepCounter());
+    }
+}
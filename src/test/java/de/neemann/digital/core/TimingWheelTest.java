@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TimingWheelTest extends TestCase {
+
+    public void testSimple() {
+        TimingWheel<String> w = new TimingWheel<>();
+        assertTrue(w.isEmpty());
+        w.schedule(5, "a");
+        w.schedule(3, "b");
+        w.schedule(5, "c");
+        assertEquals(3, w.size());
+
+        ArrayList<String> list = new ArrayList<>();
+        assertEquals(3, w.nextTime());
+        w.poll(3, list);
+        assertEquals("[b]", list.toString());
+
+        list.clear();
+        assertEquals(5, w.nextTime());
+        w.poll(5, list);
+        assertEquals("[a, c]", list.toString());
+        assertTrue(w.isEmpty());
+    }
+
+    public void testPastIsNotAllowed() {
+        TimingWheel<String> w = new TimingWheel<>();
+        w.schedule(10, "a");
+        w.poll(w.nextTime(), new ArrayList<>());
+        try {
+            w.schedule(10, "b");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+
+    public void testNextTimeDoesNotAdvance() {
+        TimingWheel<String> w = new TimingWheel<>();
+        w.schedule(99, "a");
+        assertEquals(99, w.nextTime());
+        w.schedule(5, "b");
+        assertEquals(5, w.nextTime());
+
+        ArrayList<String> list = new ArrayList<>();
+        w.poll(5, list);
+        w.schedule(6, "c");
+        assertEquals(6, w.nextTime());
+        w.poll(6, list);
+        assertEquals(99, w.nextTime());
+        w.poll(99, list);
+        assertEquals("[b, c, a]", list.toString());
+        assertTrue(w.isEmpty());
+    }
+
+    /*
+     * Compares the wheel with a sorted map, also with delays which
+     * need the higher levels and the overflow queue.
+     */
+    public void testRandom() {
+        Random r = new Random(1);
+        for (long maxDelay : new long[]{2, 70, 5000, 1 << 20, 1L << 30}) {
+            TimingWheel<Integer> w = new TimingWheel<>();
+            TreeMap<Long, ArrayList<Integer>> ref = new TreeMap<>();
+            long now = 0;
+            int item = 0;
+            for (int i = 0; i < 2000; i++) {
+                int n = r.nextInt(4);
+                for (int j = 0; j < n; j++) {
+                    long t = now + 1 + (long) (r.nextDouble() * maxDelay);
+                    w.schedule(t, item);
+                    ref.computeIfAbsent(t, k -> new ArrayList<>()).add(item);
+                    item++;
+                }
+                if (!ref.isEmpty()) {
+                    now = ref.firstKey();
+                    assertEquals(now, w.nextTime());
+                    ArrayList<Integer> list = new ArrayList<>();
+                    w.poll(now, list);
+                    assertEquals(ref.remove(now), list);
+                }
+            }
+            while (!ref.isEmpty()) {
+                now = ref.firstKey();
+                ArrayList<Integer> list = new ArrayList<>();
+                w.poll(w.nextTime(), list);
+                assertEquals(ref.remove(now), list);
+            }
+            assertTrue(w.isEmpty());
+        }
+    }
+}
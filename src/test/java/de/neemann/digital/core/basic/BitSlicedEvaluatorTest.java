@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.core.basic;
+
+import de.neemann.digital.core.Model;
+import de.neemann.digital.core.NodeException;
+import de.neemann.digital.core.ObservableValue;
+import de.neemann.digital.core.element.ElementAttributes;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+import static de.neemann.digital.core.ObservableValues.ovs;
+
+public class BitSlicedEvaluatorTest extends TestCase {
+
+    private ObservableValue a;
+    private ObservableValue b;
+    private ObservableValue c;
+    private ObservableValue s;
+    private ObservableValue co;
+
+    /*
+     * Creates a full adder
+     */
+    private Model createFullAdder() throws NodeException {
+        a = new ObservableValue("a", 1);
+        b = new ObservableValue("b", 1);
+        c = new ObservableValue("c", 1);
+        Model model = new Model();
+        FanIn x1 = model.add(new XOr(new ElementAttributes()));
+        x1.setInputs(ovs(a, b));
+        FanIn x2 = model.add(new XNOr(new ElementAttributes()));
+        x2.setInputs(ovs(x1.getOutput(), c));
+        Not n = model.add(new Not(new ElementAttributes()));
+        n.setInputs(x2.getOutputs());
+        FanIn a1 = model.add(new NAnd(new ElementAttributes()));
+        a1.setInputs(ovs(a, b));
+        FanIn a2 = model.add(new And(new ElementAttributes()));
+        a2.setInputs(ovs(x1.getOutput(), c));
+        FanIn o = model.add(new NOr(new ElementAttributes()));
+        o.setInputs(ovs(a2.getOutput(), new ObservableValue("0", 1).setConstant()));
+        FanIn o3 = model.add(new NAnd(new ElementAttributes()));
+        o3.setInputs(ovs(a1.getOutput(), o.getOutput()));
+        s = n.getOutput();
+        co = o3.getOutput();
+        return model;
+    }
+
+    public void testFullAdder() throws Exception {
+        Model model = createFullAdder();
+        BitSlicedEvaluator bse = BitSlicedEvaluator.create(model, Arrays.asList(a, b, c), Arrays.asList(s, co));
+        assertNotNull(bse);
+        assertEquals(7, bse.getGateCount());
+
+        long[] out = new long[2];
+        bse.evaluateRows(0, out);
+        for (int row = 0; row < 8; row++) {
+            int sum = (row & 1) + ((row >> 1) & 1) + ((row >> 2) & 1);
+            assertEquals(sum & 1, (out[0] >>> row) & 1);
+            assertEquals(sum >> 1, (out[1] >>> row) & 1);
+        }
+    }
+
+    public void testRowPattern() {
+        for (int row = 0; row < 256; row++)
+            for (int bit = 0; bit < 8; bit++)
+                assertEquals((row >> bit) & 1,
+                        (BitSlicedEvaluator.rowPattern(row & ~63, bit) >>> (row & 63)) & 1);
+    }
+
+    public void testUnknownInput() throws Exception {
+        Model model = createFullAdder();
+        assertNull(BitSlicedEvaluator.create(model, Arrays.asList(a, b), Arrays.asList(s, co)));
+    }
+
+    public void testMultiBit() throws Exception {
+        ObservableValue a = new ObservableValue("a", 2);
+        Model model = new Model();
+        Not n = model.add(new Not(new ElementAttributes().setBits(2)));
+        n.setInputs(a.asList());
+        assertNull(BitSlicedEvaluator.create(model, Arrays.asList(a), Arrays.asList(n.getOutput())));
+    }
+
+    public void testCycle() throws Exception {
+        ObservableValue a = new ObservableValue("a", 1);
+        Model model = new Model();
+        FanIn x = model.add(new XOr(new ElementAttributes()));
+        Not n = model.add(new Not(new ElementAttributes()));
+        n.setInputs(x.getOutputs());
+        x.setInputs(ovs(a, n.getOutput()));
+        assertNull(BitSlicedEvaluator.create(model, Arrays.asList(a), Arrays.asList(x.getOutput())));
+    }
+}
@@ -8,11 +8,16 @@ package de.neemann.digital.core.basic;
 import de.neemann.digital.TestExecuter;
 import de.neemann.digital.core.Model;
 import de.neemann.digital.core.ObservableValue;
+import de.neemann.digital.core.Signal;
 import de.neemann.digital.core.element.ElementAttributes;
 import de.neemann.digital.core.element.Keys;
 import de.neemann.digital.core.wiring.Delay;
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+
+import static de.neemann.digital.core.ObservableValues.ovs;
+
 /**
  */
 public class DelayTest extends TestCase {
@@ -61,4 +66,76 @@ public class DelayTest extends TestCase {
         }
     }
 
+    /*
+     * A pulse of four gate delays is created by a delay and a
+     * gate and is delayed by a second delay.
+     */
+    private ArrayList<String> runPulse(boolean eventDriven, int[] microSteps) throws Exception {
+        ObservableValue a = new ObservableValue("a", 1);
+        Model model = new Model().setEventDriven(eventDriven);
+        model.addInput(new Signal("a", a));
+        Delay d1 = model.add(new Delay(new ElementAttributes().set(Keys.DELAY_TIME, 3)));
+        d1.setInputs(a.asList());
+        Not not = model.add(new Not(new ElementAttributes()));
+        not.setInputs(d1.getOutputs());
+        FanIn and = model.add(new And(new ElementAttributes()));
+        and.setInputs(ovs(a, not.getOutput()));
+        Delay d2 = model.add(new Delay(new ElementAttributes().set(Keys.DELAY_TIME, 20)));
+        d2.setInputs(and.getOutputs());
+        ObservableValue out = d2.getOutputs().get(0);
+
+        model.init(false);
+        final long start = eventDriven ? model.getSimulationTime() : model.getStepCounter();
+        ArrayList<String> changes = new ArrayList<>();
+        out.addObserver(() -> {
+            long now = eventDriven ? model.getSimulationTime() : model.getStepCounter();
+            changes.add((now - start) + ":" + out.getValue());
+        });
+
+        a.setValue(1);
+        while (model.needsUpdate()) {
+            model.doMicroStep(false);
+            microSteps[0]++;
+        }
+        return changes;
+    }
+
+    public void testEventDriven() throws Exception {
+        int[] unit = new int[1];
+        ArrayList<String> expected = runPulse(false, unit);
+        assertEquals("[21:1, 25:0]", expected.toString());
+
+        int[] event = new int[1];
+        assertEquals(expected, runPulse(true, event));
+        assertTrue(event[0] < unit[0]);
+    }
+
+    /*
+     * The short delay is scheduled after the wheel was asked for the long one.
+     */
+    public void testDifferentDelays() throws Exception {
+        ObservableValue a = new ObservableValue("a", 1);
+        ObservableValue b = new ObservableValue("b", 1);
+        Model model = new Model().setEventDriven(true);
+        model.addInput(new Signal("a", a));
+        model.addInput(new Signal("b", b));
+        Delay longDelay = model.add(new Delay(new ElementAttributes().set(Keys.DELAY_TIME, 100)));
+        longDelay.setInputs(a.asList());
+        Delay shortDelay = model.add(new Delay(new ElementAttributes().set(Keys.DELAY_TIME, 5)));
+        shortDelay.setInputs(b.asList());
+
+        model.init(false);
+        final long start = model.getSimulationTime();
+        ArrayList<String> changes = new ArrayList<>();
+        longDelay.getOutputs().get(0).addObserver(() -> changes.add("long:" + (model.getSimulationTime() - start)));
+        shortDelay.getOutputs().get(0).addObserver(() -> changes.add("short:" + (model.getSimulationTime() - start)));
+
+        a.setValue(1);
+        model.doMicroStep(false);
+        b.setValue(1);
+        while (model.needsUpdate())
+            model.doMicroStep(false);
+
+        assertEquals("[short:6, long:100]", changes.toString());
+    }
 }
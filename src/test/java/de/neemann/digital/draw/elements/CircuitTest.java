@@ -11,6 +11,8 @@ import de.neemann.digital.core.io.In;
 import de.neemann.digital.core.io.InValue;
 import de.neemann.digital.core.memory.DataField;
 import de.neemann.digital.core.memory.ROM;
+import de.neemann.digital.core.basic.And;
+import de.neemann.digital.draw.graphics.Vector;
 import de.neemann.digital.draw.library.ElementLibrary;
 import de.neemann.digital.draw.shapes.ShapeFactory;
 import junit.framework.TestCase;
@@ -18,6 +20,9 @@ import junit.framework.TestCase;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+
+import static de.neemann.digital.draw.shapes.GenericShape.SIZE;
 
 public class CircuitTest extends TestCase {
 
@@ -57,4 +62,66 @@ public class CircuitTest extends TestCase {
         assertEquals(0x8fff0000ffff0000L, in.getElementAttributes().get(Keys.INPUT_DEFAULT).getValue());
     }
 
+    public void testHitTest() {
+        ShapeFactory shapeFactory = new ShapeFactory(new ElementLibrary());
+        Circuit c = new Circuit();
+        for (int i = 0; i < 100; i++)
+            c.getWires().add(new Wire(new Vector(-SIZE, i * SIZE), new Vector(i * SIZE, i * SIZE)));
+        VisualElement and = new VisualElement(And.DESCRIPTION.getName())
+                .setShapeFactory(shapeFactory)
+                .setPos(new Vector(-10 * SIZE, 50 * SIZE));
+        c.add(and);
+
+        assertSame(c.getWires().get(40), c.getWireAt(new Vector(20 * SIZE, 40 * SIZE + 2), 5));
+        assertNull(c.getWireAt(new Vector(41 * SIZE, 40 * SIZE), 5));
+        assertTrue(c.isWireAt(new Vector(99 * SIZE, 99 * SIZE)));
+        assertFalse(c.isWireAt(new Vector(-2 * SIZE, 99 * SIZE)));
+        assertSame(and, c.getElementAt(new Vector(-9 * SIZE, 51 * SIZE)));
+        assertNull(c.getElementAt(new Vector(-9 * SIZE, 70 * SIZE)));
+
+        // moved elements and wires are found at their new position
+        c.getWires().get(40).move(new Vector(0, 200 * SIZE));
+        and.move(new Vector(0, 200 * SIZE));
+        assertNull(c.getWireAt(new Vector(20 * SIZE, 40 * SIZE), 5));
+        assertSame(c.getWires().get(40), c.getWireAt(new Vector(20 * SIZE, 240 * SIZE), 5));
+        assertNull(c.getElementAt(new Vector(-9 * SIZE, 51 * SIZE)));
+        assertSame(and, c.getElementAt(new Vector(-9 * SIZE, 251 * SIZE)));
+
+        // rectangles keep the order of the lists
+        ArrayList<Movable> m = c.getElementsToMove(new Vector(-20 * SIZE, 10 * SIZE), new Vector(5 * SIZE, 300 * SIZE));
+        assertNotNull(m);
+        assertSame(and, m.get(0));
+        assertEquals(1 + 90, m.size());
+        for (int i = 1; i < m.size(); i++)
+            assertEquals(c.getWires().get(i + 9).p1, m.get(i).getPos());
+
+        c.delete(new Vector(-20 * SIZE, 230 * SIZE), new Vector(100 * SIZE, 300 * SIZE));
+        assertTrue(c.getElements().isEmpty());
+        assertNull(c.getWireAt(new Vector(20 * SIZE, 240 * SIZE), 5));
+        assertEquals(99, c.getWires().size());
+    }
+
+    public void testHitTestSharedWires() {
+        Circuit c = new Circuit();
+        for (int i = 0; i < 10; i++)
+            c.getWires().add(new Wire(new Vector(0, i * SIZE), new Vector(SIZE * 4, i * SIZE)));
+        Circuit copy = c.createShallowCopy();
+        Wire w = c.getWires().get(5);
+
+        assertSame(w, c.getWireAt(new Vector(SIZE, 5 * SIZE), 2));
+        assertSame(w, copy.getWireAt(new Vector(SIZE, 5 * SIZE), 2));
+
+        // the wire is indexed by the copy, so the index of the original circuit must be rebuilt
+        w.getMovableP1().move(new Vector(0, 100 * SIZE));
+        w.getMovableP2().move(new Vector(0, 100 * SIZE));
+        assertNull(c.getWireAt(new Vector(SIZE, 5 * SIZE), 2));
+        assertSame(w, c.getWireAt(new Vector(SIZE, 105 * SIZE), 2));
+
+        w.setP1(new Vector(0, 200 * SIZE));
+        w.setP2(new Vector(SIZE * 4, 200 * SIZE));
+        assertNull(copy.getWireAt(new Vector(SIZE, 105 * SIZE), 2));
+        assertSame(w, copy.getWireAt(new Vector(SIZE, 200 * SIZE), 2));
+        assertSame(w, c.getWireAt(new Vector(SIZE, 200 * SIZE), 2));
+    }
+
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.elements;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+import com.thoughtworks.xstream.io.xml.XmlFriendlyNameCoder;
+import de.neemann.digital.core.IntFormat;
+import de.neemann.digital.core.element.Keys;
+import de.neemann.digital.core.element.Rotation;
+import de.neemann.digital.core.io.InValue;
+import de.neemann.digital.core.memory.DataField;
+import de.neemann.digital.draw.graphics.Vector;
+import de.neemann.digital.draw.model.InverterConfig;
+import de.neemann.digital.integration.FileScanner;
+import de.neemann.digital.integration.Resources;
+import de.neemann.digital.testing.TestCaseDescription;
+import junit.framework.TestCase;
+
+import java.awt.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Map;
+
+public class CircuitWriterTest extends TestCase {
+
+    public void testEnumNames() {
+        XStream xStream = Circuit.getxStream();
+        XmlFriendlyNameCoder coder = new XmlFriendlyNameCoder();
+        for (Map.Entry<Class<?>, String> e : CircuitWriter.getEnumTypes().entrySet())
+            assertEquals(coder.encodeNode(xStream.getMapper().serializedClass(e.getKey())), e.getValue());
+    }
+
+    public void testAllFiles() throws Exception {
+        int[] notSupported = new int[1];
+        FileScanner.Interface test = f -> {
+            byte[] data = Files.readAllBytes(f.toPath());
+            Circuit c = CircuitReader.read(data);
+            if (c == null)
+                notSupported[0]++;
+            else {
+                Circuit orig = (Circuit) Circuit.getxStream().fromXML(new String(data, StandardCharsets.UTF_8));
+                assertEquals(f.getPath(), writeXStream(orig), write(c));
+            }
+        };
+        int n = new FileScanner(test).noOutput().scan(new File(Resources.getRoot(), "dig"));
+        n += new FileScanner(test).noOutput().scan(new File(Resources.getRoot(), "../../main/dig"));
+        assertTrue(n > 500);
+        // only files containing custom shapes or stored roms are read by XStream
+        assertTrue(notSupported[0] < 10);
+    }
+
+    public void testReferences() throws IOException {
+        Circuit c = new Circuit();
+        Rotation rot = new Rotation(1);
+        Color color = new Color(1, 2, 3, 4);
+        InValue value = new InValue(0, true);
+        TestCaseDescription td = TestCaseDescription.createUnparsed("A B\n0 <1>\n\"&'");
+        DataField data = new DataField(4);
+        data.setData(1, 5);
+        InverterConfig ic = new InverterConfig.Builder().add("In_1").add("In_2").build();
+        for (int i = 0; i < 3; i++) {
+            VisualElement ve = new VisualElement("Test")
+                    .setAttribute(Keys.ROTATE, rot)
+                    .setAttribute(Keys.COLOR, color)
+                    .setAttribute(Keys.INPUT_DEFAULT, value)
+                    .setAttribute(Keys.TESTDATA, td)
+                    .setAttribute(Keys.DATA, data)
+                    .setAttribute(Keys.INVERTER_CONFIG, ic)
+                    .setAttribute(Keys.INT_FORMAT, IntFormat.hex)
+                    .setAttribute(Keys.LABEL, "a<b>&\"c'\r\n\t")
+                    .setAttribute(Keys.LAST_DATA_FILE, new File("a/b.hex"))
+                    .setPos(new Vector(i * 20, 0));
+            c.add(ve);
+        }
+        Vector p = new Vector(20, 20);
+        c.getWires().add(new Wire(new Vector(0, 20), p));
+        c.getWires().add(new Wire(p, new Vector(40, 20)));
+        ArrayList<String> ordering = new ArrayList<>();
+        ordering.add("A");
+        c.setMeasurementOrdering(ordering);
+
+        String xml = writeXStream(c);
+        assertTrue(xml.contains("reference="));
+        assertEquals(xml, write(c));
+
+        Circuit read = CircuitReader.read(xml.getBytes(StandardCharsets.UTF_8));
+        assertNotNull(read);
+        assertSame(read.getElements().get(0).getElementAttributes().get(Keys.ROTATE),
+                read.getElements().get(2).getElementAttributes().get(Keys.ROTATE));
+        assertSame(read.getWires().get(0).p2, read.getWires().get(1).p1);
+        assertEquals(xml, write(read));
+    }
+
+    public void testFallback() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<circuit><version>1</version><attributes><entry><string>a</string><unknown/></entry></attributes><visualElements/></circuit>";
+        assertNull(CircuitReader.read(xml.getBytes(StandardCharsets.UTF_8)));
+        assertNull(CircuitReader.read("<circuit>".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String writeXStream(Circuit c) {
+        StringWriter w = new StringWriter();
+        Circuit.getxStream().marshal(c, new PrettyPrintWriter(w));
+        return w.toString();
+    }
+
+    private static String write(Circuit c) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        c.save(out);
+        String s = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        return s.substring(s.indexOf('\n') + 1);
+    }
+}
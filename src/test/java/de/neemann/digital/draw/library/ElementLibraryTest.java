@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.library;
+
+import de.neemann.digital.core.element.ElementTypeDescription;
+import de.neemann.digital.core.element.PinDescription;
+import de.neemann.digital.core.element.PinDescriptions;
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.draw.model.ModelCreator;
+import de.neemann.digital.draw.model.ModelEntry;
+import de.neemann.digital.draw.model.NestedCircuitTemplate;
+import de.neemann.digital.draw.shapes.ShapeFactory;
+import de.neemann.digital.integration.Resources;
+import de.neemann.digital.integration.ToBreakRunner;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Collections;
+
+public class ElementLibraryTest extends TestCase {
+    private static final File FOLDER = new File(Resources.getRoot(), "dig/test/transp");
+
+    public void testPreload() throws Exception {
+        ElementLibrary library = new ElementLibrary();
+        library.setRootFilePath(FOLDER);
+        Circuit circuit = Circuit.loadCircuit(new File(FOLDER, "transtest3.dig"), new ShapeFactory(library));
+        library.preload(circuit);
+
+        ElementLibrary plain = new ElementLibrary();
+        plain.setRootFilePath(FOLDER);
+
+        // trans2.dig is only used by trans3.dig
+        for (String name : new String[]{"trans3.dig", "trans2.dig"}) {
+            ElementTypeDescriptionCustom d = (ElementTypeDescriptionCustom) library.getElementType(name);
+            ElementTypeDescription expected = plain.getElementType(name);
+            assertEquals(names(expected.getInputDescription(null)), names(d.getInputDescription(null)));
+            assertEquals(names(expected.getOutputDescriptions(null)), names(d.getOutputDescriptions(null)));
+        }
+    }
+
+    public void testInvalidate() throws Exception {
+        ElementLibrary library = new ElementLibrary();
+        library.setRootFilePath(FOLDER);
+        ElementTypeDescriptionCustom d = (ElementTypeDescriptionCustom) library.getElementType("trans2.dig");
+
+        library.invalidateElement(d.getFile());
+        ElementTypeDescriptionCustom d2 = (ElementTypeDescriptionCustom) library.getElementType("trans2.dig");
+        assertNotSame(d, d2);
+        assertNotSame(d.getCircuit(), d2.getCircuit());
+    }
+
+    public void testUses() throws Exception {
+        ElementLibrary library = new ElementLibrary();
+        library.setRootFilePath(FOLDER);
+        ElementTypeDescriptionCustom trans3 = (ElementTypeDescriptionCustom) library.getElementType("trans3.dig");
+        ElementTypeDescriptionCustom trans2 = (ElementTypeDescriptionCustom) library.getElementType("trans2.dig");
+
+        assertTrue(trans3.uses(Collections.singleton("trans2.dig")));
+        assertFalse(trans2.uses(Collections.singleton("trans3.dig")));
+        assertFalse(trans3.uses(Collections.singleton("trans3.dig")));
+    }
+
+    public void testInvalidateTemplates() throws Exception {
+        ElementLibrary library = new ElementLibrary();
+        library.setRootFilePath(FOLDER);
+        new ShapeFactory(library);
+        ElementTypeDescriptionCustom trans = (ElementTypeDescriptionCustom) library.getElementType("trans.dig");
+        ElementTypeDescriptionCustom trans2 = (ElementTypeDescriptionCustom) library.getElementType("trans2.dig");
+        ElementTypeDescriptionCustom trans3 = (ElementTypeDescriptionCustom) library.getElementType("trans3.dig");
+        ElementTypeDescriptionCustom pull = (ElementTypeDescriptionCustom) library.getElementType("pull.dig");
+        NestedCircuitTemplate t2 = trans2.getTemplate(0, null);
+        NestedCircuitTemplate t3 = trans3.getTemplate(0, null);
+        NestedCircuitTemplate tp = pull.getTemplate(0, null);
+        assertSame(t3, trans3.getTemplate(0, null));
+
+        // trans3.dig uses trans.dig by trans2.dig
+        library.invalidateElement(trans.getFile());
+        assertNotSame(t2, trans2.getTemplate(0, null));
+        assertNotSame(t3, trans3.getTemplate(0, null));
+        assertSame(tp, pull.getTemplate(0, null));
+    }
+
+    public void testInvalidateNested() throws Exception {
+        ToBreakRunner br = new ToBreakRunner("dig/test/romContent/rom.dig", false);
+        ElementLibrary library = br.getLibrary();
+        ElementTypeDescriptionCustom inc1 = (ElementTypeDescriptionCustom) library.getElementType("rom-1-inc.dig");
+        ElementTypeDescriptionCustom inc2 = (ElementTypeDescriptionCustom) library.getElementType("rom-2-inc.dig");
+        NestedCircuitTemplate t = inc1.getTemplate(0, null);
+        new ModelCreator(br.getCircuit(), library);
+
+        // rom.dig uses rom-2-inc.dig by rom-1-inc.dig
+        library.invalidateElement(inc2.getFile());
+        ElementTypeDescriptionCustom reloaded = (ElementTypeDescriptionCustom) library.getElementType("rom-2-inc.dig");
+        assertNotSame(t, inc1.getTemplate(0, null));
+        ModelCreator mc = new ModelCreator(br.getCircuit(), library);
+        assertEquals(8, mc.getEntries("ROM").size());
+        for (ModelEntry e : mc.getEntries("ROM"))
+            assertTrue(reloaded.getCircuit().getElements().contains(e.getVisualElement()));
+    }
+
+    public void testInvalidateGeneric() throws Exception {
+        File folder = new File(Resources.getRoot(), "dig/test/vhdl/generics");
+        ElementLibrary library = new ElementLibrary();
+        library.setRootFilePath(folder);
+        new ShapeFactory(library);
+        ElementTypeDescriptionCustom mainMem = (ElementTypeDescriptionCustom) library.getElementType("mainMem.dig");
+        ElementTypeDescriptionCustom memLeaf2 = (ElementTypeDescriptionCustom) library.getElementType("memLeaf2.dig");
+        NestedCircuitTemplate t = mainMem.getTemplate(0, null);
+
+        // mainMem.dig uses the generic memNode.dig which is able to use any circuit
+        library.invalidateElement(memLeaf2.getFile());
+        assertNotSame(t, mainMem.getTemplate(0, null));
+    }
+
+    private static String names(PinDescriptions pins) {
+        StringBuilder sb = new StringBuilder();
+        for (PinDescription p : pins)
+            sb.append(p.getName()).append(',');
+        return sb.toString();
+    }
+}
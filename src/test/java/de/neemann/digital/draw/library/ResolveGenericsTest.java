@@ -5,6 +5,8 @@
  */
 package de.neemann.digital.draw.library;
 
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.integration.ToBreakRunner;
 import junit.framework.TestCase;
 
 public class ResolveGenericsTest extends TestCase {
@@ -18,6 +20,23 @@ public class ResolveGenericsTest extends TestCase {
         check("\\\"Test\\\"", "\"Test\"");
     }
 
+    public void testSharedCache() throws Exception {
+        ElementLibrary library = new ToBreakRunner("dig/test/generics/main.dig", false).getLibrary();
+        ElementTypeDescriptionCustom count = (ElementTypeDescriptionCustom) library.getElementType("count.dig");
+        Circuit circuit = count.getCircuit();
+
+        Circuit resolved = new ResolveGenerics(circuit, library, true).resolveCircuit(null).getCircuit();
+        assertSame(resolved, new ResolveGenerics(circuit, library, true).resolveCircuit(null).getCircuit());
+        assertNotSame(resolved, new ResolveGenerics(circuit, library).resolveCircuit(null).getCircuit());
+
+        library.invalidateElement(count.getFile());
+        Circuit reloaded = new ResolveGenerics(circuit, library, true).resolveCircuit(null).getCircuit();
+        assertNotSame(resolved, reloaded);
+
+        library.updateEntries();
+        assertNotSame(reloaded, new ResolveGenerics(circuit, library, true).resolveCircuit(null).getCircuit());
+    }
+
     private void check(String expected, String found) {
         StringBuilder sb = new StringBuilder();
         ResolveGenerics.escapeString(sb, found);
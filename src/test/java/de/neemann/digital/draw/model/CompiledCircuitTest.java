@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.model;
+
+import de.neemann.digital.core.ErrorDetector;
+import de.neemann.digital.core.element.Keys;
+import de.neemann.digital.draw.elements.Circuit;
+import de.neemann.digital.integration.FileScanner;
+import de.neemann.digital.integration.Resources;
+import de.neemann.digital.integration.ToBreakRunner;
+import de.neemann.digital.testing.TestExecutor;
+import de.neemann.digital.testing.TestResult;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CompiledCircuitTest extends TestCase {
+    private int testCases;
+
+    /*
+     * Runs all test cases using models created by the compiled circuit
+     */
+    public void testTestExamples() throws Exception {
+        new FileScanner(this::check).scan(new File(Resources.getRoot(), "/dig/test"));
+        assertTrue(testCases > 150);
+    }
+
+    private void check(File dig) throws Exception {
+        if (dig.getName().endsWith("Error.dig"))
+            return;
+        ToBreakRunner br = new ToBreakRunner(dig);
+        br.close();
+        Circuit circuit = br.getCircuit();
+        if (circuit.getAttributes().get(Keys.IS_GENERIC))
+            return;
+
+        CompiledCircuit compiled = new CompiledCircuit(circuit, br.getLibrary());
+        // every model needs to be independent of the models created before
+        for (int i = 0; i < 2; i++)
+            for (Circuit.TestCase tc : circuit.getTestCases()) {
+                testCases++;
+                ErrorDetector ed = new ErrorDetector();
+                TestResult tr = new TestExecutor(tc.getLabel(), tc.getTestCaseDescription(), compiled.instantiate())
+                        .addObserver(ed)
+                        .execute();
+                if (tc.getLabel().contains("Failing"))
+                    assertFalse(dig.getName() + ":" + tc.getLabel(), tr.allPassed());
+                else
+                    assertTrue(dig.getName() + ":" + tc.getLabel(), tr.allPassed());
+                ed.check();
+            }
+    }
+
+    public void testConcurrent() throws Exception {
+        ToBreakRunner br = new ToBreakRunner("dig/test/74xx/74181-74182.dig");
+        br.close();
+        Circuit circuit = br.getCircuit();
+        assertEquals(1, circuit.getTestCases().size());
+        Circuit.TestCase tc = circuit.getTestCases().get(0);
+
+        CompiledCircuit compiled = new CompiledCircuit(circuit, br.getLibrary());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ArrayList<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+                results.add(executor.submit(() ->
+                        new TestExecutor(tc.getLabel(), tc.getTestCaseDescription(), compiled.instantiate())
+                                .execute()
+                                .allPassed()));
+            for (Future<Boolean> f : results)
+                assertTrue(f.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
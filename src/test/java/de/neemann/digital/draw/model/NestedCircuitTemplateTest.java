@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021 Helmut Neemann
+ * Use of this source code is governed by the GPL v3 license
+ * that can be found in the LICENSE file.
+ */
+package de.neemann.digital.draw.model;
+
+import de.neemann.digital.draw.library.ElementLibrary;
+import de.neemann.digital.draw.library.ElementTypeDescriptionCustom;
+import de.neemann.digital.integration.ToBreakRunner;
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.TreeSet;
+
+public class NestedCircuitTemplateTest extends TestCase {
+
+    public void testLabels() throws Exception {
+        ToBreakRunner br = new ToBreakRunner("dig/test/romContent/rom.dig", false);
+        ModelCreator mc = new ModelCreator(br.getCircuit(), br.getLibrary());
+
+        TreeSet<String> labels = new TreeSet<>();
+        HashSet<Object> elements = new HashSet<>();
+        for (ModelEntry e : mc.getEntries("ROM")) {
+            labels.add(e.getElementAttributes().getLabel());
+            elements.add(e.getElement());
+        }
+        assertEquals("[R0-A, R0-B, R1-A, R1-B, R2-A, R2-B, R3-A, R3-B]", labels.toString());
+        assertEquals(8, elements.size());
+    }
+
+    public void testInvalidate() throws Exception {
+        ToBreakRunner br = new ToBreakRunner("dig/test/romContent/rom.dig", false);
+        ElementLibrary library = br.getLibrary();
+        ElementTypeDescriptionCustom inc = (ElementTypeDescriptionCustom) library.getElementType("rom-2-inc.dig");
+        ModelCreator mc = new ModelCreator(br.getCircuit(), library);
+        assertTrue(inc.getCircuit().getElements().contains(mc.getEntries("ROM").get(0).getVisualElement()));
+
+        // the templates of the outer circuits need to use the reloaded circuit
+        library.invalidateElement(inc.getFile());
+        ElementTypeDescriptionCustom reloaded = (ElementTypeDescriptionCustom) library.getElementType("rom-2-inc.dig");
+        assertNotSame(inc, reloaded);
+        mc = new ModelCreator(br.getCircuit(), library);
+        assertEquals(8, mc.getEntries("ROM").size());
+        for (ModelEntry e : mc.getEntries("ROM"))
+            assertTrue(reloaded.getCircuit().getElements().contains(e.getVisualElement()));
+    }
+}
@@ -102,5 +102,26 @@ public class NetListTest extends TestCase {
         assertEquals(1, ns.size());
     }
 
-}
+    public void testManyWires() throws Exception {
+        ElementLibrary lib = new ElementLibrary();
+        ShapeFactory sf = new ShapeFactory(lib);
+        Circuit c = new Circuit();
+
+        // 1000 separated lines, every line made of 50 wires added in reverse order, bypassing the wire merger
+        for (int l = 0; l < 1000; l++)
+            for (int i = 50; i > 0; i--)
+                c.getWires().add(new Wire(new Vector(i * SIZE, l * 2 * SIZE), new Vector((i + 1) * SIZE, l * 2 * SIZE)));
+        // connect every second line by a tunnel
+        for (int l = 0; l < 1000; l += 2)
+            addTunnel(c, new Vector(SIZE, l * 2 * SIZE), "A", sf);
 
+        NetList ns = new NetList(c);
+        assertEquals(501, ns.size());
+        Net n = ns.getNetOfPos(new Vector(SIZE, 0));
+        assertEquals(500 * 50, n.getWires().size());
+        assertSame(n, ns.getNetOfPos(new Vector(51 * SIZE, 4 * SIZE)));
+        assertNotSame(n, ns.getNetOfPos(new Vector(51 * SIZE, 2 * SIZE)));
+        assertTrue(n.getLabels().contains("A"));
+    }
+
+}
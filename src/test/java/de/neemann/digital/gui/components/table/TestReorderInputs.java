@@ -7,7 +7,7 @@ package de.neemann.digital.gui.components.table;
 
 import de.neemann.digital.analyse.TruthTable;
 import de.neemann.digital.analyse.expression.ContextFiller;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import junit.framework.TestCase;
 
 /**
@@ -16,7 +16,7 @@ public class TestReorderInputs extends TestCase {
 
     public void testReorder() throws Exception {
         TruthTable t = new TruthTable(5).addResult();
-        BoolTableByteArray col = (BoolTableByteArray) t.getResult(0);
+        BoolTableBitSet col = (BoolTableBitSet) t.getResult(0);
         for (int i = 0; i < t.getRows(); i++)
             col.set(i, i + 1);
 
@@ -36,7 +36,7 @@ public class TestReorderInputs extends TestCase {
 
     public void testDeleteVar() throws Exception {
         TruthTable t = new TruthTable(3).addResult();
-        BoolTableByteArray col = (BoolTableByteArray) t.getResult(0);
+        BoolTableBitSet col = (BoolTableBitSet) t.getResult(0);
         for (int i = 0; i < t.getRows(); i++)
             col.set(i, i + 1);
 
@@ -6,7 +6,7 @@
 package de.neemann.digital.gui.components.table;
 
 import de.neemann.digital.analyse.TruthTable;
-import de.neemann.digital.analyse.quinemc.BoolTableByteArray;
+import de.neemann.digital.analyse.quinemc.BoolTableBitSet;
 import junit.framework.TestCase;
 
 /**
@@ -15,7 +15,7 @@ public class TestReorderOutputs extends TestCase {
 
     public void testDeleteResult() throws Exception {
         TruthTable t = new TruthTable(3).addResult().addResult();
-        BoolTableByteArray col = (BoolTableByteArray) t.getResult(0);
+        BoolTableBitSet col = (BoolTableBitSet) t.getResult(0);
         for (int i = 0; i < t.getRows(); i++)
             col.set(i, i + 1);
 
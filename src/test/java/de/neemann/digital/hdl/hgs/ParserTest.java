@@ -297,6 +297,29 @@ public class ParserTest extends TestCase {
         assertEquals("09182736455463728190", c.toString());
     }
 
+    public void testParseTemplateForDeclare() throws IOException, ParserException, HGSEvalException {
+        // a variable declared in the body is created again in every iteration
+        Context c = exec("<? s:=0; for (i:=0;i<4;i++) { t:=i*2; s=s+t; } print(s); ?>");
+        assertEquals("12", c.toString());
+
+        // a variable declared in a nested if is not visible in the loop body
+        c = exec("<? s:=0; for (i:=0;i<4;i++) { if (i>1) { t:=i; s=s+t; } } print(s, isPresent(t)); ?>");
+        assertEquals("5false", c.toString());
+
+        c = exec("<? i:=0; f:=func(a) { b:=a+1; return b; }; while (i<3) i=f(i); print(i, isPresent(b)); ?>");
+        assertEquals("3false", c.toString());
+
+        c = exec("<? i:=0; repeat { if (i=1) j:=i; i++; } until i=3; print(i, isPresent(j)); ?>");
+        assertEquals("3false", c.toString());
+    }
+
+    public void testParseCached() throws IOException, ParserException, HGSEvalException {
+        Statement s = Parser.parseCached("a:=3; print(a*b);");
+        assertSame(s, Parser.parseCached("a:=3; print(a*b);"));
+        assertEquals("6", exec(s, newContext().declareVar("b", 2)).toString());
+        assertEquals("9", exec(s, newContext().declareVar("b", 3)).toString());
+    }
+
     public void testParseTemplateForNested() throws IOException, ParserException, HGSEvalException {
         Context c = exec("Hello <? for (i:=0;i<10;i++) { ?>n<? } ?> World!");
         assertEquals("Hello nnnnnnnnnn World!", c.toString());
@@ -127,4 +127,22 @@ public class TestProcessor extends TestCase {
         assertEquals(2, ram.getMemory().getDataWord(256));
     }
 
+    /**
+     * Runs the processors self test with the parallel evaluation enabled.
+     */
+    public void testProcessorSelfTestParallel() throws Exception {
+        ToBreakRunner runner = new ToBreakRunner("../../main/dig/processor/Processor.dig", false);
+        Model model = runner.getModel();
+        for (ROM r : model.findNode(ROM.class))
+            if (r.isProgramMemory())
+                r.setData(Importer.read(new File(Resources.getRoot(), "programs/selftest.hex"), r.getDataBits()));
+
+        model.setParallelThreshold(2).init(true);
+        RAMSinglePort ram = runner
+                .runToBreak(790)
+                .getSingleNode(RAMSinglePort.class);
+
+        assertEquals(2, ram.getMemory().getDataWord(256));
+    }
+
 }
@@ -63,6 +63,7 @@ public class ToBreakRunner {
         library.setRootFilePath(filename.getParentFile());
         ShapeFactory shapeFactory = new ShapeFactory(library);
         circuit = Circuit.loadCircuit(filename, shapeFactory);
+        library.preload(circuit);
 
         ModelCreator md = new ModelCreator(circuit, library);
         model = md.createModel(false);
@@ -12,6 +12,7 @@ import junit.framework.TestCase;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 
 public class FolderTestRunnerTest extends TestCase {
 
@@ -36,4 +37,25 @@ public class FolderTestRunnerTest extends TestCase {
 
         ft.waitUntilFinished();
     }
+
+    public void testThreads() throws InterruptedException, IOException {
+        File f = new File(Resources.getRoot(), "dig/test/arith");
+        assertEquals(runTests(f, 1), runTests(f, 4));
+    }
+
+    private ArrayList<String> runTests(File f, int threads) throws InterruptedException, IOException {
+        FolderTestRunner ft = new FolderTestRunner(f).setThreads(threads);
+        ElementLibrary library = new ElementLibrary();
+        library.setRootFilePath(f.getParentFile());
+        ft.startTests((fileToTest, row) -> {
+        }, new ShapeFactory(library), library);
+        ft.waitUntilFinished();
+
+        ArrayList<String> messages = new ArrayList<>();
+        for (FolderTestRunner.FileToTest fileToTest : ft.getFiles()) {
+            assertEquals(FolderTestRunner.FileToTest.Status.passed, fileToTest.getStatus());
+            messages.add(fileToTest.getMessage());
+        }
+        return messages;
+    }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import de.neemann.digital.builder.BuilderException;
 import de.neemann.digital.builder.circuit.CircuitBuilder;
 import de.neemann.digital.core.Model;
 import de.neemann.digital.core.NodeException;
+import de.neemann.digital.data.Value;
 import de.neemann.digital.data.ValueTable;
 import de.neemann.digital.draw.elements.Circuit;
 import de.neemann.digital.draw.elements.PinException;
@@ -19,6 +20,7 @@ import de.neemann.digital.draw.library.ElementLibrary;
 import de.neemann.digital.draw.library.ElementNotFoundException;
 import de.neemann.digital.draw.model.ModelCreator;
 import de.neemann.digital.draw.shapes.ShapeFactory;
+import de.neemann.digital.testing.parser.ParserException;
 import junit.framework.TestCase;
 
 import java.io.IOException;
@@ -120,4 +122,132 @@ public class TestResultTest extends TestCase {
         assertTrue(tr.allPassed());
     }
 
+    public void testBitSliced() throws Exception {
+        Model model = getModel("A^B^C^D^E^F^G^H");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B C D E F G H Y\n"
+                        + "loop(n,256)\n"
+                        + "bits(8,n) ((n^(n>>1)^(n>>2)^(n>>3)^(n>>4)^(n>>5)^(n>>6)^(n>>7))&1)\n"
+                        + "end loop\n"
+                        + "loop(n,100)\n"
+                        + "bits(8,n) ((n^(n>>1)^(n>>2)^(n>>3)^(n>>4)^(n>>5)^(n>>6)^(n>>7))&1)\n"
+                        + "end loop\n");
+        TestExecutor te = new TestExecutor(data, model);
+        assertNotNull(LineListenerBitSliced.create(te, model, new TestResult(te)));
+        TestResult tr = te.execute();
+        assertEquals(356, tr.getRowsTested());
+        assertTrue(tr.allPassed());
+    }
+
+    public void testBitSlicedError() throws Exception {
+        Model model = getModel("A*B+C");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B C Y\n"
+                        + "loop(n,100)\n"
+                        + "bits(3,n) ((n>>2)&(n>>1)&1)\n"
+                        + "end loop\n");
+        TestResult tr = new TestExecutor(data, model).execute();
+        assertEquals(100, tr.getRowsTested());
+        assertFalse(tr.allPassed());
+        ValueTable valueTable = tr.getValueTable();
+        for (int r = 0; r < 100; r++) {
+            boolean passed = (r & 1) == 0 || (r & 6) == 6;
+            assertEquals("row " + r, passed, ((MatchedValue) valueTable.getValue(r, 3)).isPassed());
+        }
+    }
+
+    public void testBitSlicedModelRead() throws Exception {
+        Model model = getModel("A^B");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B Y\n"
+                        + "0 0 0\n"
+                        + "1 0 1\n"
+                        + "let a=Y;\n"
+                        + "0 (a) 1\n");
+        TestResult tr = new TestExecutor(data, model).execute();
+        assertEquals(3, tr.getRowsTested());
+        assertTrue(tr.allPassed());
+    }
+
+    public void testBitSlicedHighZ() throws Exception {
+        Model model = getModel("A+B");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B Y\n"
+                        + "0 1 1\n"
+                        + "z 0 x\n"
+                        + "1 0 1\n"
+                        + "0 0 0\n");
+        TestResult tr = new TestExecutor(data, model).execute();
+        ValueTable valueTable = tr.getValueTable();
+        assertEquals(4, valueTable.getRows());
+        assertTrue(tr.allPassed());
+        assertEquals(Value.Type.HIGHZ, valueTable.getValue(1, 0).getType());
+    }
+
+    public void testStreaming() throws Exception {
+        Model model = getModel("A*B+C");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B C Y\n"
+                        + "loop(n,100)\n"
+                        + "bits(3,n) ((n>>2)&(n>>1)&1)\n"
+                        + "end loop\n");
+        TestResult tr = new TestExecutor(data, model).executeStreaming(2);
+        assertEquals(100, tr.getRowsTested());
+        assertFalse(tr.allPassed());
+        assertTrue(tr.toManyResults());
+        ValueTable valueTable = tr.getValueTable();
+        assertEquals(4, valueTable.getRows());
+        for (int r = 0; r < 4; r++) {
+            assertEquals(r, valueTable.getTableRow(r).getRow());
+            assertEquals((r & 1) == 0, ((MatchedValue) valueTable.getValue(r, 3)).isPassed());
+        }
+    }
+
+    public void testStreamingContext() throws Exception {
+        Model model = getModel("A*B");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B Y\n"
+                        + "loop(n,100)\n"
+                        + "0 0 0\n"
+                        + "end loop\n"
+                        + "1 1 0\n");
+        TestResult tr = new TestExecutor(data, model).executeStreaming(1);
+        assertEquals(101, tr.getRowsTested());
+        assertFalse(tr.allPassed());
+        ValueTable valueTable = tr.getValueTable();
+        assertEquals(9, valueTable.getRows());
+        assertEquals(92, valueTable.getTableRow(0).getRow());
+        assertFalse(tr.toManyResults());
+        assertFalse(((MatchedValue) valueTable.getValue(8, 2)).isPassed());
+    }
+
+    public void testStreamingPassed() throws Exception {
+        Model model = getModel("A*B");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B Y\n"
+                        + "loop(n,1000)\n"
+                        + "bits(2,n) ((n>>1)&n&1)\n"
+                        + "end loop\n");
+        TestResult tr = new TestExecutor(data, model).executeStreaming(0);
+        assertEquals(1000, tr.getRowsTested());
+        assertTrue(tr.allPassed());
+        assertFalse(tr.toManyResults());
+        assertEquals(0, tr.getValueTable().getRows());
+    }
+
+    public void testLoopLimit() throws Exception {
+        Model model = getModel("A*B");
+        TestCaseDescription data = new TestCaseDescription(
+                "A B Y\n"
+                        + "loop(n,1<<25)\n"
+                        + "0 0 0\n"
+                        + "end loop\n");
+        // all rows would be kept, so the old limit applies
+        try {
+            new TestExecutor(data, model).execute();
+            fail();
+        } catch (ParserException e) {
+            assertTrue(true);
+        }
+    }
 }
@@ -62,5 +62,52 @@ public class ParserLetTest extends TestCase {
         }
     }
 
+    public void testLoopShadowing() throws IOException, ParserException {
+        Parser parser = new Parser(
+                "A B\n"
+                        + "let a=10;\n"
+                        + "loop(n,3)\n"
+                        + "  (a) (n)\n"
+                        + "  let a=n+20;\n"
+                        + "end loop\n"
+                        + "(a) 0\n").parse();
+        LineCollector td = new LineCollector(parser);
+
+        assertEquals(4, td.getLines().size());
+        assertEquals(10, td.getLines().get(0).getValue(0).getValue());
+        assertEquals(20, td.getLines().get(1).getValue(0).getValue());
+        assertEquals(21, td.getLines().get(2).getValue(0).getValue());
+        assertEquals(10, td.getLines().get(3).getValue(0).getValue());
+    }
+
+    public void testWhileInLoop() throws IOException, ParserException {
+        Parser parser = new Parser(
+                "A B\n"
+                        + "loop(n,3)\n"
+                        + "  let i=0;\n"
+                        + "  while(i<n)\n"
+                        + "    (n) (i)\n"
+                        + "    let i=i+1;\n"
+                        + "  end while\n"
+                        + "end loop\n").parse();
+        LineCollector td = new LineCollector(parser);
+
+        assertEquals(3, td.getLines().size());
+        assertEquals(1, td.getLines().get(0).getValue(0).getValue());
+        assertEquals(0, td.getLines().get(0).getValue(1).getValue());
+        assertEquals(2, td.getLines().get(2).getValue(0).getValue());
+        assertEquals(1, td.getLines().get(2).getValue(1).getValue());
+    }
+
+    public void testLoopExternalVar() throws IOException, ParserException {
+        Parser parser = new Parser("A B\nloop(n,3)\n(n) (k)\nend loop").parse();
+        LineCollector td = new LineCollector(parser, new Context().setVar("k", 7));
 
+        assertEquals(3, td.getLines().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, td.getLines().get(i).getValue(0).getValue());
+            assertEquals(7, td.getLines().get(i).getValue(1).getValue());
+            assertEquals("L3;k=7;n=" + i, td.getLines().get(i).getDescription());
+        }
+    }
 }